@@ -1,6 +1,8 @@
 package se325.websocketchat.jackson.websocket;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.ObjectWriter;
 
 import javax.websocket.Decoder;
 import javax.websocket.Encoder;
@@ -23,12 +25,20 @@ public abstract class JSONCoder<T>
         implements Encoder.TextStream<T>, Decoder.TextStream<T> {
 
 
+    /**
+     * One ObjectMapper for every coder. Once it's configured, an ObjectMapper is threadsafe, and creating one (and
+     * having it work out again how to read and write each class) is expensive.
+     */
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+
     private Class<T> _type;
 
     /**
-     * One ObjectMapper per thread, as it's not threadsafe.
+     * Created once we know the type. Readers and writers are immutable (so threadsafe too), and look up the type's
+     * deserializer / serializer when they're created, rather than every time they're used.
      */
-    private final ThreadLocal<ObjectMapper> _mapper = ThreadLocal.withInitial(ObjectMapper::new);
+    private ObjectReader _reader;
+    private ObjectWriter _writer;
 
 
     @Override
@@ -42,16 +52,18 @@ public abstract class JSONCoder<T>
         } else if ($T instanceof ParameterizedType) {
             _type = (Class<T>) ((ParameterizedType) $T).getRawType();
         }
+        _reader = MAPPER.readerFor(_type);
+        _writer = MAPPER.writerFor(_type);
     }
 
     @Override
     public void encode(T object, Writer writer) throws IOException {
-        _mapper.get().writeValue(writer, object);
+        _writer.writeValue(writer, object);
     }
 
     @Override
     public T decode(Reader reader) throws IOException {
-        return _mapper.get().readValue(reader, _type);
+        return _reader.readValue(reader);
     }
 
     @Override
@@ -0,0 +1,110 @@
+package se325.benchmarks.dadjokes;
+
+import se325.examples.example05.model.DadJoke;
+import se325.examples.example05.store.DadJokeStore;
+import se325.examples.example05.store.InMemoryDadJokeStore;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Group;
+import org.openjdk.jmh.annotations.GroupThreads;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Optional;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares example 05's {@link InMemoryDadJokeStore} against the {@link SynchronizedListDadJokeStore} baseline, with
+ * several threads using the same store at once. Each group is a different mix of reads and writes:
+ * <ul>
+ *     <li>{@code readOnly}: two threads finding jokes by id, and two finding random jokes.</li>
+ *     <li>{@code readMostly}: three threads finding jokes by id, and one adding jokes.</li>
+ *     <li>{@code writeHeavy}: one thread finding jokes by id, and three adding jokes.</li>
+ * </ul>
+ * Each iteration starts with a new store holding {@link #jokes} jokes. Jokes added during an iteration are kept, so
+ * the store grows as the iteration goes on (and uses more memory for the {@code add} benchmarks).
+ */
+@State(Scope.Group)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "-Xmx2g")
+public class DadJokeStoreBenchmark {
+
+    @Param({"in-memory", "synchronized-list"})
+    public String store;
+
+    @Param({"10000"})
+    public int jokes;
+
+    private DadJokeStore dadJokeStore;
+
+    @Setup(Level.Iteration)
+    public void setUp() {
+        dadJokeStore = store.equals("in-memory") ? new InMemoryDadJokeStore() : new SynchronizedListDadJokeStore();
+        for (int i = 0; i < jokes; i++) {
+            dadJokeStore.add(new DadJoke("What do you call joke number " + i + "? Benchmarked."));
+        }
+    }
+
+    private Optional<DadJoke> findById() {
+        return dadJokeStore.findById(1 + ThreadLocalRandom.current().nextInt(jokes));
+    }
+
+    private DadJoke add() {
+        return dadJokeStore.add(new DadJoke("Why did the benchmark add a joke? To see how long it took."));
+    }
+
+    @Benchmark
+    @Group("readOnly")
+    @GroupThreads(2)
+    public Optional<DadJoke> readOnlyFindById() {
+        return findById();
+    }
+
+    @Benchmark
+    @Group("readOnly")
+    @GroupThreads(2)
+    public Optional<DadJoke> readOnlyFindRandom() {
+        return dadJokeStore.findRandom();
+    }
+
+    @Benchmark
+    @Group("readMostly")
+    @GroupThreads(3)
+    public Optional<DadJoke> readMostlyFindById() {
+        return findById();
+    }
+
+    @Benchmark
+    @Group("readMostly")
+    @GroupThreads(1)
+    public DadJoke readMostlyAdd() {
+        return add();
+    }
+
+    @Benchmark
+    @Group("writeHeavy")
+    @GroupThreads(1)
+    public Optional<DadJoke> writeHeavyFindById() {
+        return findById();
+    }
+
+    @Benchmark
+    @Group("writeHeavy")
+    @GroupThreads(3)
+    public DadJoke writeHeavyAdd() {
+        return add();
+    }
+}
@@ -0,0 +1,52 @@
+package se325.benchmarks.dadjokes;
+
+import se325.examples.example05.model.DadJoke;
+import se325.examples.example05.store.DadJokeStore;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * The way {@code DadJokesController} used to keep its jokes - in a list, searched from start to finish to find a
+ * joke by id - with every method synchronized so that it's safe to use from several threads. This is the baseline
+ * that {@code InMemoryDadJokeStore} is compared against.
+ */
+public class SynchronizedListDadJokeStore implements DadJokeStore {
+
+    private final List<DadJoke> jokes = new ArrayList<>();
+
+    @Override
+    public synchronized DadJoke add(DadJoke joke) {
+        joke.setId(jokes.size() + 1L);
+        jokes.add(joke);
+        return joke;
+    }
+
+    @Override
+    public synchronized Optional<DadJoke> findById(long id) {
+        return jokes.stream().filter(joke -> joke.getId() == id).findFirst();
+    }
+
+    @Override
+    public synchronized Optional<DadJoke> findRandom() {
+        if (jokes.isEmpty()) return Optional.empty();
+        return Optional.of(jokes.get(ThreadLocalRandom.current().nextInt(jokes.size())));
+    }
+
+    @Override
+    public synchronized List<DadJoke> findAll() {
+        return List.copyOf(jokes);
+    }
+
+    @Override
+    public synchronized List<DadJoke> findAfter(long afterId, int limit) {
+        return jokes.stream().filter(joke -> joke.getId() > afterId).limit(limit).toList();
+    }
+
+    @Override
+    public synchronized int size() {
+        return jokes.size();
+    }
+}
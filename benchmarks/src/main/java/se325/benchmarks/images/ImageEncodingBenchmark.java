@@ -0,0 +1,111 @@
+package se325.benchmarks.images;
+
+import se325.examples.example04springboot.image.ImageEncoder;
+import se325.examples.example04springboot.image.ImageFormat;
+import se325.examples.example04springboot.image.PlaceholderRenderer;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import javax.imageio.ImageIO;
+import java.awt.*;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures how long example 07's {@link ImageEncoder} takes to encode an image with each format and compression
+ * setting. The other half of the trade-off - how big the result is - is printed by {@link ImageEncodingSizes}.
+ * <p>
+ * The {@code imageio} setting is the baseline: a plain {@code ImageIO.write(image, "png", out)}, which is what
+ * {@code BufferedImageHttpMessageConverter} used to do.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ImageEncodingBenchmark {
+
+    static final String[] SETTINGS = {"imageio", "png-0", "png-1", "png-4", "png-6", "png-9", "jpeg-0.5", "jpeg-0.85",
+            "jpeg-1.0", "gif"};
+
+    @Param({"imageio", "png-0", "png-1", "png-4", "png-6", "png-9", "jpeg-0.5", "jpeg-0.85", "jpeg-1.0", "gif"})
+    public String setting;
+
+    @Param({"dragonite", "placeholder"})
+    public String image;
+
+    private BufferedImage bufferedImage;
+    private ImageEncoder encoder;
+    private ImageFormat format;
+
+    @Setup
+    public void setUp() throws IOException {
+        bufferedImage = image(image);
+        if (!setting.equals("imageio")) {
+            encoder = encoder(setting);
+            format = format(setting);
+        }
+    }
+
+    @Benchmark
+    public byte[] encode() throws IOException {
+        return encode(bufferedImage, setting, encoder, format);
+    }
+
+    static byte[] encode(BufferedImage image, String setting, ImageEncoder encoder, ImageFormat format)
+            throws IOException {
+        if (setting.equals("imageio")) {
+            ByteArrayOutputStream out = new ByteArrayOutputStream();
+            ImageIO.write(image, "png", out);
+            return out.toByteArray();
+        }
+        return encoder.encode(image, format);
+    }
+
+    /**
+     * The image to encode: a photo-like picture, or a flat placeholder, which compresses much better.
+     */
+    static BufferedImage image(String name) throws IOException {
+        return switch (name) {
+            case "dragonite" -> {
+                try (InputStream in = ImageEncodingBenchmark.class.getClassLoader().getResourceAsStream("Dragonite.png")) {
+                    yield ImageIO.read(in);
+                }
+            }
+            case "placeholder" -> new PlaceholderRenderer().render(512, 512, Color.WHITE, new Color(20, 20, 20),
+                    "Placeholder 512 x 512");
+            default -> throw new IllegalArgumentException("Unknown image: " + name);
+        };
+    }
+
+    /**
+     * Creates the encoder for a setting like {@code png-6} (PNG, deflate level 6) or {@code jpeg-0.85} (JPEG, quality
+     * 0.85).
+     */
+    static ImageEncoder encoder(String setting) {
+        String[] parts = setting.split("-");
+        return switch (parts[0]) {
+            case "png" -> new ImageEncoder(Integer.parseInt(parts[1]), ImageEncoder.DEFAULT_JPEG_QUALITY);
+            case "jpeg" -> new ImageEncoder(ImageEncoder.DEFAULT_PNG_COMPRESSION_LEVEL, Float.parseFloat(parts[1]));
+            default -> new ImageEncoder();
+        };
+    }
+
+    static ImageFormat format(String setting) {
+        return ImageFormat.valueOf(setting.split("-")[0].toUpperCase());
+    }
+}
@@ -0,0 +1,26 @@
+package se325.benchmarks.images;
+
+import se325.examples.example04springboot.image.ImageEncoder;
+import se325.examples.example04springboot.image.ImageFormat;
+
+import java.awt.image.BufferedImage;
+
+/**
+ * Prints how many bytes each of {@link ImageEncodingBenchmark}'s settings produces for each image.
+ */
+public class ImageEncodingSizes {
+
+    public static void main(String[] args) throws Exception {
+        System.out.printf("%-12s %-12s %10s%n", "Image", "Setting", "Bytes");
+
+        for (String name : new String[]{"dragonite", "placeholder"}) {
+            BufferedImage image = ImageEncodingBenchmark.image(name);
+            for (String setting : ImageEncodingBenchmark.SETTINGS) {
+                ImageEncoder encoder = setting.equals("imageio") ? null : ImageEncodingBenchmark.encoder(setting);
+                ImageFormat format = setting.equals("imageio") ? null : ImageEncodingBenchmark.format(setting);
+                byte[] encoded = ImageEncodingBenchmark.encode(image, setting, encoder, format);
+                System.out.printf("%-12s %-12s %10d%n", name, setting, encoded.length);
+            }
+        }
+    }
+}
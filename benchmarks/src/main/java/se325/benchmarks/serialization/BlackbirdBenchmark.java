@@ -0,0 +1,82 @@
+package se325.benchmarks.serialization;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import se325.example06.jacksonsamples.example01_basic.Book;
+import se325.example06.jacksonsamples.example01_basic.Genre;
+import se325.example06.jacksonsamples.example02_customproperties.Person;
+import se325.example06.jacksonsamples.example04_maps.PhoneBook;
+import se325.example06.jacksonsamples.example04_maps.PhoneBookEntry;
+import se325.example06.jacksonsamples.example07_polymorphism.Zoo;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Round-trips example 06's classes through Jackson, binding their properties either with reflection (Jackson's
+ * default) or with the Blackbird module, which generates code to call their constructors, getters and setters.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class BlackbirdBenchmark {
+
+    @Param({"reflection", "blackbird"})
+    public String binding;
+
+    @Param({"book", "person", "typed-pokemon", "phone-book", "zoo"})
+    public String object;
+
+    private Codec<Object> codec;
+    private Object value;
+    private byte[] encoded;
+
+    @Setup
+    @SuppressWarnings("unchecked")
+    public void setUp() throws Exception {
+        ObjectMapper mapper = switch (binding) {
+            case "reflection" -> Fixtures.mapper();
+            case "blackbird" -> Fixtures.blackbirdMapper();
+            default -> throw new IllegalArgumentException("Unknown binding: " + binding);
+        };
+        value = switch (object) {
+            case "book" -> new Book("The Neverending Story", Genre.Fantasy);
+            case "person" -> new Person("Bob", 42, "Stuff & things");
+            case "typed-pokemon" -> Fixtures.typedPokemon();
+            case "phone-book" -> phoneBook();
+            case "zoo" -> Fixtures.zoo(100);
+            default -> throw new IllegalArgumentException("Unknown object: " + object);
+        };
+        codec = (Codec<Object>) Codecs.jackson(mapper, (Class<Object>) value.getClass());
+        encoded = codec.encode(value);
+    }
+
+    @Benchmark
+    public byte[] encode() throws Exception {
+        return codec.encode(value);
+    }
+
+    @Benchmark
+    public Object decode() throws Exception {
+        return codec.decode(encoded);
+    }
+
+    private static PhoneBook phoneBook() {
+        PhoneBook phoneBook = new PhoneBook();
+        phoneBook.getEntries().put("Alice", new PhoneBookEntry("021 123 4567", "123 Some Street"));
+        phoneBook.getEntries().put("Bob", new PhoneBookEntry("021 987 6543", "456 Some Other Street"));
+        return phoneBook;
+    }
+}
@@ -0,0 +1,12 @@
+package se325.benchmarks.serialization;
+
+/**
+ * Converts objects of a particular type to and from bytes. Each serialization format used in the examples is wrapped
+ * in one of these (see {@link Codecs}), so that they can all be benchmarked in the same way.
+ */
+public interface Codec<T> {
+
+    byte[] encode(T value) throws Exception;
+
+    T decode(byte[] data) throws Exception;
+}
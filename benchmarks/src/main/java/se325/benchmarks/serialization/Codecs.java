@@ -0,0 +1,114 @@
+package se325.benchmarks.serialization;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import se325.example01.employees.Employee;
+import se325.example01.employees.EmployeeCodec;
+import se325.example07.parolee.services.SerializationMessageBodyReaderAndWriter;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.Serializable;
+
+/**
+ * The serialization formats used across the examples, each wrapped as a {@link Codec}.
+ */
+public final class Codecs {
+
+    private Codecs() {
+    }
+
+    /**
+     * Plain Java serialization, as used by example 02. Each message uses a fresh {@link ObjectOutputStream}, just as
+     * the example's server does for each connection.
+     */
+    public static <T> Codec<T> javaSerialization(Class<T> type) {
+        return new Codec<>() {
+            @Override
+            public byte[] encode(T value) throws Exception {
+                ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+                try (ObjectOutputStream out = new ObjectOutputStream(bytes)) {
+                    out.writeObject(value);
+                }
+                return bytes.toByteArray();
+            }
+
+            @Override
+            public T decode(byte[] data) throws Exception {
+                try (ObjectInputStream in = new ObjectInputStream(new ByteArrayInputStream(data))) {
+                    return type.cast(in.readObject());
+                }
+            }
+        };
+    }
+
+    /**
+     * Example 02's hand-written binary {@link EmployeeCodec}.
+     */
+    public static Codec<Employee> employeeCodec() {
+        return new Codec<>() {
+            @Override
+            public byte[] encode(Employee value) throws Exception {
+                ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+                try (DataOutputStream out = new DataOutputStream(bytes)) {
+                    EmployeeCodec.write(value, out);
+                }
+                return bytes.toByteArray();
+            }
+
+            @Override
+            public Employee decode(byte[] data) throws Exception {
+                return EmployeeCodec.read(new DataInputStream(new ByteArrayInputStream(data)));
+            }
+        };
+    }
+
+    /**
+     * Java serialization through the archived example 07's {@link SerializationMessageBodyReaderAndWriter}, exactly
+     * as a JAX-RS runtime would call it to read and write a request / response body.
+     */
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    public static <T extends Serializable> Codec<T> jaxRsSerialization(Class<T> type) {
+        SerializationMessageBodyReaderAndWriter provider = new SerializationMessageBodyReaderAndWriter();
+        return new Codec<>() {
+            @Override
+            public byte[] encode(T value) {
+                ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+                provider.writeTo(value, type, type, null,
+                        SerializationMessageBodyReaderAndWriter.APPLICATION_JAVA_SERIALIZED_OBJECT_TYPE, null, bytes);
+                return bytes.toByteArray();
+            }
+
+            @Override
+            public T decode(byte[] data) {
+                return type.cast(provider.readFrom((Class) type, type, null,
+                        SerializationMessageBodyReaderAndWriter.APPLICATION_JAVA_SERIALIZED_OBJECT_TYPE, null,
+                        new ByteArrayInputStream(data)));
+            }
+        };
+    }
+
+    /**
+     * JSON, written and read by the given Jackson {@link ObjectMapper}, as used by example 06.
+     */
+    public static <T> Codec<T> jackson(ObjectMapper mapper, Class<T> type) {
+        ObjectWriter writer = mapper.writerFor(type);
+        ObjectReader reader = mapper.readerFor(type);
+        return new Codec<>() {
+            @Override
+            public byte[] encode(T value) throws Exception {
+                return writer.writeValueAsBytes(value);
+            }
+
+            @Override
+            public T decode(byte[] data) throws Exception {
+                return reader.readValue(data);
+            }
+        };
+    }
+}
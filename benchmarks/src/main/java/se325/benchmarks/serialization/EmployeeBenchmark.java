@@ -0,0 +1,72 @@
+package se325.benchmarks.serialization;
+
+import se325.example01.employees.Employee;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Round-trips a team of {@code Employee}s and their {@code Manager} through example 02's Java serialization and
+ * {@code EmployeeCodec}, and the equivalent team of example 06's {@code @JsonIdentityInfo} classes through Jackson.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class EmployeeBenchmark {
+
+    @Param({"java-serialization", "employee-codec", "jackson"})
+    public String format;
+
+    @Param({"10", "1000"})
+    public int teamSize;
+
+    private Codec<Object> codec;
+    private Object value;
+    private byte[] encoded;
+
+    @Setup
+    @SuppressWarnings("unchecked")
+    public void setUp() throws Exception {
+        switch (format) {
+            case "java-serialization" -> {
+                codec = (Codec<Object>) (Codec<?>) Codecs.javaSerialization(Employee.class);
+                value = Fixtures.employeeTeam(teamSize);
+            }
+            case "employee-codec" -> {
+                codec = (Codec<Object>) (Codec<?>) Codecs.employeeCodec();
+                value = Fixtures.employeeTeam(teamSize);
+            }
+            case "jackson" -> {
+                codec = (Codec<Object>) (Codec<?>) Codecs.jackson(Fixtures.mapper(),
+                        se325.example06.jacksonsamples.example06_references.Employee.class);
+                value = Fixtures.jacksonEmployeeTeam(teamSize);
+            }
+            default -> throw new IllegalArgumentException("Unknown format: " + format);
+        }
+        encoded = codec.encode(value);
+    }
+
+    @Benchmark
+    public byte[] encode() throws Exception {
+        return codec.encode(value);
+    }
+
+    @Benchmark
+    public Object decode() throws Exception {
+        return codec.decode(encoded);
+    }
+}
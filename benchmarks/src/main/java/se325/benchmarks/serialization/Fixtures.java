@@ -0,0 +1,143 @@
+package se325.benchmarks.serialization;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.databind.CBORMapper;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileGenerator;
+import com.fasterxml.jackson.dataformat.smile.databind.SmileMapper;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import com.fasterxml.jackson.module.blackbird.BlackbirdModule;
+import se325.example01.employees.Employee;
+import se325.example01.employees.Manager;
+import se325.example06.jacksonsamples.example03_lists.Type;
+import se325.example06.jacksonsamples.example05_customserialization.Pokemon;
+import se325.example06.jacksonsamples.example07_polymorphism.Cat;
+import se325.example06.jacksonsamples.example07_polymorphism.Dog;
+import se325.example06.jacksonsamples.example07_polymorphism.Zoo;
+import se325.example07.parolee.domain.Gender;
+import se325.example07.parolee.domain.Parolee;
+
+import javax.imageio.ImageIO;
+import java.awt.image.BufferedImage;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+
+/**
+ * The domain objects which are benchmarked, built the same way each time so that every codec is given identical data.
+ */
+public final class Fixtures {
+
+    private Fixtures() {
+    }
+
+    /**
+     * An {@link ObjectMapper} configured as in example 06 (with support for {@code java.time} classes).
+     */
+    public static ObjectMapper mapper() {
+        ObjectMapper mapper = new ObjectMapper();
+        mapper.registerModule(new JavaTimeModule());
+        return mapper;
+    }
+
+    /**
+     * The same as {@link #mapper()}, but with the Blackbird module, which reads and writes properties using generated
+     * code rather than reflection.
+     */
+    public static ObjectMapper blackbirdMapper() {
+        ObjectMapper mapper = mapper();
+        mapper.registerModule(new BlackbirdModule());
+        return mapper;
+    }
+
+    /**
+     * An {@link ObjectMapper} which writes Smile rather than JSON, configured as in example 06 (with binary data
+     * written as raw bytes).
+     */
+    public static ObjectMapper smileMapper() {
+        ObjectMapper mapper = new SmileMapper(SmileFactory.builder()
+                .disable(SmileGenerator.Feature.ENCODE_BINARY_AS_7BIT)
+                .build());
+        mapper.registerModule(new JavaTimeModule());
+        return mapper;
+    }
+
+    /**
+     * An {@link ObjectMapper} which writes CBOR rather than JSON.
+     */
+    public static ObjectMapper cborMapper() {
+        ObjectMapper mapper = new CBORMapper();
+        mapper.registerModule(new JavaTimeModule());
+        return mapper;
+    }
+
+    /**
+     * A manager and {@code teamSize} employees (example 02's classes). Returns the last employee, so that (like the
+     * example's server) the whole team is reachable from the object being serialized.
+     */
+    public static Employee employeeTeam(int teamSize) {
+        Manager manager = new Manager("Manager", "1000000");
+        Employee employee = manager;
+        for (int i = 0; i < teamSize; i++) {
+            employee = new Employee("Employee " + i, String.valueOf(2000000 + i), manager);
+        }
+        return employee;
+    }
+
+    /**
+     * The same team as {@link #employeeTeam(int)}, built from example 06's {@code @JsonIdentityInfo} classes instead.
+     */
+    public static se325.example06.jacksonsamples.example06_references.Employee jacksonEmployeeTeam(int teamSize) {
+        se325.example06.jacksonsamples.example06_references.Manager manager =
+                new se325.example06.jacksonsamples.example06_references.Manager(0, "Manager");
+        se325.example06.jacksonsamples.example06_references.Employee employee = manager;
+        for (int i = 0; i < teamSize; i++) {
+            employee = new se325.example06.jacksonsamples.example06_references.Employee(i + 1, "Employee " + i);
+            employee.setManager(manager);
+            manager.getEmployees().add(employee);
+        }
+        return employee;
+    }
+
+    public static Parolee parolee() {
+        return new Parolee(1L, "Oliver", "Sinnen", Gender.MALE, "1970-05-26");
+    }
+
+    /**
+     * Example 06's Dragonite. Its image is a {@code LazyImage}, which is PNG-encoded the first time it's written, and
+     * then keeps the PNG bytes.
+     */
+    public static Pokemon dragonite() {
+        return new Pokemon(149, "Dragonite", dragoniteImage());
+    }
+
+    /**
+     * Dragonite's image, as written by {@code BufferedImageSerializer} (once {@code ImageModule} is registered).
+     */
+    public static BufferedImage dragoniteImage() {
+        try (InputStream in = Fixtures.class.getClassLoader().getResourceAsStream("Dragonite-Small.png")) {
+            return ImageIO.read(in);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Example 06's list-based Pokemon, which has no image.
+     */
+    public static se325.example06.jacksonsamples.example03_lists.Pokemon typedPokemon() {
+        return new se325.example06.jacksonsamples.example03_lists.Pokemon("Dragonite",
+                new Type("Dragon"), new Type("Flying"));
+    }
+
+    /**
+     * A zoo of {@code size} animals, alternating between cats and dogs.
+     */
+    public static Zoo zoo(int size) {
+        Zoo zoo = new Zoo();
+        for (int i = 0; i < size; i++) {
+            zoo.add(i % 2 == 0 ? new Cat("Cat " + i) : new Dog("Dog " + i));
+        }
+        return zoo;
+    }
+}
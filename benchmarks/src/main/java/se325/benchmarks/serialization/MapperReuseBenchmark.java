@@ -0,0 +1,135 @@
+package se325.benchmarks.serialization;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import se325.example06.jacksonsamples.JsonMappers;
+import se325.example06.jacksonsamples.example05_customserialization.Movie;
+
+import java.time.LocalDate;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Round-trips example 06's {@code Movie} (which needs the {@code JavaTimeModule}) through JSON, getting hold of an
+ * {@link ObjectMapper} in different ways:
+ * <ul>
+ *     <li>{@code new-mapper}: a new mapper for every message, as code which creates a mapper wherever it needs one
+ *     ends up doing. (Example 06's {@code main()} methods each create a mapper too, but only one per run.)</li>
+ *     <li>{@code thread-local-mapper}: one mapper per thread, as the archived WebSocket {@code JSONCoder} used to
+ *     keep. This only measures a thread which already has its mapper - each new thread (and, since the WebSocket
+ *     runtime creates a coder for each connection, each new connection) pays for a {@code new-mapper} instead.</li>
+ *     <li>{@code shared-mapper}: one mapper for everything, calling {@code writeValueAsBytes()} / {@code readValue()}
+ *     on it directly.</li>
+ *     <li>{@code json-mappers}: the cached reader and writer for {@code Movie} from example 06's {@link JsonMappers}.</li>
+ * </ul>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class MapperReuseBenchmark {
+
+    @Param({"new-mapper", "thread-local-mapper", "shared-mapper", "json-mappers"})
+    public String strategy;
+
+    private Codec<Movie> codec;
+    private Movie value;
+    private byte[] encoded;
+
+    @Setup
+    public void setUp() throws Exception {
+        codec = switch (strategy) {
+            case "new-mapper" -> newMapper();
+            case "thread-local-mapper" -> threadLocalMapper();
+            case "shared-mapper" -> sharedMapper();
+            case "json-mappers" -> jsonMappers();
+            default -> throw new IllegalArgumentException("Unknown strategy: " + strategy);
+        };
+        value = new Movie("The Neverending Story", LocalDate.of(1984, 4, 6));
+        encoded = codec.encode(value);
+    }
+
+    @Benchmark
+    public byte[] encode() throws Exception {
+        return codec.encode(value);
+    }
+
+    @Benchmark
+    public Object decode() throws Exception {
+        return codec.decode(encoded);
+    }
+
+    private static ObjectMapper createMapper() {
+        return new ObjectMapper().registerModule(new JavaTimeModule());
+    }
+
+    private static Codec<Movie> newMapper() {
+        return new Codec<>() {
+            @Override
+            public byte[] encode(Movie value) throws Exception {
+                return createMapper().writeValueAsBytes(value);
+            }
+
+            @Override
+            public Movie decode(byte[] data) throws Exception {
+                return createMapper().readValue(data, Movie.class);
+            }
+        };
+    }
+
+    private static Codec<Movie> threadLocalMapper() {
+        ThreadLocal<ObjectMapper> mapper = ThreadLocal.withInitial(MapperReuseBenchmark::createMapper);
+        return new Codec<>() {
+            @Override
+            public byte[] encode(Movie value) throws Exception {
+                return mapper.get().writeValueAsBytes(value);
+            }
+
+            @Override
+            public Movie decode(byte[] data) throws Exception {
+                return mapper.get().readValue(data, Movie.class);
+            }
+        };
+    }
+
+    private static Codec<Movie> sharedMapper() {
+        ObjectMapper mapper = createMapper();
+        return new Codec<>() {
+            @Override
+            public byte[] encode(Movie value) throws Exception {
+                return mapper.writeValueAsBytes(value);
+            }
+
+            @Override
+            public Movie decode(byte[] data) throws Exception {
+                return mapper.readValue(data, Movie.class);
+            }
+        };
+    }
+
+    private static Codec<Movie> jsonMappers() {
+        return new Codec<>() {
+            @Override
+            public byte[] encode(Movie value) throws Exception {
+                return JsonMappers.writer(Movie.class).writeValueAsBytes(value);
+            }
+
+            @Override
+            public Movie decode(byte[] data) throws Exception {
+                return JsonMappers.reader(Movie.class).readValue(data);
+            }
+        };
+    }
+}
@@ -0,0 +1,59 @@
+package se325.benchmarks.serialization;
+
+import se325.example07.parolee.domain.Parolee;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Round-trips a {@code Parolee} through the archived example 07's {@code SerializationMessageBodyReaderAndWriter}
+ * (Java serialization) and through Jackson (JSON).
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ParoleeBenchmark {
+
+    @Param({"jax-rs-java-serialization", "jackson"})
+    public String format;
+
+    private Codec<Object> codec;
+    private Object value;
+    private byte[] encoded;
+
+    @Setup
+    @SuppressWarnings("unchecked")
+    public void setUp() throws Exception {
+        codec = (Codec<Object>) (Codec<?>) switch (format) {
+            case "jax-rs-java-serialization" -> Codecs.jaxRsSerialization(Parolee.class);
+            case "jackson" -> Codecs.jackson(Fixtures.mapper(), Parolee.class);
+            default -> throw new IllegalArgumentException("Unknown format: " + format);
+        };
+        value = Fixtures.parolee();
+        encoded = codec.encode(value);
+    }
+
+    @Benchmark
+    public byte[] encode() throws Exception {
+        return codec.encode(value);
+    }
+
+    @Benchmark
+    public Object decode() throws Exception {
+        return codec.decode(encoded);
+    }
+}
@@ -0,0 +1,55 @@
+package se325.benchmarks.serialization;
+
+import se325.example01.employees.Employee;
+import se325.example06.jacksonsamples.example05_customserialization.ImageModule;
+import se325.example06.jacksonsamples.example05_customserialization.Pokemon;
+import se325.example06.jacksonsamples.example07_polymorphism.Zoo;
+import se325.example07.parolee.domain.Parolee;
+
+import java.awt.image.BufferedImage;
+
+/**
+ * Prints how many bytes each format produces for each of the benchmarked objects. JMH measures speed and allocation,
+ * but not the size of the result, which matters just as much once the bytes have to cross a network.
+ */
+public class PayloadSizes {
+
+    public static void main(String[] args) throws Exception {
+        System.out.printf("%-28s %-28s %10s%n", "Object", "Format", "Bytes");
+
+        for (int teamSize : new int[]{10, 1000}) {
+            String object = "Employee (team of " + teamSize + ")";
+            print(object, "java-serialization", Codecs.javaSerialization(Employee.class), Fixtures.employeeTeam(teamSize));
+            print(object, "employee-codec", Codecs.employeeCodec(), Fixtures.employeeTeam(teamSize));
+            print(object, "jackson", Codecs.jackson(Fixtures.mapper(),
+                    se325.example06.jacksonsamples.example06_references.Employee.class), Fixtures.jacksonEmployeeTeam(teamSize));
+        }
+
+        print("Parolee", "jax-rs-java-serialization", Codecs.jaxRsSerialization(Parolee.class), Fixtures.parolee());
+        print("Parolee", "jackson", Codecs.jackson(Fixtures.mapper(), Parolee.class), Fixtures.parolee());
+
+        print("Pokemon (with image)", "jackson", Codecs.jackson(Fixtures.mapper(), Pokemon.class), Fixtures.dragonite());
+        print("Pokemon (with image)", "jackson-smile", Codecs.jackson(Fixtures.smileMapper(), Pokemon.class),
+                Fixtures.dragonite());
+        print("Pokemon (with image)", "jackson-cbor", Codecs.jackson(Fixtures.cborMapper(), Pokemon.class),
+                Fixtures.dragonite());
+        print("Pokemon (types only)", "jackson", Codecs.jackson(Fixtures.mapper(),
+                se325.example06.jacksonsamples.example03_lists.Pokemon.class), Fixtures.typedPokemon());
+        print("Image only", "jackson", Codecs.jackson(Fixtures.mapper().registerModule(new ImageModule()),
+                BufferedImage.class), Fixtures.dragoniteImage());
+        print("Image only", "jackson-smile", Codecs.jackson(Fixtures.smileMapper().registerModule(new ImageModule()),
+                BufferedImage.class), Fixtures.dragoniteImage());
+        print("Image only", "jackson-cbor", Codecs.jackson(Fixtures.cborMapper().registerModule(new ImageModule()),
+                BufferedImage.class), Fixtures.dragoniteImage());
+
+        for (int animals : new int[]{2, 100}) {
+            print("Zoo (" + animals + " animals)", "jackson", Codecs.jackson(Fixtures.mapper(), Zoo.class), Fixtures.zoo(animals));
+        }
+    }
+
+    private static <T> void print(String object, String format, Codec<T> codec, T value) throws Exception {
+        byte[] encoded = codec.encode(value);
+        codec.decode(encoded); // Make sure what we're measuring can actually be read back
+        System.out.printf("%-28s %-28s %10d%n", object, format, encoded.length);
+    }
+}
@@ -0,0 +1,125 @@
+package se325.benchmarks.serialization;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import se325.example06.jacksonsamples.example05_customserialization.ImageModule;
+import se325.example06.jacksonsamples.example05_customserialization.Pokemon;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.awt.image.BufferedImage;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Round-trips example 06's Pokemon through Jackson: the one with an image (a {@code LazyImage}), the list-based one
+ * without, and the image on its own (a {@code BufferedImage}, written as a PNG by {@code BufferedImageSerializer}).
+ * None of these are {@code Serializable}, so Jackson is the only library the examples use for them. As well as JSON
+ * (where the image is a Base64 string), each is written in the binary Smile and CBOR formats (where the image is raw
+ * bytes).
+ * <p>
+ * A {@code LazyImage} keeps its PNG bytes once it's been encoded or read, so for {@code with-image}, {@link #encode()}
+ * only copies bytes which were encoded during setup, and {@link #decode()} doesn't decode the image at all.
+ * {@link #encodeWithImage} measures writing a Pokemon whose image hasn't been encoded yet, and
+ * {@link #decodeWithImage()} measures decoding the image as well. (For {@code types-only} and {@code image-only}, these
+ * do the same as {@code encode()} and {@code decode()}.)
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class PokemonBenchmark {
+
+    @Param({"with-image", "types-only", "image-only"})
+    public String pokemon;
+
+    @Param({"jackson", "jackson-smile", "jackson-cbor"})
+    public String format;
+
+    private Codec<Object> codec;
+    private Object value;
+    private byte[] encoded;
+
+    @Setup
+    @SuppressWarnings("unchecked")
+    public void setUp() throws Exception {
+        ObjectMapper mapper = switch (format) {
+            case "jackson" -> Fixtures.mapper();
+            case "jackson-smile" -> Fixtures.smileMapper();
+            case "jackson-cbor" -> Fixtures.cborMapper();
+            default -> throw new IllegalArgumentException("Unknown format: " + format);
+        };
+        switch (pokemon) {
+            case "with-image" -> {
+                codec = (Codec<Object>) (Codec<?>) Codecs.jackson(mapper, Pokemon.class);
+                value = Fixtures.dragonite();
+            }
+            case "types-only" -> {
+                codec = (Codec<Object>) (Codec<?>) Codecs.jackson(mapper,
+                        se325.example06.jacksonsamples.example03_lists.Pokemon.class);
+                value = Fixtures.typedPokemon();
+            }
+            case "image-only" -> {
+                mapper.registerModule(new ImageModule());
+                codec = (Codec<Object>) (Codec<?>) Codecs.jackson(mapper, BufferedImage.class);
+                value = Fixtures.dragoniteImage();
+            }
+            default -> throw new IllegalArgumentException("Unknown pokemon: " + pokemon);
+        }
+        encoded = codec.encode(value);
+    }
+
+    /**
+     * A Pokemon whose image hasn't been encoded yet, as if it had just been created. A new one is made before each
+     * call to {@link #encodeWithImage}, outside of the time measured.
+     */
+    @State(Scope.Thread)
+    public static class UnencodedPokemon {
+
+        private BufferedImage image;
+        private Pokemon pokemon;
+
+        @Setup
+        public void loadImage() {
+            image = Fixtures.dragoniteImage();
+        }
+
+        @Setup(Level.Invocation)
+        public void createPokemon() {
+            pokemon = new Pokemon(149, "Dragonite", image);
+        }
+    }
+
+    @Benchmark
+    public byte[] encode() throws Exception {
+        return codec.encode(value);
+    }
+
+    @Benchmark
+    public byte[] encodeWithImage(UnencodedPokemon unencoded) throws Exception {
+        return codec.encode(value instanceof Pokemon ? unencoded.pokemon : value);
+    }
+
+    @Benchmark
+    public Object decode() throws Exception {
+        return codec.decode(encoded);
+    }
+
+    @Benchmark
+    public Object decodeWithImage() throws Exception {
+        Object decoded = codec.decode(encoded);
+        if (decoded instanceof Pokemon pokemon) return pokemon.getImage();
+        return decoded;
+    }
+}
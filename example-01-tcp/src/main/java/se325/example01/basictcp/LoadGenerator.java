@@ -0,0 +1,96 @@
+package se325.example01.basictcp;
+
+import se325.util.LoadTest;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.Socket;
+import java.util.Arrays;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * A headless client which load-tests {@link Server} (or {@link NioServer}), and reports how many requests it served
+ * per second along with their latency percentiles. For example:
+ *
+ * <pre>
+ * LoadGenerator --host=localhost --port=10000 --connections=50 --rate=20000 --duration=30 --keep-alive --label=nio
+ * </pre>
+ * <ul>
+ *     <li>With {@code --keep-alive}, each connection is opened once and carries every request (the server must support
+ *     this). Otherwise, a new connection is opened for every request, just like {@link Client}.</li>
+ *     <li>See {@link LoadTest.Options#parse(String[])} for the remaining options. Results are appended to
+ *     {@code load-test-results.csv} by default.</li>
+ * </ul>
+ */
+public class LoadGenerator {
+
+    public static void main(String[] args) throws Exception {
+        InetAddress serverAddress = InetAddress.getByName(LoadTest.Options.option(args, "host", "localhost"));
+        int serverPort = Integer.parseInt(LoadTest.Options.option(args, "port", "10000"));
+        boolean keepAlive = Arrays.asList(args).contains("--keep-alive");
+        LoadTest.Options options = LoadTest.Options.parse(args);
+
+        System.out.println("Load testing " + serverAddress.getHostAddress() + ":" + serverPort + " with "
+                + options.connections + " connections" + (keepAlive ? " (keep-alive)" : "") + ", "
+                + (options.rate > 0 ? options.rate + " requests/s" : "as fast as possible") + ", for "
+                + options.warmupSeconds + " + " + options.durationSeconds + " seconds...");
+
+        LoadTest test = new LoadTest(options, () -> keepAlive
+                ? new KeepAliveSession(serverAddress, serverPort)
+                : () -> multiply(new Socket(serverAddress, serverPort), true));
+        LoadTest.Result result = test.run();
+
+        System.out.println(result);
+        result.appendTo(options.csv);
+        System.out.println("Results appended to " + options.csv.toAbsolutePath());
+    }
+
+    /**
+     * Keeps one connection open, and sends each request over it.
+     */
+    private static class KeepAliveSession implements LoadTest.Session {
+        private final Socket socket;
+
+        KeepAliveSession(InetAddress serverAddress, int serverPort) throws IOException {
+            this.socket = new Socket(serverAddress, serverPort);
+        }
+
+        @Override
+        public void request() throws IOException {
+            multiply(socket, false);
+        }
+
+        @Override
+        public void close() throws IOException {
+            socket.close();
+        }
+    }
+
+    /**
+     * Sends a random pair of numbers over the given connection, and checks that their product comes back.
+     */
+    private static void multiply(Socket socket, boolean closeAfterwards) throws IOException {
+        try {
+            socket.setTcpNoDelay(true);
+            DataOutputStream out = new DataOutputStream(new BufferedOutputStream(socket.getOutputStream(), 8));
+            DataInputStream in = new DataInputStream(new BufferedInputStream(socket.getInputStream(), 4));
+
+            int x = ThreadLocalRandom.current().nextInt(-1000, 1000);
+            int y = ThreadLocalRandom.current().nextInt(-1000, 1000);
+            out.writeInt(x);
+            out.writeInt(y);
+            out.flush();
+
+            int product = in.readInt();
+            if (product != x * y) {
+                throw new IOException("Expected " + (x * y) + " but got " + product);
+            }
+        } finally {
+            if (closeAfterwards) socket.close();
+        }
+    }
+}
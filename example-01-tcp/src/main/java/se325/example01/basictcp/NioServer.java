@@ -0,0 +1,221 @@
+package se325.example01.basictcp;
+
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.channels.ClosedSelectorException;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.util.Iterator;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+/**
+ * A non-blocking version of {@link Server}, which speaks exactly the same protocol (two ints in, one int out), but
+ * can serve many clients at once using only a handful of threads.
+ * <p>
+ * One "acceptor" thread waits for new connections on a {@link ServerSocketChannel}. Each accepted connection is
+ * handed to one of several {@link Reactor}s, each of which runs a single thread that uses a {@link Selector} to wait
+ * until <em>any</em> of its connections has data to read or room to write. Because no thread ever blocks on a single
+ * client, one slow client can no longer stall everybody else.
+ * <p>
+ * Unlike {@link Server}, connections are kept open: a client may send as many (x, y) pairs as it likes, and will
+ * receive the products back in the same order. The connection is closed once the client closes its end and all
+ * outstanding products have been sent.
+ * <p>
+ * Usage: {@code NioServer [port] [reactorThreads]}. The port defaults to 10000 (the same as {@link Server}), and the
+ * number of reactor threads defaults to the number of available processors.
+ */
+public class NioServer {
+
+    /** Each request is two 4-byte ints. */
+    static final int REQUEST_SIZE = 8;
+
+    /** Each response is a single 4-byte int. */
+    static final int RESPONSE_SIZE = 4;
+
+    /** Size of each connection's read buffer. Enough for 1024 pipelined requests per read. */
+    private static final int READ_BUFFER_SIZE = 1024 * REQUEST_SIZE;
+
+    public static void main(String[] args) {
+        int port = args.length > 0 ? Integer.parseInt(args[0]) : 10000;
+        int reactorCount = args.length > 1 ? Integer.parseInt(args[1]) : Runtime.getRuntime().availableProcessors();
+
+        try (ServerSocketChannel serverChannel = ServerSocketChannel.open()) {
+            serverChannel.bind(new InetSocketAddress(port));
+
+            InetAddress serverHost = InetAddress.getLocalHost();
+            System.out.println("Server destination: " + serverHost.getHostAddress() + ":" + serverChannel.socket().getLocalPort());
+            System.out.println("Using " + reactorCount + " reactor thread(s)");
+
+            /* Start the reactors, each on its own thread. */
+            Reactor[] reactors = new Reactor[reactorCount];
+            for (int i = 0; i < reactorCount; i++) {
+                reactors[i] = new Reactor();
+                Thread thread = new Thread(reactors[i], "reactor-" + i);
+                thread.start();
+            }
+
+            /* The main thread just accepts connections (blocking is fine here), and deals them out round-robin. */
+            int next = 0;
+            while (true) {
+                SocketChannel client = serverChannel.accept();
+                reactors[next].register(client);
+                next = (next + 1) % reactorCount;
+            }
+
+        } catch (IOException e) {
+            e.printStackTrace();
+        }
+    }
+
+    /**
+     * Runs a single {@link Selector} loop, multiplexing all of the connections which have been assigned to it.
+     */
+    static class Reactor implements Runnable {
+
+        private final Selector selector;
+
+        /** Newly-accepted connections waiting to be registered with the selector by the reactor's own thread. */
+        private final Queue<SocketChannel> pending = new ConcurrentLinkedQueue<>();
+
+        Reactor() throws IOException {
+            this.selector = Selector.open();
+        }
+
+        /**
+         * Hands a newly-accepted connection to this reactor. Can be called from any thread.
+         */
+        void register(SocketChannel channel) {
+            pending.add(channel);
+            selector.wakeup();
+        }
+
+        @Override
+        public void run() {
+            try {
+                while (true) {
+                    selector.select();
+                    registerPending();
+
+                    Iterator<SelectionKey> keys = selector.selectedKeys().iterator();
+                    while (keys.hasNext()) {
+                        SelectionKey key = keys.next();
+                        keys.remove();
+
+                        Connection connection = (Connection) key.attachment();
+                        try {
+                            if (key.isValid() && key.isReadable()) {
+                                connection.onReadable();
+                            }
+                            if (key.isValid() && key.isWritable()) {
+                                connection.onWritable();
+                            }
+                        } catch (IOException e) {
+                            // A misbehaving client only affects its own connection.
+                            connection.close();
+                        }
+                    }
+                }
+            } catch (IOException | ClosedSelectorException e) {
+                e.printStackTrace();
+            }
+        }
+
+        private void registerPending() {
+            SocketChannel channel;
+            while ((channel = pending.poll()) != null) {
+                try {
+                    channel.configureBlocking(false);
+                    channel.socket().setTcpNoDelay(true);
+                    SelectionKey key = channel.register(selector, SelectionKey.OP_READ);
+                    key.attach(new Connection(channel, key));
+                } catch (IOException e) {
+                    // E.g. the client reset the connection before we got to it. Only that connection is lost.
+                    try {
+                        channel.close();
+                    } catch (IOException closeFailed) {
+                        // Nothing more we can do for this client.
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * The state of a single client connection: any partially-received request, and any products which have been
+     * computed but not yet written.
+     */
+    static class Connection {
+
+        private final SocketChannel channel;
+        private final SelectionKey key;
+
+        private final ByteBuffer in = ByteBuffer.allocate(READ_BUFFER_SIZE);
+
+        /* Every full read buffer produces at most this many bytes of output, so it can never overflow. */
+        private final ByteBuffer out = ByteBuffer.allocate(READ_BUFFER_SIZE / REQUEST_SIZE * RESPONSE_SIZE);
+
+        private boolean inputClosed = false;
+
+        Connection(SocketChannel channel, SelectionKey key) {
+            this.channel = channel;
+            this.key = key;
+        }
+
+        void onReadable() throws IOException {
+            int read = channel.read(in);
+            if (read < 0) {
+                inputClosed = true;
+            }
+
+            /* Compute a product for every complete request we've received so far. */
+            in.flip();
+            while (in.remaining() >= REQUEST_SIZE) {
+                int x = in.getInt();
+                int y = in.getInt();
+                out.putInt(x * y);
+            }
+            in.compact();
+
+            flush();
+        }
+
+        void onWritable() throws IOException {
+            flush();
+        }
+
+        /**
+         * Writes as much pending output as the socket will currently accept, then decides what to wait for next.
+         */
+        private void flush() throws IOException {
+            out.flip();
+            channel.write(out);
+            out.compact();
+
+            boolean hasPendingOutput = out.position() > 0;
+            if (inputClosed && !hasPendingOutput) {
+                close();
+                return;
+            }
+
+            /* If the client isn't reading its results, stop reading its requests until it catches up. */
+            int interest = 0;
+            if (hasPendingOutput) interest |= SelectionKey.OP_WRITE;
+            if (!inputClosed && !hasPendingOutput) interest |= SelectionKey.OP_READ;
+            key.interestOps(interest);
+        }
+
+        void close() {
+            key.cancel();
+            try {
+                channel.close();
+            } catch (IOException e) {
+                // Nothing more we can do for this client.
+            }
+        }
+    }
+}
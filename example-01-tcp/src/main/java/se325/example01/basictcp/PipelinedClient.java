@@ -0,0 +1,122 @@
+package se325.example01.basictcp;
+
+import se325.util.Keyboard;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.Socket;
+import java.util.Random;
+
+/**
+ * A client for the multiply protocol which keeps a single connection open, rather than opening a new one for every
+ * multiplication like {@link Client} does.
+ * <p>
+ * Requests are <em>pipelined</em>: {@link #multiplyAll(int[], int[])} sends a whole window of requests before reading
+ * any of the results, so we pay for one round trip per window rather than one per multiplication. Results always come
+ * back in the same order the requests were sent.
+ * <p>
+ * This requires a server which keeps connections open - either {@link NioServer}, or {@link Server} started with the
+ * {@code --keep-alive} argument.
+ */
+public class PipelinedClient implements Closeable {
+
+    /**
+     * The maximum number of requests in flight at once. Kept small enough that neither the requests nor the results
+     * can fill up the socket buffers, which could otherwise leave both ends waiting on each other forever.
+     */
+    private static final int WINDOW_SIZE = 1024;
+
+    private final Socket socket;
+    private final DataInputStream in;
+    private final DataOutputStream out;
+
+    public PipelinedClient(InetAddress serverAddress, int serverPort) throws IOException {
+        this.socket = new Socket(serverAddress, serverPort);
+        this.socket.setTcpNoDelay(true);
+        this.in = new DataInputStream(new BufferedInputStream(socket.getInputStream()));
+        this.out = new DataOutputStream(new BufferedOutputStream(socket.getOutputStream()));
+    }
+
+    /**
+     * Multiplies a single pair of numbers, waiting for the result.
+     */
+    public int multiply(int x, int y) throws IOException {
+        out.writeInt(x);
+        out.writeInt(y);
+        out.flush();
+        return in.readInt();
+    }
+
+    /**
+     * Multiplies each {@code xs[i]} by {@code ys[i]}, sending the requests in pipelined batches.
+     *
+     * @return an array where element {@code i} is {@code xs[i] * ys[i]}
+     * @throws IllegalArgumentException if the two arrays have different lengths
+     */
+    public int[] multiplyAll(int[] xs, int[] ys) throws IOException {
+        if (xs.length != ys.length) {
+            throw new IllegalArgumentException("xs and ys must have the same length");
+        }
+
+        int[] results = new int[xs.length];
+        for (int start = 0; start < xs.length; start += WINDOW_SIZE) {
+            int end = Math.min(start + WINDOW_SIZE, xs.length);
+
+            /* Send the whole window... */
+            for (int i = start; i < end; i++) {
+                out.writeInt(xs[i]);
+                out.writeInt(ys[i]);
+            }
+            out.flush();
+
+            /* ...then collect its results, which arrive in order. */
+            for (int i = start; i < end; i++) {
+                results[i] = in.readInt();
+            }
+        }
+        return results;
+    }
+
+    @Override
+    public void close() throws IOException {
+        socket.close();
+    }
+
+    public static void main(String[] args) {
+        try {
+
+            InetAddress serverAddress = InetAddress.getByName(Keyboard.prompt("Server address:"));
+            int serverPort = Integer.parseInt(Keyboard.prompt("Server port:"));
+            int count = Integer.parseInt(Keyboard.prompt("How many multiplications?"));
+
+            Random random = new Random();
+            int[] xs = new int[count];
+            int[] ys = new int[count];
+            for (int i = 0; i < count; i++) {
+                xs[i] = random.nextInt(1000);
+                ys[i] = random.nextInt(1000);
+            }
+
+            try (PipelinedClient client = new PipelinedClient(serverAddress, serverPort)) {
+
+                long start = System.nanoTime();
+                int[] products = client.multiplyAll(xs, ys);
+                long elapsedMillis = (System.nanoTime() - start) / 1_000_000;
+
+                System.out.println("Received " + products.length + " products in " + elapsedMillis + "ms");
+                if (count > 0) {
+                    System.out.println("e.g. " + xs[0] + " * " + ys[0] + " = " + products[0]);
+                }
+
+            }
+
+        } catch (NumberFormatException | IOException e) {
+            e.printStackTrace();
+        }
+    }
+}
@@ -1,40 +1,83 @@
 package se325.example01.basictcp;
 
+import se325.util.ConnectionDispatcher;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
 import java.io.DataInputStream;
 import java.io.DataOutputStream;
+import java.io.EOFException;
 import java.io.IOException;
 import java.net.InetAddress;
 import java.net.ServerSocket;
 import java.net.Socket;
+import java.util.Arrays;
 
 public class Server {
 
     public static void main(String[] args) {
-        try (ServerSocket socket = new ServerSocket(10000)) {
 
-            InetAddress serverHost = InetAddress.getLocalHost();
-            System.out.println("Server destination: " + serverHost.getHostAddress() + ":" + socket.getLocalPort());
+        /* With --keep-alive, each connection may carry any number of requests (see PipelinedClient). */
+        boolean keepAlive = Arrays.asList(args).contains("--keep-alive");
 
-            /* Repeatedly handle requests for processing. */
-            while (true) {
+        /* With --virtual-threads, each connection is handled on its own virtual thread rather than one at a time. */
+        ConnectionDispatcher.Mode mode = ConnectionDispatcher.parseMode(args);
 
-                try (Socket clientConnection = socket.accept()) {
-                    DataInputStream in = new DataInputStream(clientConnection.getInputStream());
-                    DataOutputStream out = new DataOutputStream(clientConnection.getOutputStream());
+        try (ServerSocket socket = new ServerSocket(10000, ConnectionDispatcher.parseBacklog(args))) {
 
-                    /* Read numbers to multiply. */
-                    int x = in.readInt();
-                    int y = in.readInt();
-
-                    /* Compute the product and send it back to the client. */
-                    int result = x * y;
-                    out.writeInt(result);
+            InetAddress serverHost = InetAddress.getLocalHost();
+            System.out.println("Server destination: " + serverHost.getHostAddress() + ":" + socket.getLocalPort());
 
+            /* Repeatedly handle requests for processing, until the server is shut down (e.g. with Ctrl+C). */
+            ConnectionDispatcher dispatcher = new ConnectionDispatcher(socket, mode,
+                    clientConnection -> handle(clientConnection, keepAlive));
+            Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+                try {
+                    dispatcher.close();
+                } catch (IOException e) {
+                    e.printStackTrace();
                 }
-            }
+            }));
+            dispatcher.serve();
+
         } catch (IOException e) {
             e.printStackTrace();
         }
     }
 
+    /**
+     * Handles a single client connection.
+     * <p>
+     * Normally, one pair of numbers is read and their product is sent back. In keep-alive mode, pairs of numbers are
+     * read and answered in order until the client closes its end of the connection. Requests are fixed-size (8 bytes),
+     * so a client can send many of them at once without waiting for each answer. Answers are buffered and only
+     * flushed once we've caught up with everything the client has sent so far.
+     */
+    static void handle(Socket clientConnection, boolean keepAlive) throws IOException {
+        DataInputStream in = new DataInputStream(new BufferedInputStream(clientConnection.getInputStream()));
+        DataOutputStream out = new DataOutputStream(new BufferedOutputStream(clientConnection.getOutputStream()));
+
+        do {
+            /* Read numbers to multiply. */
+            int x;
+            try {
+                x = in.readInt();
+            } catch (EOFException e) {
+                break; // Client has finished sending requests.
+            }
+            int y = in.readInt();
+
+            /* Compute the product and send it back to the client. */
+            int result = x * y;
+            out.writeInt(result);
+
+            if (in.available() == 0) {
+                out.flush();
+            }
+
+        } while (keepAlive);
+
+        out.flush();
+    }
+
 }
@@ -0,0 +1,158 @@
+package se325.util;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.lang.reflect.Method;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.net.SocketException;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Runs the "accept a connection, then handle it" loop for a TCP server, in one of two modes:
+ * <ul>
+ *     <li>{@link Mode#SERIAL}: each connection is handled on the accepting thread, one at a time. This is how our
+ *     servers originally worked.</li>
+ *     <li>{@link Mode#VIRTUAL_THREADS}: each connection is handled on its own virtual thread, so many clients can be
+ *     served at once. Blocking stream code works unchanged, since a virtual thread which blocks on I/O doesn't tie
+ *     up an operating system thread.</li>
+ * </ul>
+ * Virtual threads need Java 21 or later. When running on an older JVM, {@link Mode#VIRTUAL_THREADS} falls back to a
+ * (much more expensive) platform thread per connection.
+ * <p>
+ * Calling {@link #close()} (for example, from a shutdown hook) stops accepting new connections and waits for the
+ * connections which are already being handled to finish.
+ */
+public class ConnectionDispatcher implements Closeable {
+
+    public enum Mode {SERIAL, VIRTUAL_THREADS}
+
+    /**
+     * Handles a single client connection. The connection is closed once the handler returns.
+     */
+    @FunctionalInterface
+    public interface Handler {
+        void handle(Socket clientConnection) throws Exception;
+    }
+
+    /** The default maximum number of connections the OS will queue up for us before refusing new ones. */
+    public static final int DEFAULT_BACKLOG = 1024;
+
+    /** How long {@link #close()} waits for in-progress connections to finish. */
+    private static final long SHUTDOWN_GRACE_PERIOD_SECONDS = 10;
+
+    private final ServerSocket serverSocket;
+    private final Handler handler;
+    private final ExecutorService executor;
+
+    /** Counted down once {@link #serve()} has returned, so that {@link #close()} can wait for it. */
+    private final CountDownLatch finished = new CountDownLatch(1);
+
+    private volatile boolean serving = false;
+    private volatile boolean closed = false;
+
+    public ConnectionDispatcher(ServerSocket serverSocket, Mode mode, Handler handler) {
+        this.serverSocket = serverSocket;
+        this.handler = handler;
+        this.executor = mode == Mode.VIRTUAL_THREADS ? newThreadPerTaskExecutor() : null;
+    }
+
+    /**
+     * Reads the execution mode from the program's arguments: {@code --virtual-threads} selects
+     * {@link Mode#VIRTUAL_THREADS}, otherwise the mode is {@link Mode#SERIAL}.
+     */
+    public static Mode parseMode(String[] args) {
+        for (String arg : args) {
+            if (arg.equals("--virtual-threads")) return Mode.VIRTUAL_THREADS;
+        }
+        return Mode.SERIAL;
+    }
+
+    /**
+     * Reads the accept backlog from the program's arguments (e.g. {@code --backlog=512}), or returns
+     * {@link #DEFAULT_BACKLOG} if none was given.
+     */
+    public static int parseBacklog(String[] args) {
+        for (String arg : args) {
+            if (arg.startsWith("--backlog=")) return Integer.parseInt(arg.substring("--backlog=".length()));
+        }
+        return DEFAULT_BACKLOG;
+    }
+
+    /**
+     * Accepts and handles connections until this dispatcher is closed.
+     */
+    public void serve() throws IOException {
+        serving = true;
+        try {
+            while (!closed) {
+                Socket clientConnection;
+                try {
+                    clientConnection = serverSocket.accept();
+                } catch (SocketException e) {
+                    if (closed) break; // The server socket was closed by close().
+                    throw e;
+                }
+
+                if (executor == null) {
+                    run(clientConnection);
+                } else {
+                    executor.execute(() -> run(clientConnection));
+                }
+            }
+        } finally {
+            finished.countDown();
+        }
+    }
+
+    private void run(Socket clientConnection) {
+        try (clientConnection) {
+            handler.handle(clientConnection);
+        } catch (Exception e) {
+            e.printStackTrace();
+        }
+    }
+
+    /**
+     * Stops accepting new connections, then waits (for a limited time) for existing ones to finish.
+     */
+    @Override
+    public void close() throws IOException {
+        closed = true;
+        serverSocket.close();
+
+        try {
+            /* In serial mode, the connection currently being handled is on the serve() thread. */
+            if (serving) {
+                finished.await(SHUTDOWN_GRACE_PERIOD_SECONDS, TimeUnit.SECONDS);
+            }
+
+            if (executor != null) {
+                executor.shutdown();
+                if (!executor.awaitTermination(SHUTDOWN_GRACE_PERIOD_SECONDS, TimeUnit.SECONDS)) {
+                    executor.shutdownNow();
+                }
+            }
+        } catch (InterruptedException e) {
+            if (executor != null) executor.shutdownNow();
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Returns {@code Executors.newVirtualThreadPerTaskExecutor()} if we're running on Java 21 or later. It's looked
+     * up reflectively so that this project still compiles for Java 17.
+     */
+    private static ExecutorService newThreadPerTaskExecutor() {
+        try {
+            Method factory = Executors.class.getMethod("newVirtualThreadPerTaskExecutor");
+            return (ExecutorService) factory.invoke(null);
+        } catch (ReflectiveOperationException e) {
+            System.err.println("Virtual threads are not available on this JVM; using a platform thread per connection.");
+            return Executors.newCachedThreadPool();
+        }
+    }
+}
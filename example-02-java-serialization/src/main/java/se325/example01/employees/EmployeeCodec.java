@@ -0,0 +1,202 @@
+package se325.example01.employees;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.io.StreamCorruptedException;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * A compact, hand-written binary format for {@link Employee}s and {@link Manager}s, as an alternative to Java
+ * serialization. Java serialization describes every class it writes (name, fields, types, ...), whereas here both
+ * ends already agree on the layout, so only the data itself is sent.
+ * <p>
+ * An employee is always sent along with everyone reachable from them - their manager, their manager's other
+ * employees, and so on - just like with Java serialization. Each person in this graph is written exactly once as a
+ * flat record. Rather than nesting a manager's employees inside the manager (which would need recursion, and could
+ * overflow the stack for very large organisations), each record refers back to its manager's record by index:
+ *
+ * <pre>
+ * message   := version:byte  count:varint  record{count}  root:varint
+ * record    := kind:byte  name:UTF  ssn:UTF  manager:varint
+ * </pre>
+ * <ul>
+ *     <li>{@code kind} is {@link #KIND_EMPLOYEE} or {@link #KIND_MANAGER}.</li>
+ *     <li>{@code manager} is 0 for no manager, or 1 + the index of an <em>earlier</em> record. Writing managers before
+ *     their employees means every reference can be resolved as soon as it's read.</li>
+ *     <li>A manager's {@link Manager#getResponsibleFor()} list is rebuilt from the order of their employees' records.</li>
+ *     <li>{@code root} is the index of the employee the message is actually about.</li>
+ *     <li>A {@code varint} is an unsigned int written 7 bits at a time, low bits first, so small numbers take one byte.</li>
+ * </ul>
+ * The version byte lets the format change in future: a reader rejects any version it doesn't understand rather than
+ * misinterpreting the data.
+ */
+public final class EmployeeCodec {
+
+    /** The current (and so far only) version of the format. */
+    public static final int VERSION = 1;
+
+    static final int KIND_EMPLOYEE = 0;
+    static final int KIND_MANAGER = 1;
+
+    private EmployeeCodec() {
+    }
+
+    /**
+     * Writes the given employee, and everyone reachable from them, to the given output.
+     */
+    public static void write(Employee employee, DataOutput out) throws IOException {
+        List<Employee> records = collectGraph(employee);
+
+        Map<Employee, Integer> indices = new IdentityHashMap<>();
+        out.writeByte(VERSION);
+        writeVarInt(out, records.size());
+        for (Employee record : records) {
+            indices.put(record, indices.size());
+            writeRecord(out, record, indices);
+        }
+        writeVarInt(out, indices.get(employee));
+    }
+
+    /**
+     * Reads an employee (and everyone reachable from them) which was written by {@link #write(Employee, DataOutput)}.
+     *
+     * @throws StreamCorruptedException if the data is not a valid message, or uses an unsupported version
+     */
+    public static Employee read(DataInput in) throws IOException {
+        int version = in.readUnsignedByte();
+        if (version != VERSION) {
+            throw new StreamCorruptedException("Unsupported employee codec version: " + version);
+        }
+
+        int count = readVarInt(in);
+        List<Employee> records = new ArrayList<>(Math.min(count, 1024));
+        for (int i = 0; i < count; i++) {
+            records.add(readRecord(in, records));
+        }
+
+        int root = readVarInt(in);
+        if (root >= records.size()) {
+            throw new StreamCorruptedException("Root index out of range: " + root);
+        }
+        return records.get(root);
+    }
+
+    static void writeRecord(DataOutput out, Employee employee, Map<Employee, Integer> indices) throws IOException {
+        out.writeByte(employee instanceof Manager ? KIND_MANAGER : KIND_EMPLOYEE);
+        writeRecordBody(out, employee, indices);
+    }
+
+    /**
+     * Writes everything in a record except its kind, so that other formats (such as {@link EmployeeSnapshot}) can use
+     * their own kinds.
+     */
+    static void writeRecordBody(DataOutput out, Employee employee, Map<Employee, Integer> indices) throws IOException {
+        out.writeUTF(employee.getName());
+        out.writeUTF(employee.getSsn());
+
+        Manager manager = employee.getManager();
+        if (manager == null) {
+            writeVarInt(out, 0);
+        } else {
+            Integer managerIndex = indices.get(manager);
+            if (managerIndex == null) {
+                throw new IllegalStateException("Manager " + manager.getName() + " must be written before " + employee.getName());
+            }
+            writeVarInt(out, managerIndex + 1);
+        }
+    }
+
+    static Employee readRecord(DataInput in, List<Employee> previous) throws IOException {
+        int kind = in.readUnsignedByte();
+        if (kind != KIND_EMPLOYEE && kind != KIND_MANAGER) {
+            throw new StreamCorruptedException("Unknown record kind: " + kind);
+        }
+        return readRecordBody(in, kind == KIND_MANAGER, previous);
+    }
+
+    /**
+     * Reads a record written by {@link #writeRecordBody(DataOutput, Employee, Map)}.
+     */
+    static Employee readRecordBody(DataInput in, boolean isManager, List<Employee> previous) throws IOException {
+        String name = in.readUTF();
+        String ssn = in.readUTF();
+        int managerRef = readVarInt(in);
+
+        Employee employee = isManager ? new Manager(name, ssn) : new Employee(name, ssn);
+
+        if (managerRef != 0) {
+            if (managerRef > previous.size() || !(previous.get(managerRef - 1) instanceof Manager)) {
+                throw new StreamCorruptedException("Invalid manager reference: " + managerRef);
+            }
+            Manager manager = (Manager) previous.get(managerRef - 1);
+            employee.manager = manager;
+            manager.addEmployee(employee);
+        }
+        return employee;
+    }
+
+    /**
+     * Finds everyone reachable from the given employee, ordered so that every manager comes before the people they're
+     * responsible for, and each manager's employees appear in the same order as in their
+     * {@link Manager#getResponsibleFor()} list.
+     * <p>
+     * Since every employee appears in their manager's list, everyone reachable can be found by walking up to the top of
+     * the management chain, then doing a breadth-first walk back down. Neither walk is recursive.
+     */
+    static List<Employee> collectGraph(Employee employee) {
+        Employee top = employee;
+        Map<Employee, Boolean> seen = new IdentityHashMap<>();
+        while (top.getManager() != null && seen.put(top, Boolean.TRUE) == null) {
+            top = top.getManager();
+        }
+
+        List<Employee> ordered = new ArrayList<>();
+        Map<Employee, Boolean> visited = new IdentityHashMap<>();
+        Deque<Employee> queue = new ArrayDeque<>();
+        queue.add(top);
+        visited.put(top, Boolean.TRUE);
+        while (!queue.isEmpty()) {
+            Employee next = queue.poll();
+            ordered.add(next);
+            if (next instanceof Manager) {
+                for (Employee report : ((Manager) next).getResponsibleFor()) {
+                    if (visited.put(report, Boolean.TRUE) == null) {
+                        queue.add(report);
+                    }
+                }
+            }
+        }
+
+        if (!visited.containsKey(employee)) {
+            throw new IllegalStateException(employee.getName() + " is not in their manager's list of employees");
+        }
+        return ordered;
+    }
+
+    static void writeVarInt(DataOutput out, int value) throws IOException {
+        while ((value & ~0x7F) != 0) {
+            out.writeByte((value & 0x7F) | 0x80);
+            value >>>= 7;
+        }
+        out.writeByte(value);
+    }
+
+    static int readVarInt(DataInput in) throws IOException {
+        int value = 0;
+        for (int shift = 0; shift < 32; shift += 7) {
+            int b = in.readUnsignedByte();
+            value |= (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) {
+                if (value < 0) break;
+                return value;
+            }
+        }
+        throw new StreamCorruptedException("Malformed varint");
+    }
+}
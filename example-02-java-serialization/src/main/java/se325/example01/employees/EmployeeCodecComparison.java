@@ -0,0 +1,99 @@
+package se325.example01.employees;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+
+/**
+ * Compares the size and speed of Java serialization against our {@link EmployeeCodec}, for teams of various sizes.
+ * Each message contains one employee and (like the {@code Server}) everyone reachable from them, and each Java
+ * serialization message uses a fresh {@code ObjectOutputStream}, just as the server does for each connection.
+ * <p>
+ * This is a rough, single-threaded measurement, but is enough to show the difference between the two formats.
+ */
+public class EmployeeCodecComparison {
+
+    private static final long MEASUREMENT_NANOS = 1_000_000_000L;
+
+    public static void main(String[] args) throws Exception {
+        System.out.printf("%-10s %-20s %12s %16s %16s%n", "Team size", "Format", "Bytes", "Encodes/sec", "Decodes/sec");
+
+        for (int teamSize : new int[]{2, 10, 100, 1000}) {
+            Manager manager = new Manager("Manager", "1000000");
+            Employee employee = null;
+            for (int i = 0; i < teamSize; i++) {
+                employee = new Employee("Employee " + i, String.valueOf(2000000 + i), manager);
+            }
+            Employee requested = employee;
+
+            byte[] javaBytes = encodeJava(requested);
+            byte[] binaryBytes = encodeBinary(requested);
+
+            /* Run everything once before measuring, so the JIT compiler has a chance to warm up. */
+            measure(() -> encodeJava(requested));
+            measure(() -> decodeJava(javaBytes));
+            measure(() -> encodeBinary(requested));
+            measure(() -> decodeBinary(binaryBytes));
+
+            System.out.printf("%-10d %-20s %12d %16.0f %16.0f%n", teamSize, "Java serialization", javaBytes.length,
+                    measure(() -> encodeJava(requested)), measure(() -> decodeJava(javaBytes)));
+            System.out.printf("%-10d %-20s %12d %16.0f %16.0f%n", teamSize, "EmployeeCodec", binaryBytes.length,
+                    measure(() -> encodeBinary(requested)), measure(() -> decodeBinary(binaryBytes)));
+        }
+    }
+
+    @FunctionalInterface
+    private interface Operation {
+        Object run() throws Exception;
+    }
+
+    /**
+     * Runs the given operation repeatedly for about a second, and returns how many times per second it ran.
+     */
+    private static double measure(Operation operation) throws Exception {
+        long count = 0;
+        long start = System.nanoTime();
+        long elapsed;
+        Object result = null;
+        do {
+            for (int i = 0; i < 100; i++) {
+                result = operation.run();
+            }
+            count += 100;
+            elapsed = System.nanoTime() - start;
+        } while (elapsed < MEASUREMENT_NANOS);
+
+        if (result == null) throw new IllegalStateException();
+        return count * 1e9 / elapsed;
+    }
+
+    private static byte[] encodeJava(Employee employee) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (ObjectOutputStream out = new ObjectOutputStream(bytes)) {
+            out.writeObject(employee);
+        }
+        return bytes.toByteArray();
+    }
+
+    private static Employee decodeJava(byte[] data) throws IOException, ClassNotFoundException {
+        try (ObjectInputStream in = new ObjectInputStream(new ByteArrayInputStream(data))) {
+            return (Employee) in.readObject();
+        }
+    }
+
+    private static byte[] encodeBinary(Employee employee) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (DataOutputStream out = new DataOutputStream(bytes)) {
+            EmployeeCodec.write(employee, out);
+        }
+        return bytes.toByteArray();
+    }
+
+    private static Employee decodeBinary(byte[] data) throws IOException {
+        return EmployeeCodec.read(new DataInputStream(new ByteArrayInputStream(data)));
+    }
+}
@@ -0,0 +1,203 @@
+package se325.example01.employees;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * A collection of employees which can be searched by name or SSN in constant time, rather than by scanning through
+ * every employee.
+ * <p>
+ * Name lookups are case-insensitive, and match exactly the same names as {@link String#equalsIgnoreCase(String)}.
+ * If several employees share a name, the one which was added first is returned. SSNs must be unique.
+ * <p>
+ * Lookups may happen concurrently with each other and with additions. Interested parties (such as an
+ * {@link EmployeeSnapshot}) can {@link #addListener(Listener) listen} for additions.
+ */
+public class EmployeeDirectory {
+
+    /** Every employee, in the order they were added. Guarded by {@code this}. */
+    private final List<Employee> employees = new ArrayList<>();
+
+    private final Map<String, Employee> byName = new ConcurrentHashMap<>();
+    private final Map<String, Employee> bySsn = new ConcurrentHashMap<>();
+
+    /** Guarded by {@code this}. */
+    private final List<Listener> listeners = new ArrayList<>();
+
+    /**
+     * Notified whenever an employee is added to a directory.
+     */
+    @FunctionalInterface
+    public interface Listener {
+
+        /**
+         * Called after the given employee has been added. This is called while the directory is locked, so that
+         * listeners see additions one at a time and in order. It should therefore be quick, and must not throw.
+         */
+        void employeeAdded(Employee employee);
+    }
+
+    public EmployeeDirectory() {
+    }
+
+    public EmployeeDirectory(Collection<? extends Employee> employees) {
+        addAll(employees);
+    }
+
+    /**
+     * Adds an employee to the directory.
+     *
+     * @throws IllegalArgumentException if an employee with the same SSN is already in the directory
+     */
+    public synchronized void add(Employee employee) {
+        if (bySsn.putIfAbsent(employee.getSsn(), employee) != null) {
+            throw new IllegalArgumentException("Duplicate SSN: " + employee.getSsn());
+        }
+        byName.putIfAbsent(foldCase(employee.getName()), employee);
+        employees.add(employee);
+        for (Listener listener : listeners) {
+            listener.employeeAdded(employee);
+        }
+    }
+
+    public synchronized void addAll(Collection<? extends Employee> employees) {
+        for (Employee employee : employees) {
+            add(employee);
+        }
+    }
+
+    /**
+     * Registers a listener to be told about every employee added from now on. So that it doesn't miss anyone, the
+     * listener is first told about every employee who is already in the directory, in the order they were added.
+     */
+    public synchronized void addListener(Listener listener) {
+        for (Employee employee : employees) {
+            listener.employeeAdded(employee);
+        }
+        listeners.add(listener);
+    }
+
+    /**
+     * Finds the first employee whose name matches the given name, ignoring case.
+     */
+    public Optional<Employee> findByName(String name) {
+        return Optional.ofNullable(byName.get(foldCase(name)));
+    }
+
+    public Optional<Employee> findBySsn(String ssn) {
+        return Optional.ofNullable(bySsn.get(ssn));
+    }
+
+    public int size() {
+        return bySsn.size();
+    }
+
+    /**
+     * Returns a copy of every employee in the directory, in the order they were added.
+     */
+    public synchronized List<Employee> getAll() {
+        return Collections.unmodifiableList(new ArrayList<>(employees));
+    }
+
+    /**
+     * Converts a name into the key used by the name index. Two names have the same key exactly when
+     * {@link String#equalsIgnoreCase(String)} considers them equal, since that method also compares characters (code
+     * points, so that letters outside the Basic Multilingual Plane are folded too) by converting them to upper case and
+     * then to lower case.
+     */
+    static String foldCase(String name) {
+        StringBuilder folded = new StringBuilder(name.length());
+        name.codePoints().forEach(cp -> folded.appendCodePoint(Character.toLowerCase(Character.toUpperCase(cp))));
+        return folded.toString();
+    }
+
+    /**
+     * Loads a directory from a file, where each line has the form {@code name,ssn} or {@code name,ssn,managerSsn}.
+     * Blank lines and lines starting with {@code #} are ignored. Anyone who is named as another employee's manager
+     * is created as a {@link Manager}. Managers may appear before or after the employees they're responsible for.
+     *
+     * @throws IllegalArgumentException if the file is malformed, refers to a manager who isn't in the file, or
+     *                                  contains a cycle of managers
+     */
+    public static EmployeeDirectory load(Path file) throws IOException {
+
+        /* First pass: read all the rows, so we know who is a manager before creating anyone. */
+        Map<String, String[]> rows = new LinkedHashMap<>();
+        Set<String> managerSsns = new HashSet<>();
+        try (BufferedReader reader = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+            String line;
+            int lineNumber = 0;
+            while ((line = reader.readLine()) != null) {
+                lineNumber++;
+                if (line.isBlank() || line.startsWith("#")) continue;
+
+                String[] fields = line.split(",", -1);
+                for (int i = 0; i < fields.length; i++) fields[i] = fields[i].trim();
+                if (fields.length < 2 || fields.length > 3 || fields[0].isEmpty() || fields[1].isEmpty()) {
+                    throw new IllegalArgumentException("Line " + lineNumber + ": expected name,ssn[,managerSsn]");
+                }
+                if (rows.put(fields[1], fields) != null) {
+                    throw new IllegalArgumentException("Line " + lineNumber + ": duplicate SSN " + fields[1]);
+                }
+                if (fields.length == 3 && !fields[2].isEmpty()) {
+                    managerSsns.add(fields[2]);
+                }
+            }
+        }
+
+        /*
+         * Second pass: create everyone. An employee can only be created once their manager exists, so we create each
+         * employee's chain of managers first. This uses an explicit stack rather than recursion, as management chains
+         * could be very long.
+         */
+        Map<String, Employee> created = new HashMap<>();
+        for (String ssn : rows.keySet()) {
+            Deque<String> toCreate = new ArrayDeque<>();
+            Set<String> inChain = new HashSet<>();
+            String current = ssn;
+            while (current != null && !created.containsKey(current)) {
+                if (!inChain.add(current)) {
+                    throw new IllegalArgumentException("Cycle of managers involving SSN " + current);
+                }
+                String[] row = rows.get(current);
+                if (row == null) {
+                    throw new IllegalArgumentException("Unknown manager SSN: " + current);
+                }
+                toCreate.push(current);
+                current = row.length == 3 && !row[2].isEmpty() ? row[2] : null;
+            }
+
+            while (!toCreate.isEmpty()) {
+                String[] row = rows.get(toCreate.pop());
+                Manager manager = row.length == 3 && !row[2].isEmpty() ? (Manager) created.get(row[2]) : null;
+                Employee employee = managerSsns.contains(row[1])
+                        ? new Manager(row[0], row[1], manager)
+                        : new Employee(row[0], row[1], manager);
+                created.put(row[1], employee);
+            }
+        }
+
+        /* Add everyone in file order, so that earlier lines win when names are duplicated. */
+        EmployeeDirectory directory = new EmployeeDirectory();
+        for (String ssn : rows.keySet()) {
+            directory.add(created.get(ssn));
+        }
+        return directory;
+    }
+}
@@ -0,0 +1,205 @@
+package se325.example01.employees;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.StreamCorruptedException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * A file containing every employee in an {@link EmployeeDirectory}, already serialized, so that it can be sent to any
+ * number of clients without serializing the employees again each time. Since the file is already in the right format,
+ * {@link #transferTo(WritableByteChannel)} can ask the operating system to copy it straight from the file to a
+ * socket, without the bytes ever being copied into (or out of) the Java heap.
+ * <p>
+ * The file is only ever appended to. When an employee is added to the directory, a record for them is written to the
+ * end of the file, so keeping the snapshot up-to-date costs the same however big the directory is. Bytes which have
+ * already been written never change, so a client sent the first {@code n} bytes always gets a consistent snapshot -
+ * even if more employees are added while it's being sent.
+ * <p>
+ * The format uses the same records as {@link EmployeeCodec}, with two extra kinds. An employee's record must come after
+ * their manager's, but employees can be added to a directory before their manager is (or even if their manager never
+ * is). When this happens, the manager is written first as {@link #KIND_UNLISTED_MANAGER}, and a short
+ * {@link #KIND_LISTED} record referring back to them is written if they're added to the directory later:
+ *
+ * <pre>
+ * snapshot  := version:byte  entry*
+ * entry     := kind:byte  name:UTF  ssn:UTF  manager:varint   (kind is KIND_EMPLOYEE, KIND_MANAGER or KIND_UNLISTED_MANAGER)
+ *            | KIND_LISTED:byte  person:varint
+ * </pre>
+ * As in {@link EmployeeCodec}, {@code manager} and {@code person} refer to earlier records by 1 + their index (counting
+ * every record except {@link #KIND_LISTED} ones).
+ */
+public class EmployeeSnapshot implements EmployeeDirectory.Listener, Closeable {
+
+    /** A manager who is not (yet) in the directory, but whose employees are. */
+    static final int KIND_UNLISTED_MANAGER = 2;
+
+    /** An earlier {@link #KIND_UNLISTED_MANAGER} has now been added to the directory. */
+    static final int KIND_LISTED = 3;
+
+    private final FileChannel file;
+
+    /** The index of each person written so far. Guarded by {@code this}. */
+    private final Map<Employee, Integer> indices = new IdentityHashMap<>();
+
+    /** The people written so far who are in the directory. Guarded by {@code this}. */
+    private final Set<Employee> listed = Collections.newSetFromMap(new IdentityHashMap<>());
+
+    /** How much of the file is complete, and may be sent to clients. */
+    private volatile long size;
+
+    /** If writing to the file ever fails, the snapshot is no longer usable. */
+    private volatile IOException failure;
+
+    private EmployeeSnapshot(FileChannel file) throws IOException {
+        this.file = file;
+        writeFully(ByteBuffer.wrap(new byte[]{(byte) EmployeeCodec.VERSION}));
+    }
+
+    /**
+     * Creates a snapshot of the given directory in a temporary file, which will be deleted when the snapshot is
+     * {@link #close() closed}. The snapshot is kept up-to-date as employees are added to the directory.
+     */
+    public static EmployeeSnapshot of(EmployeeDirectory directory) throws IOException {
+        Path path = Files.createTempFile("employees-", ".snapshot");
+        FileChannel file = FileChannel.open(path, StandardOpenOption.READ, StandardOpenOption.WRITE,
+                StandardOpenOption.DELETE_ON_CLOSE);
+        EmployeeSnapshot snapshot = new EmployeeSnapshot(file);
+        directory.addListener(snapshot);
+        return snapshot;
+    }
+
+    /**
+     * The number of bytes which {@link #transferTo(WritableByteChannel)} would currently send.
+     */
+    public long size() throws IOException {
+        if (failure != null) throw new IOException("Snapshot is unusable", failure);
+        return size;
+    }
+
+    /**
+     * Sends the first {@code length} bytes of the snapshot (as previously returned by {@link #size()}) to the given
+     * channel. If the channel is a {@link java.nio.channels.SocketChannel}, this uses the operating system's zero-copy
+     * file transfer where available (e.g. {@code sendfile()} on Linux).
+     */
+    public void transferTo(long length, WritableByteChannel target) throws IOException {
+        long sent = 0;
+        while (sent < length) {
+            sent += file.transferTo(sent, length - sent, target);
+        }
+    }
+
+    /**
+     * Sends the latest complete version of the snapshot to the given channel.
+     */
+    public void transferTo(WritableByteChannel target) throws IOException {
+        transferTo(size(), target);
+    }
+
+    @Override
+    public synchronized void employeeAdded(Employee employee) {
+        if (failure != null || listed.contains(employee)) return;
+
+        try {
+            ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+            DataOutputStream out = new DataOutputStream(bytes);
+
+            Integer index = indices.get(employee);
+            if (index != null) {
+                out.writeByte(KIND_LISTED);
+                EmployeeCodec.writeVarInt(out, index + 1);
+            } else {
+                writeUnlistedManagers(out, employee.getManager());
+                out.writeByte(employee instanceof Manager ? EmployeeCodec.KIND_MANAGER : EmployeeCodec.KIND_EMPLOYEE);
+                EmployeeCodec.writeRecordBody(out, employee, indices);
+                indices.put(employee, indices.size());
+            }
+            listed.add(employee);
+
+            /* Only let clients see the new entry once it has been completely written. */
+            writeFully(ByteBuffer.wrap(bytes.toByteArray()));
+        } catch (IOException e) {
+            failure = e;
+        }
+    }
+
+    /**
+     * Writes any of the given manager's chain of managers who haven't been written yet, top-most first.
+     */
+    private void writeUnlistedManagers(DataOutputStream out, Manager manager) throws IOException {
+        Deque<Manager> unwritten = new ArrayDeque<>();
+        for (Manager m = manager; m != null && !indices.containsKey(m); m = m.getManager()) {
+            unwritten.push(m);
+        }
+        while (!unwritten.isEmpty()) {
+            Manager m = unwritten.pop();
+            out.writeByte(KIND_UNLISTED_MANAGER);
+            EmployeeCodec.writeRecordBody(out, m, indices);
+            indices.put(m, indices.size());
+        }
+    }
+
+    private void writeFully(ByteBuffer buffer) throws IOException {
+        long position = size;
+        while (buffer.hasRemaining()) {
+            position += file.write(buffer, position);
+        }
+        size = position;
+    }
+
+    @Override
+    public void close() throws IOException {
+        file.close();
+    }
+
+    /**
+     * Reads a snapshot, returning every employee in it who was in the directory, in the order they were added.
+     *
+     * @throws StreamCorruptedException if the data is not a valid snapshot, or uses an unsupported version
+     */
+    public static List<Employee> read(byte[] data) throws IOException {
+        DataInputStream in = new DataInputStream(new ByteArrayInputStream(data));
+        int version = in.readUnsignedByte();
+        if (version != EmployeeCodec.VERSION) {
+            throw new StreamCorruptedException("Unsupported employee snapshot version: " + version);
+        }
+
+        List<Employee> people = new ArrayList<>();
+        List<Employee> listed = new ArrayList<>();
+        while (in.available() > 0) {
+            int kind = in.readUnsignedByte();
+            if (kind == KIND_LISTED) {
+                int ref = EmployeeCodec.readVarInt(in);
+                if (ref < 1 || ref > people.size()) {
+                    throw new StreamCorruptedException("Invalid person reference: " + ref);
+                }
+                listed.add(people.get(ref - 1));
+            } else if (kind == EmployeeCodec.KIND_EMPLOYEE || kind == EmployeeCodec.KIND_MANAGER
+                    || kind == KIND_UNLISTED_MANAGER) {
+                Employee person = EmployeeCodec.readRecordBody(in, kind != EmployeeCodec.KIND_EMPLOYEE, people);
+                people.add(person);
+                if (kind != KIND_UNLISTED_MANAGER) listed.add(person);
+            } else {
+                throw new StreamCorruptedException("Unknown record kind: " + kind);
+            }
+        }
+        return listed;
+    }
+}
@@ -2,37 +2,50 @@ package se325.example01.employees.tcp;
 
 import se325.util.Keyboard;
 import se325.example01.employees.Employee;
-import se325.example01.employees.EmployeeRequest;
 
 import java.io.*;
 import java.net.InetAddress;
-import java.net.Socket;
+import java.util.Arrays;
 
 public class Client {
     public static void main(String[] args) {
+
+        /* With --binary, use our compact EmployeeCodec format rather than Java serialization. */
+        WireFormat format = Arrays.asList(args).contains("--binary") ? WireFormat.BINARY : WireFormat.JAVA_SERIALIZATION;
+
+        /* With --keep-alive, keep asking for employees over the same connection (the server must use --keep-alive too). */
+        boolean keepAlive = Arrays.asList(args).contains("--keep-alive");
+
         try {
 
             InetAddress serverAddress = InetAddress.getByName(Keyboard.prompt("Server address:"));
             int serverPort = Integer.parseInt(Keyboard.prompt("Server port:"));
-            String empName = Keyboard.prompt(("Enter employee name to find:"));
 
-            try (Socket socket = new Socket(serverAddress, serverPort)) {
+            try (EmployeeClient client = new EmployeeClient(serverAddress, serverPort, format)) {
+
+                do {
+                    String empName = Keyboard.prompt(("Enter employee name to find:"));
+                    if (empName == null || empName.isEmpty()) break;
 
-                ObjectOutputStream out = new ObjectOutputStream(socket.getOutputStream());
-                ObjectInputStream in = new ObjectInputStream(socket.getInputStream());
+                    /* With --binary, "*" lists every employee. */
+                    if (empName.equals("*") && format == WireFormat.BINARY) {
+                        for (Employee emp : client.findAll()) {
+                            System.out.println(emp);
+                        }
+                        continue;
+                    }
 
-                out.writeObject(new EmployeeRequest(empName));
+                    Employee emp = client.find(empName);
 
-                boolean found = in.readBoolean();
+                    if (emp != null) {
+                        System.out.println("Employee found!");
+                        System.out.println(emp);
+                    }
+                    else {
+                        System.out.println("No employee found with that name.");
+                    }
 
-                if (found) {
-                    Employee emp = (Employee) in.readObject();
-                    System.out.println("Employee found!");
-                    System.out.println(emp);
-                }
-                else {
-                    System.out.println("No employee found with that name.");
-                }
+                } while (keepAlive);
 
             }
 
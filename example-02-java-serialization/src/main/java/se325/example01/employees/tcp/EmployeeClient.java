@@ -0,0 +1,116 @@
+package se325.example01.employees.tcp;
+
+import se325.example01.employees.Employee;
+import se325.example01.employees.EmployeeCodec;
+import se325.example01.employees.EmployeeRequest;
+import se325.example01.employees.EmployeeSnapshot;
+
+import java.io.*;
+import java.net.InetAddress;
+import java.net.Socket;
+import java.util.List;
+
+/**
+ * A connection to the employee {@link Server}, over which any number of employees can be looked up. This requires
+ * the server to be running in keep-alive mode, unless only one lookup is made.
+ * <p>
+ * When using {@link WireFormat#JAVA_SERIALIZATION}, the same object streams are used for the whole session. Objects
+ * the server has already sent (such as a {@link se325.example01.employees.Manager} shared by several employees) are
+ * then only sent once, and arrive as the same Java object. Just like the server, the client resets its output stream
+ * every {@code resetInterval} requests, so that neither end has to remember every request forever. Responses are read
+ * with an {@link EmployeeObjectInputStream}, so a misbehaving server can't make the client create arbitrary objects.
+ */
+public class EmployeeClient implements Closeable {
+
+    private final Socket socket;
+    private final WireFormat format;
+    private final int resetInterval;
+
+    private ObjectOutputStream objectOut;
+    private EmployeeObjectInputStream objectIn;
+    private DataOutputStream dataOut;
+    private DataInputStream dataIn;
+
+    private int requests = 0;
+
+    public EmployeeClient(InetAddress serverAddress, int serverPort, WireFormat format, int resetInterval)
+            throws IOException {
+        this.socket = new Socket(serverAddress, serverPort);
+        this.socket.setTcpNoDelay(true);
+        this.format = format;
+        this.resetInterval = resetInterval;
+
+        if (format == WireFormat.BINARY) {
+            dataOut = new DataOutputStream(new BufferedOutputStream(socket.getOutputStream()));
+            dataIn = new DataInputStream(new BufferedInputStream(socket.getInputStream()));
+            dataOut.writeShort(WireFormat.BINARY_MAGIC);
+        } else {
+            objectOut = new ObjectOutputStream(new BufferedOutputStream(socket.getOutputStream()));
+            objectOut.flush(); // The server is waiting for our stream header
+            objectIn = EmployeeObjectInputStream.forResponses(new BufferedInputStream(socket.getInputStream()));
+        }
+    }
+
+    public EmployeeClient(InetAddress serverAddress, int serverPort, WireFormat format) throws IOException {
+        this(serverAddress, serverPort, format, Server.DEFAULT_RESET_INTERVAL);
+    }
+
+    /**
+     * Looks up the employee with the given name (ignoring case).
+     *
+     * @return the employee, or null if there's no employee with that name
+     */
+    public Employee find(String name) throws IOException, ClassNotFoundException {
+        Employee employee;
+        if (format == WireFormat.BINARY) {
+            dataOut.writeByte(WireFormat.OP_FIND);
+            dataOut.writeUTF(name);
+            dataOut.flush();
+
+            boolean found = dataIn.readBoolean();
+            employee = found ? EmployeeCodec.read(dataIn) : null;
+
+        } else {
+            if (resetInterval > 0 && requests > 0 && requests % resetInterval == 0) {
+                objectOut.reset();
+            }
+            objectOut.writeObject(new EmployeeRequest(name));
+            objectOut.flush();
+
+            objectIn.startMessage();
+            boolean found = objectIn.readBoolean();
+            employee = found ? objectIn.readObjectOfType(Employee.class) : null;
+        }
+
+        requests++;
+        return employee;
+    }
+
+    /**
+     * Gets every employee from the server, in the order they were added to its directory. This is only supported by
+     * {@link WireFormat#BINARY}.
+     */
+    public List<Employee> findAll() throws IOException {
+        if (format != WireFormat.BINARY) {
+            throw new IllegalStateException("Getting every employee requires the " + WireFormat.BINARY + " format");
+        }
+
+        dataOut.writeByte(WireFormat.OP_DUMP);
+        dataOut.flush();
+
+        long length = dataIn.readLong();
+        if (length < 0 || length > Integer.MAX_VALUE) {
+            throw new StreamCorruptedException("Invalid snapshot length: " + length);
+        }
+        byte[] snapshot = new byte[(int) length];
+        dataIn.readFully(snapshot);
+
+        requests++;
+        return EmployeeSnapshot.read(snapshot);
+    }
+
+    @Override
+    public void close() throws IOException {
+        socket.close();
+    }
+}
@@ -0,0 +1,206 @@
+package se325.example01.employees.tcp;
+
+import se325.example01.employees.Employee;
+import se325.example01.employees.EmployeeRequest;
+import se325.example01.employees.Manager;
+
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.ObjectInputFilter;
+import java.io.ObjectInputStream;
+import java.io.ObjectStreamClass;
+import java.io.StreamCorruptedException;
+import java.util.ArrayList;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * An {@link ObjectInputStream} for the employee protocol, which refuses to read anything the protocol doesn't need.
+ * <p>
+ * A plain {@code ObjectInputStream} will create an object of <em>any</em> serializable class on the classpath that the
+ * other end names, and will happily read objects nested millions of levels deep, or arrays with billions of elements.
+ * A malicious (or buggy) client could use this to make the server do an almost unlimited amount of work, or run out of
+ * memory, with a single request. To prevent this, each stream is given an {@link ObjectInputFilter} which:
+ * <ul>
+ *     <li>only allows the classes which can actually appear in a message: {@link EmployeeRequest} for requests, and
+ *     {@link Employee}, {@link Manager} and the {@link ArrayList} (and its backing {@code Object[]}) holding a manager's
+ *     employees for responses;</li>
+ *     <li>limits how deeply objects may be nested, and how long arrays may be;</li>
+ *     <li>limits how many bytes each message may take up. A message is everything read by one call to
+ *     {@link #readMessage(Class)}. Since a keep-alive session can carry any number of messages, this is measured per
+ *     message rather than over the whole stream.</li>
+ * </ul>
+ * Anything else causes an {@link java.io.InvalidClassException} (or, for messages which are too large, a
+ * {@link StreamCorruptedException}), and the connection should then be dropped.
+ * <p>
+ * Every new {@code ObjectInputStream} also has to look up each class named in the stream, which involves searching
+ * for the right class loader. Since our server creates a new stream for each connection, the allowed classes are
+ * instead looked up once, and remembered for all later streams.
+ */
+public class EmployeeObjectInputStream extends ObjectInputStream {
+
+    /** The classes which may appear in a request. */
+    static final Set<Class<?>> REQUEST_CLASSES = Set.of(EmployeeRequest.class);
+
+    /** The classes which may appear in a response. */
+    static final Set<Class<?>> RESPONSE_CLASSES = Set.of(Employee.class, Manager.class, ArrayList.class, Object[].class);
+
+    /** An {@link EmployeeRequest} is a single object holding a single string. */
+    public static final int MAX_REQUEST_DEPTH = 2;
+    public static final int MAX_REQUEST_ARRAY_LENGTH = 0;
+    public static final long MAX_REQUEST_BYTES = 8 * 1024;
+
+    /**
+     * Each level of management adds a few levels of nesting to a response (employee, manager, list of employees, ...),
+     * so this allows for management chains around 100 people long.
+     */
+    public static final int MAX_RESPONSE_DEPTH = 400;
+    public static final int MAX_RESPONSE_ARRAY_LENGTH = 100_000;
+    public static final long MAX_RESPONSE_BYTES = 16 * 1024 * 1024;
+
+    /** Allowed classes which have already been looked up, by name. Shared by every stream. */
+    private static final Map<String, Class<?>> RESOLVED_CLASSES = new ConcurrentHashMap<>();
+
+    private final Set<Class<?>> allowedClasses;
+    private final long maxDepth;
+    private final long maxArrayLength;
+    private final long maxMessageBytes;
+    private final ByteCounter counter;
+
+    /**
+     * Creates a stream for reading requests (i.e. for the server).
+     */
+    public static EmployeeObjectInputStream forRequests(InputStream in) throws IOException {
+        return new EmployeeObjectInputStream(new ByteCounter(in, MAX_REQUEST_BYTES), REQUEST_CLASSES,
+                MAX_REQUEST_DEPTH, MAX_REQUEST_ARRAY_LENGTH, MAX_REQUEST_BYTES);
+    }
+
+    /**
+     * Creates a stream for reading responses (i.e. for the client).
+     */
+    public static EmployeeObjectInputStream forResponses(InputStream in) throws IOException {
+        return new EmployeeObjectInputStream(new ByteCounter(in, MAX_RESPONSE_BYTES), RESPONSE_CLASSES,
+                MAX_RESPONSE_DEPTH, MAX_RESPONSE_ARRAY_LENGTH, MAX_RESPONSE_BYTES);
+    }
+
+    private EmployeeObjectInputStream(ByteCounter counter, Set<Class<?>> allowedClasses, long maxDepth,
+                                      long maxArrayLength, long maxMessageBytes) throws IOException {
+        super(counter);
+        this.counter = counter;
+        this.allowedClasses = allowedClasses;
+        this.maxDepth = maxDepth;
+        this.maxArrayLength = maxArrayLength;
+        this.maxMessageBytes = maxMessageBytes;
+        setObjectInputFilter(this::check);
+    }
+
+    /**
+     * Starts a new message, so that the size limit applies afresh. Only needed if the message starts with primitive
+     * data (which must be read first), rather than with an object read by {@link #readMessage(Class)}.
+     */
+    public void startMessage() {
+        counter.startMessage();
+    }
+
+    /**
+     * Reads an object of the given type, as a new message.
+     */
+    public <T> T readMessage(Class<T> type) throws IOException, ClassNotFoundException {
+        startMessage();
+        return readObjectOfType(type);
+    }
+
+    /**
+     * Reads an object of the given type, as part of the current message.
+     */
+    public <T> T readObjectOfType(Class<T> type) throws IOException, ClassNotFoundException {
+        Object object = readObject();
+        if (object != null && !type.isInstance(object)) {
+            throw new StreamCorruptedException("Expected " + type.getSimpleName() + " but got " + object.getClass());
+        }
+        return type.cast(object);
+    }
+
+    private ObjectInputFilter.Status check(ObjectInputFilter.FilterInfo info) {
+        if (info.depth() > maxDepth
+                || info.arrayLength() > maxArrayLength
+                || info.streamBytes() - counter.messageStart > maxMessageBytes) {
+            return ObjectInputFilter.Status.REJECTED;
+        }
+
+        Class<?> type = info.serialClass();
+        if (type != null) {
+            return allowedClasses.contains(type) ? ObjectInputFilter.Status.ALLOWED : ObjectInputFilter.Status.REJECTED;
+        }
+        return ObjectInputFilter.Status.UNDECIDED;
+    }
+
+    @Override
+    protected Class<?> resolveClass(ObjectStreamClass desc) throws IOException, ClassNotFoundException {
+        Class<?> type = RESOLVED_CLASSES.get(desc.getName());
+        if (type == null) {
+            type = super.resolveClass(desc);
+
+            /* Only remember classes we allow, so that clients can't fill up the cache with other class names. */
+            if (REQUEST_CLASSES.contains(type) || RESPONSE_CLASSES.contains(type)) {
+                RESOLVED_CLASSES.put(desc.getName(), type);
+            }
+        }
+        return type;
+    }
+
+    /**
+     * Counts the bytes read from a stream, and refuses to read more than the given number of bytes per message. The
+     * filter can only check sizes when it is consulted (i.e. whenever a new class, array or object reference is read),
+     * so this also catches a message which is large for some other reason, such as containing a huge string.
+     */
+    private static class ByteCounter extends FilterInputStream {
+        private final long maxMessageBytes;
+        private long count = 0;
+        private long messageStart = 0;
+
+        ByteCounter(InputStream in, long maxMessageBytes) {
+            super(in);
+            this.maxMessageBytes = maxMessageBytes;
+        }
+
+        void startMessage() {
+            messageStart = count;
+        }
+
+        @Override
+        public int read() throws IOException {
+            checkLimit(1);
+            int b = super.read();
+            if (b >= 0) count++;
+            return b;
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) throws IOException {
+            checkLimit(1);
+
+            /* Never read past the end of the current message's allowance. */
+            long remaining = maxMessageBytes - (count - messageStart);
+            int n = super.read(b, off, (int) Math.min(len, remaining));
+            if (n > 0) count += n;
+            return n;
+        }
+
+        @Override
+        public long skip(long n) throws IOException {
+            checkLimit(1);
+            long skipped = super.skip(Math.min(n, maxMessageBytes - (count - messageStart)));
+            count += skipped;
+            return skipped;
+        }
+
+        private void checkLimit(long bytes) throws StreamCorruptedException {
+            if (count - messageStart + bytes > maxMessageBytes) {
+                throw new StreamCorruptedException("Message is larger than " + maxMessageBytes + " bytes");
+            }
+        }
+    }
+}
@@ -0,0 +1,81 @@
+package se325.example01.employees.tcp;
+
+import se325.util.LoadTest;
+
+import java.io.IOException;
+import java.net.InetAddress;
+import java.util.Arrays;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * A headless client which load-tests the employee {@link Server}, and reports how many lookups it served per second
+ * along with their latency percentiles. For example (start the server with {@code --quiet}, so that printing doesn't
+ * dominate the results):
+ *
+ * <pre>
+ * LoadGenerator --port=54321 --connections=50 --rate=5000 --keep-alive --binary --names=Tim,Gareth --label=binary
+ * </pre>
+ * <ul>
+ *     <li>{@code --host=} and {@code --port=} give the server's address. The server chooses its own port, and prints
+ *     it when it starts.</li>
+ *     <li>Each request looks up one of the {@code --names=} (comma-separated), chosen at random.</li>
+ *     <li>With {@code --binary}, {@link WireFormat#BINARY} is used rather than Java serialization.</li>
+ *     <li>With {@code --keep-alive}, each connection is opened once and carries every request (the server must use
+ *     {@code --keep-alive} too). Otherwise, a new connection is opened for every request, just like {@link Client}.</li>
+ *     <li>See {@link LoadTest.Options#parse(String[])} for the remaining options. Results are appended to
+ *     {@code load-test-results.csv} by default.</li>
+ * </ul>
+ */
+public class LoadGenerator {
+
+    public static void main(String[] args) throws Exception {
+        InetAddress serverAddress = InetAddress.getByName(LoadTest.Options.option(args, "host", "localhost"));
+        String port = LoadTest.Options.option(args, "port", null);
+        if (port == null) {
+            System.err.println("Please give the server's port, e.g. --port=54321");
+            return;
+        }
+        int serverPort = Integer.parseInt(port);
+        String[] names = LoadTest.Options.option(args, "names", "Tim,Gareth,David").split(",");
+        WireFormat format = Arrays.asList(args).contains("--binary") ? WireFormat.BINARY : WireFormat.JAVA_SERIALIZATION;
+        boolean keepAlive = Arrays.asList(args).contains("--keep-alive");
+        LoadTest.Options options = LoadTest.Options.parse(args);
+
+        System.out.println("Load testing " + serverAddress.getHostAddress() + ":" + serverPort + " using " + format
+                + " with " + options.connections + " connections" + (keepAlive ? " (keep-alive)" : "") + ", "
+                + (options.rate > 0 ? options.rate + " requests/s" : "as fast as possible") + ", for "
+                + options.warmupSeconds + " + " + options.durationSeconds + " seconds...");
+
+        LoadTest test = new LoadTest(options, () -> {
+            if (!keepAlive) {
+                return () -> {
+                    try (EmployeeClient client = new EmployeeClient(serverAddress, serverPort, format)) {
+                        client.find(randomName(names));
+                    }
+                };
+            }
+
+            EmployeeClient client = new EmployeeClient(serverAddress, serverPort, format);
+            return new LoadTest.Session() {
+                @Override
+                public void request() throws Exception {
+                    client.find(randomName(names));
+                }
+
+                @Override
+                public void close() throws IOException {
+                    client.close();
+                }
+            };
+        });
+        LoadTest.Result result = test.run();
+
+        System.out.println(result);
+        result.appendTo(options.csv);
+        System.out.println("Results appended to " + options.csv.toAbsolutePath());
+    }
+
+    private static String randomName(String[] names) {
+        return names[ThreadLocalRandom.current().nextInt(names.length)];
+    }
+}
@@ -1,70 +1,278 @@
 package se325.example01.employees.tcp;
 
 import se325.example01.employees.Employee;
+import se325.example01.employees.EmployeeCodec;
+import se325.example01.employees.EmployeeDirectory;
 import se325.example01.employees.EmployeeRequest;
+import se325.example01.employees.EmployeeSnapshot;
 import se325.example01.employees.Manager;
+import se325.util.ConnectionDispatcher;
 
 import java.io.*;
 import java.net.InetAddress;
+import java.net.InetSocketAddress;
 import java.net.ServerSocket;
 import java.net.Socket;
+import java.nio.channels.Channels;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.Path;
 import java.util.Arrays;
-import java.util.List;
 import java.util.Optional;
 
-public class Server {
+public class Server implements Closeable {
+
+    /** By default, the object streams are reset after every 100 responses in a session. */
+    public static final int DEFAULT_RESET_INTERVAL = 100;
+
+    private final EmployeeDirectory employees;
+    private final boolean keepAlive;
+    private final int resetInterval;
+    private final boolean quiet;
+
+    /** Created the first time a client asks for every employee. Guarded by {@code this}. */
+    private EmployeeSnapshot snapshot;
+
+    /**
+     * @param employees     the employees to serve
+     * @param keepAlive     if true, each connection is a long-lived session which may carry any number of requests,
+     *                      until the client closes it. Otherwise, each connection carries exactly one request.
+     * @param resetInterval when using Java serialization, the object stream is reset after this many responses in a
+     *                      session (or never, if zero). See {@link #handleJavaSerialization(InputStream, OutputStream)}.
+     * @param quiet         if true, nothing is printed for each connection and request. Printing to the console is slow
+     *                      enough to dominate the server's response time under load (see {@link LoadGenerator}).
+     */
+    public Server(EmployeeDirectory employees, boolean keepAlive, int resetInterval, boolean quiet) {
+        this.employees = employees;
+        this.keepAlive = keepAlive;
+        this.resetInterval = resetInterval;
+        this.quiet = quiet;
+    }
+
+    public Server(EmployeeDirectory employees, boolean keepAlive, int resetInterval) {
+        this(employees, keepAlive, resetInterval, false);
+    }
 
     public static void main(String[] args) {
 
-        Manager mgr = new Manager("David", "8653899");
-        Employee e1 = new Employee("Tim", "2368571", mgr);
-        Employee e2 = new Employee("Gareth", "0911558", mgr);
-        List<Employee> employees = Arrays.asList(mgr, e1, e2);
+        /* Employees are loaded from the file given as an argument, if any (see EmployeeDirectory.load()). */
+        EmployeeDirectory employees;
+        Optional<String> employeesFile = Arrays.stream(args).filter(arg -> !arg.startsWith("--")).findFirst();
+        if (employeesFile.isPresent()) {
+            try {
+                employees = EmployeeDirectory.load(Path.of(employeesFile.get()));
+                System.out.println("Loaded " + employees.size() + " employees");
+            } catch (IOException | IllegalArgumentException e) {
+                e.printStackTrace();
+                return;
+            }
+        } else {
+            Manager mgr = new Manager("David", "8653899");
+            Employee e1 = new Employee("Tim", "2368571", mgr);
+            Employee e2 = new Employee("Gareth", "0911558", mgr);
+            employees = new EmployeeDirectory(Arrays.asList(mgr, e1, e2));
+        }
+
+        /* With --keep-alive, each connection may carry any number of requests (see EmployeeClient). */
+        boolean keepAlive = Arrays.asList(args).contains("--keep-alive");
+        int resetInterval = Arrays.stream(args)
+                .filter(arg -> arg.startsWith("--reset-interval="))
+                .map(arg -> Integer.parseInt(arg.substring("--reset-interval=".length())))
+                .findFirst().orElse(DEFAULT_RESET_INTERVAL);
+        boolean quiet = Arrays.asList(args).contains("--quiet");
+        Server server = new Server(employees, keepAlive, resetInterval, quiet);
+
+        /* With --virtual-threads, each connection is handled on its own virtual thread rather than one at a time. */
+        ConnectionDispatcher.Mode mode = ConnectionDispatcher.parseMode(args);
 
-        try (ServerSocket socket = new ServerSocket(0)) {
+        /*
+         * The server socket is created from a channel, so that each accepted Socket has a SocketChannel too. This
+         * lets the server send snapshot files straight from disk to the network (see handleBinary()).
+         */
+        try (ServerSocketChannel channel = ServerSocketChannel.open()) {
+            channel.bind(new InetSocketAddress(0), ConnectionDispatcher.parseBacklog(args));
+            ServerSocket socket = channel.socket();
 
             InetAddress serverHost = InetAddress.getLocalHost();
             System.out.println("Server destination: " + serverHost.getHostAddress() + ":" + socket.getLocalPort());
 
-            /* Repeatedly handle requests for processing. */
-            while (true) {
+            /* Repeatedly handle requests for processing, until the server is shut down (e.g. with Ctrl+C). */
+            ConnectionDispatcher dispatcher = new ConnectionDispatcher(socket, mode, server::handle);
+            Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+                try {
+                    dispatcher.close();
+                    server.close();
+                } catch (IOException e) {
+                    e.printStackTrace();
+                }
+            }));
+            dispatcher.serve();
+
+        } catch (IOException e) {
+            e.printStackTrace();
+        }
+    }
+
+    /**
+     * Handles a single client connection: reads a request, and sends back the matching employee (if any). In
+     * keep-alive mode, this repeats until the client closes the connection. The client may use either
+     * {@link WireFormat}.
+     */
+    void handle(Socket clientConnection) throws IOException, ClassNotFoundException {
+        log("Client connected!");
+        clientConnection.setTcpNoDelay(true);
+
+        BufferedInputStream input = new BufferedInputStream(clientConnection.getInputStream());
+        WireFormat format = WireFormat.detect(input);
+        log("Client is using " + format);
 
-                try (Socket clientConnection = socket.accept()) {
-                    System.out.println("Client connected!");
+        if (format == WireFormat.BINARY) {
+            handleBinary(input, clientConnection);
+        } else {
+            handleJavaSerialization(input, clientConnection.getOutputStream());
+        }
+    }
 
-                    ObjectInputStream in = new ObjectInputStream(clientConnection.getInputStream());
-                    ObjectOutputStream out = new ObjectOutputStream(clientConnection.getOutputStream());
+    /**
+     * Handles requests sent with Java serialization.
+     * <p>
+     * An {@link ObjectOutputStream} remembers every object it has written, so that writing the same object again (or
+     * another object of the same class) only sends a short reference. Over a long session this saves a lot of data -
+     * for example, the same {@link Manager} is shared by the responses for each of their employees, and class
+     * descriptions are only sent once. However, it also means the stream's memory use grows with every response, and
+     * that objects which have changed since they were first sent won't be sent again. To bound both of these, the
+     * stream is {@link ObjectOutputStream#reset() reset} every {@link #resetInterval} responses.
+     * <p>
+     * Requests are read with an {@link EmployeeObjectInputStream}, which only accepts {@link EmployeeRequest}s of a
+     * reasonable size.
+     */
+    private void handleJavaSerialization(InputStream input, OutputStream output)
+            throws IOException, ClassNotFoundException {
 
-                    System.out.println("Streams obtained!");
+        EmployeeObjectInputStream in = EmployeeObjectInputStream.forRequests(input);
+        ObjectOutputStream out = new ObjectOutputStream(new BufferedOutputStream(output));
+        out.flush(); // The client is waiting for our stream header
 
-                    // Read request
-                    EmployeeRequest request = (EmployeeRequest) in.readObject();
+        log("Streams obtained!");
 
-                    System.out.println("Client requested for employee named '" + request.getName() + "'");
+        int responses = 0;
+        do {
+            // Read request
+            EmployeeRequest request;
+            try {
+                request = in.readMessage(EmployeeRequest.class);
+            } catch (EOFException e) {
+                break; // Client has finished the session.
+            }
 
-                    // Find matching employee
-                    Optional<Employee> match = employees.stream().filter(e -> e.getName().equalsIgnoreCase(request.getName())).findFirst();
+            log("Client requested for employee named '" + request.getName() + "'");
 
-                    // Send it back if present
-                    if (match.isPresent()) {
-                        System.out.println("Found!");
-                        out.writeBoolean(true);
-                        out.writeObject(match.get());
-                    }
+            // Find matching employee
+            Optional<Employee> match = employees.findByName(request.getName());
 
-                    // Notify not-found otherwise
-                    else {
-                        System.out.println("Not found!");
-                        out.writeBoolean(false);
-                    }
+            // Forget previously-sent objects, every so often
+            if (resetInterval > 0 && responses > 0 && responses % resetInterval == 0) {
+                out.reset();
+            }
 
-                    out.flush();
+            // Send it back if present
+            if (match.isPresent()) {
+                log("Found!");
+                out.writeBoolean(true);
+                out.writeObject(match.get());
+            }
 
+            // Notify not-found otherwise
+            else {
+                log("Not found!");
+                out.writeBoolean(false);
+            }
+
+            out.flush();
+            responses++;
+
+        } while (keepAlive);
+    }
+
+    /**
+     * Handles requests sent with {@link WireFormat#BINARY}. Each response is self-contained, so there is nothing to
+     * reset.
+     * <p>
+     * A request for every employee ({@link WireFormat#OP_DUMP}) is answered with an {@link EmployeeSnapshot}, which is
+     * kept up-to-date as employees are added rather than serializing the whole directory for each request. The
+     * snapshot is sent with {@link java.nio.channels.FileChannel#transferTo(long, long, WritableByteChannel)}, which
+     * (if the connection has a {@link java.nio.channels.SocketChannel}) lets the operating system copy the file
+     * straight to the network, without it passing through the Java heap.
+     */
+    private void handleBinary(InputStream input, Socket clientConnection) throws IOException {
+
+        DataInputStream in = new DataInputStream(input);
+        DataOutputStream out = new DataOutputStream(new BufferedOutputStream(clientConnection.getOutputStream()));
+
+        in.readUnsignedShort(); // Skip the magic number
+
+        do {
+            int op;
+            try {
+                op = in.readUnsignedByte();
+            } catch (EOFException e) {
+                break; // Client has finished the session.
+            }
+
+            if (op == WireFormat.OP_FIND) {
+                String name = in.readUTF();
+                log("Client requested for employee named '" + name + "'");
+
+                Optional<Employee> match = employees.findByName(name);
+                out.writeBoolean(match.isPresent());
+                if (match.isPresent()) {
+                    log("Found!");
+                    EmployeeCodec.write(match.get(), out);
+                } else {
+                    log("Not found!");
                 }
+                out.flush();
+
+            } else if (op == WireFormat.OP_DUMP) {
+                log("Client requested all employees");
+
+                /* Everything up to this length is complete, and won't change while we're sending it. */
+                EmployeeSnapshot snapshot = snapshot();
+                long length = snapshot.size();
+                out.writeLong(length);
+                out.flush();
+
+                WritableByteChannel target = clientConnection.getChannel() != null
+                        ? clientConnection.getChannel()
+                        : Channels.newChannel(clientConnection.getOutputStream());
+                snapshot.transferTo(length, target);
+
+            } else {
+                throw new StreamCorruptedException("Unknown operation: " + op);
             }
-        } catch (IOException | ClassNotFoundException e) {
-            e.printStackTrace();
+
+        } while (keepAlive);
+    }
+
+    private synchronized EmployeeSnapshot snapshot() throws IOException {
+        if (snapshot == null) {
+            snapshot = EmployeeSnapshot.of(employees);
         }
+        return snapshot;
+    }
+
+    /**
+     * Deletes the snapshot file, if one was created.
+     */
+    @Override
+    public synchronized void close() throws IOException {
+        if (snapshot != null) {
+            snapshot.close();
+        }
+    }
+
+    private void log(String message) {
+        if (!quiet) System.out.println(message);
     }
 
 }
@@ -0,0 +1,55 @@
+package se325.example01.employees.tcp;
+
+import se325.example01.employees.EmployeeCodec;
+
+import java.io.BufferedInputStream;
+import java.io.IOException;
+import java.io.ObjectStreamConstants;
+
+/**
+ * The formats a client can use to talk to the {@link Server}. The client chooses a format per connection, and the
+ * server works out which one it chose from the first two bytes the client sends.
+ */
+public enum WireFormat {
+
+    /**
+     * Requests and responses are sent with {@link java.io.ObjectOutputStream} / {@link java.io.ObjectInputStream}.
+     * Every such stream begins with {@link ObjectStreamConstants#STREAM_MAGIC}.
+     */
+    JAVA_SERIALIZATION,
+
+    /**
+     * The client first sends {@link #BINARY_MAGIC}. Each request then starts with an operation code:
+     * <ul>
+     *     <li>{@link #OP_FIND} is followed by a name written with {@link java.io.DataOutput#writeUTF(String)}. The
+     *     response is a boolean (whether a match was found), followed by the matching employee written with
+     *     {@link EmployeeCodec}.</li>
+     *     <li>{@link #OP_DUMP} asks for every employee. The response is a {@code long} length, followed by that many
+     *     bytes of an {@link se325.example01.employees.EmployeeSnapshot}.</li>
+     * </ul>
+     */
+    BINARY;
+
+    /** The first two bytes sent by a client using {@link #BINARY}. */
+    public static final int BINARY_MAGIC = 0xE325;
+
+    /** Operation codes for {@link #BINARY} requests. */
+    public static final int OP_FIND = 0;
+    public static final int OP_DUMP = 1;
+
+    /**
+     * Works out which format the client is using, by peeking at the first two bytes of the given stream. The bytes are
+     * not consumed.
+     *
+     * @throws IOException if the stream doesn't start with either format's magic number
+     */
+    public static WireFormat detect(BufferedInputStream in) throws IOException {
+        in.mark(2);
+        int magic = (in.read() << 8) | in.read();
+        in.reset();
+
+        if (magic == (ObjectStreamConstants.STREAM_MAGIC & 0xFFFF)) return JAVA_SERIALIZATION;
+        if (magic == BINARY_MAGIC) return BINARY;
+        throw new IOException("Unrecognised wire format: 0x" + Integer.toHexString(magic));
+    }
+}
@@ -0,0 +1,114 @@
+package se325.util;
+
+/**
+ * Records latencies (or any other non-negative {@code long} values), so that percentiles can be reported afterwards,
+ * in the style of HdrHistogram.
+ * <p>
+ * Storing every value would take too much memory for a long load test, and fixed-width buckets can't cover both
+ * microseconds and seconds with useful precision. Instead, values are counted in buckets whose width grows with the
+ * value: each power-of-two range (e.g. 1024 - 2047) is split into {@link #SUB_BUCKETS} equal sub-buckets, so every value
+ * is recorded to within {@code 1 / SUB_BUCKETS} (under 1%) of its true value, whatever its size. Recording is a few
+ * shifts and an array increment, and memory use is fixed (about 60 KB).
+ * <p>
+ * This class is not thread-safe. Each thread should record into its own histogram, and the results can then be combined
+ * with {@link #add(LatencyHistogram)}.
+ */
+public class LatencyHistogram {
+
+    private static final int SUB_BUCKET_BITS = 7;
+
+    /** The number of sub-buckets each power-of-two range is split into. */
+    public static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+
+    /** Values below this are recorded exactly, one bucket each. */
+    private static final int EXACT_LIMIT = SUB_BUCKETS * 2;
+
+    private final long[] counts = new long[indexOf(Long.MAX_VALUE) + 1];
+
+    private long totalCount = 0;
+    private long max = 0;
+    private double sum = 0;
+
+    /**
+     * Records a single value.
+     *
+     * @throws IllegalArgumentException if the value is negative
+     */
+    public void record(long value) {
+        if (value < 0) throw new IllegalArgumentException("Can't record a negative value: " + value);
+        counts[indexOf(value)]++;
+        totalCount++;
+        max = Math.max(max, value);
+        sum += value;
+    }
+
+    /**
+     * Adds all values recorded by another histogram to this one.
+     */
+    public void add(LatencyHistogram other) {
+        for (int i = 0; i < counts.length; i++) {
+            counts[i] += other.counts[i];
+        }
+        totalCount += other.totalCount;
+        max = Math.max(max, other.max);
+        sum += other.sum;
+    }
+
+    public long getCount() {
+        return totalCount;
+    }
+
+    public long getMax() {
+        return max;
+    }
+
+    public double getMean() {
+        return totalCount == 0 ? 0 : sum / totalCount;
+    }
+
+    /**
+     * Returns the value which the given percentage of recorded values are less than or equal to, e.g.
+     * {@code getValueAtPercentile(99.9)}. The result is the upper end of the bucket the value was recorded in, so it
+     * may be slightly (less than 1%) higher than the actual value. Returns zero if nothing has been recorded.
+     */
+    public long getValueAtPercentile(double percentile) {
+        if (percentile < 0 || percentile > 100) {
+            throw new IllegalArgumentException("Percentile must be between 0 and 100: " + percentile);
+        }
+        if (totalCount == 0) return 0;
+
+        long target = Math.max(1, (long) Math.ceil(totalCount * percentile / 100.0));
+        long seen = 0;
+        for (int i = 0; i < counts.length; i++) {
+            seen += counts[i];
+            if (seen >= target) {
+                return Math.min(highestValueIn(i), max);
+            }
+        }
+        return max;
+    }
+
+    /**
+     * Values below {@link #EXACT_LIMIT} each get their own bucket. Above that, a value with its highest set bit at
+     * position {@code b} is in range {@code b}, and its sub-bucket is given by the {@link #SUB_BUCKET_BITS} bits
+     * below the highest one.
+     */
+    static int indexOf(long value) {
+        if (value < EXACT_LIMIT) return (int) value;
+        int highestBit = 63 - Long.numberOfLeadingZeros(value);
+        int shift = highestBit - SUB_BUCKET_BITS;
+        int subBucket = (int) (value >>> shift) - SUB_BUCKETS;
+        return EXACT_LIMIT + (shift - 1) * SUB_BUCKETS + subBucket;
+    }
+
+    /**
+     * The largest value which would be recorded in the bucket with the given index.
+     */
+    static long highestValueIn(int index) {
+        if (index < EXACT_LIMIT) return index;
+        int shift = (index - EXACT_LIMIT) / SUB_BUCKETS + 1;
+        long subBucket = (index - EXACT_LIMIT) % SUB_BUCKETS + SUB_BUCKETS;
+        long lowest = subBucket << shift;
+        return lowest + (1L << shift) - 1;
+    }
+}
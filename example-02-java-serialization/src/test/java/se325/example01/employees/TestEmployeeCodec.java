@@ -0,0 +1,109 @@
+package se325.example01.employees;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class TestEmployeeCodec {
+
+    private Manager mgr;
+    private Employee e1;
+    private Employee e2;
+
+    @BeforeEach
+    public void setUp() {
+        mgr = new Manager("David", "8653899");
+        e1 = new Employee("Tim", "2368571", mgr);
+        e2 = new Employee("Gareth", "0911558", mgr);
+    }
+
+    @Test
+    public void testRoundTrip() throws IOException {
+
+        Employee deserialized = decode(encode(e2));
+
+        // They aren't the same object...
+        assertNotSame(e2, deserialized);
+
+        // But they have the same contents.
+        assertEquals(e2, deserialized);
+        assertFalse(deserialized instanceof Manager);
+
+        // The rest of the graph comes along too, with the manager's employees in their original order.
+        Manager deserializedMgr = deserialized.getManager();
+        assertEquals("David", deserializedMgr.getName());
+        assertEquals(2, deserializedMgr.getResponsibleFor().size());
+        assertEquals(e1, deserializedMgr.getResponsibleFor().get(0));
+        assertSame(deserialized, deserializedMgr.getResponsibleFor().get(1));
+        assertSame(deserializedMgr, deserializedMgr.getResponsibleFor().get(0).getManager());
+    }
+
+    @Test
+    public void testSmallerThanJavaSerialization() throws IOException {
+        ByteArrayOutputStream bytesOut = new ByteArrayOutputStream();
+        try (ObjectOutputStream objOut = new ObjectOutputStream(bytesOut)) {
+            objOut.writeObject(e1);
+        }
+
+        assertTrue(encode(e1).length < bytesOut.size() / 4);
+    }
+
+    @Test
+    public void testLongManagementChain() throws IOException {
+        // Deep enough that a recursive encoder / decoder would overflow the stack.
+        Manager top = new Manager("Manager 0", "0");
+        Manager current = top;
+        for (int i = 1; i < 100_000; i++) {
+            current = new Manager("Manager " + i, String.valueOf(i), current);
+        }
+        Employee bottom = new Employee("Bottom", "bottom", current);
+
+        Employee deserialized = decode(encode(bottom));
+
+        assertEquals("Bottom", deserialized.getName());
+        Employee e = deserialized;
+        int depth = 0;
+        while (e.getManager() != null) {
+            e = e.getManager();
+            depth++;
+        }
+        assertEquals(100_000, depth);
+        assertEquals("Manager 0", e.getName());
+    }
+
+    @Test
+    public void testUnsupportedVersionIsRejected() throws IOException {
+        byte[] data = encode(e1);
+        data[0] = (byte) (EmployeeCodec.VERSION + 1);
+
+        assertThrows(StreamCorruptedException.class, () -> decode(data));
+    }
+
+    @Test
+    public void testForwardManagerReferenceIsRejected() throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        DataOutputStream out = new DataOutputStream(bytes);
+        out.writeByte(EmployeeCodec.VERSION);
+        out.writeByte(1); // One record...
+        out.writeByte(EmployeeCodec.KIND_EMPLOYEE);
+        out.writeUTF("Tim");
+        out.writeUTF("2368571");
+        out.writeByte(2); // ...whose manager is a record which doesn't exist yet
+        out.writeByte(0);
+
+        assertThrows(StreamCorruptedException.class, () -> decode(bytes.toByteArray()));
+    }
+
+    private static byte[] encode(Employee employee) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        EmployeeCodec.write(employee, new DataOutputStream(bytes));
+        return bytes.toByteArray();
+    }
+
+    private static Employee decode(byte[] data) throws IOException {
+        return EmployeeCodec.read(new DataInputStream(new ByteArrayInputStream(data)));
+    }
+}
@@ -0,0 +1,116 @@
+package se325.example01.employees;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class TestEmployeeDirectory {
+
+    private Manager mgr;
+    private Employee e1;
+    private Employee e2;
+    private EmployeeDirectory directory;
+
+    @BeforeEach
+    public void setUp() {
+        mgr = new Manager("David", "8653899");
+        e1 = new Employee("Tim", "2368571", mgr);
+        e2 = new Employee("Gareth", "0911558", mgr);
+        directory = new EmployeeDirectory(Arrays.asList(mgr, e1, e2));
+    }
+
+    @Test
+    public void testFindByNameIgnoresCase() {
+        assertSame(e1, directory.findByName("Tim").orElseThrow());
+        assertSame(e1, directory.findByName("tIM").orElseThrow());
+        assertSame(mgr, directory.findByName("DAVID").orElseThrow());
+        assertTrue(directory.findByName("Timothy").isEmpty());
+    }
+
+    @Test
+    public void testFindBySsn() {
+        assertSame(e2, directory.findBySsn("0911558").orElseThrow());
+        assertTrue(directory.findBySsn("0000000").isEmpty());
+    }
+
+    @Test
+    public void testFirstEmployeeWinsForDuplicateNames() {
+        Employee anotherTim = new Employee("TIM", "1111111", mgr);
+        directory.add(anotherTim);
+
+        assertSame(e1, directory.findByName("tim").orElseThrow());
+        assertSame(anotherTim, directory.findBySsn("1111111").orElseThrow());
+        assertEquals(4, directory.size());
+    }
+
+    @Test
+    public void testDuplicateSsnIsRejected() {
+        assertThrows(IllegalArgumentException.class, () -> directory.add(new Employee("Someone", "2368571")));
+        assertEquals(3, directory.size());
+    }
+
+    @Test
+    public void testFoldCaseMatchesEqualsIgnoreCase() {
+        List<String> names = Arrays.asList("Tim", "TIM", "tim", "\u01C4emal", "\u01C5emal", "\u01C6emal", "Stra\u00DFe", "STRASSE",
+                // Deseret capital and small long I, which are surrogate pairs in UTF-16
+                "\uD801\uDC00x", "\uD801\uDC28x", "\uD801\uDC28X");
+        for (String a : names) {
+            for (String b : names) {
+                assertEquals(a.equalsIgnoreCase(b), EmployeeDirectory.foldCase(a).equals(EmployeeDirectory.foldCase(b)),
+                        a + " vs " + b);
+            }
+        }
+    }
+
+    @Test
+    public void testLoad(@TempDir Path tempDir) throws IOException {
+        Path file = tempDir.resolve("employees.csv");
+        Files.write(file, Arrays.asList(
+                "# name,ssn,managerSsn",
+                "Tim,2368571,8653899",
+                "David,8653899,1000000",
+                "",
+                "Gareth,0911558,8653899",
+                "Alice,1000000"
+        ));
+
+        EmployeeDirectory loaded = EmployeeDirectory.load(file);
+        assertEquals(4, loaded.size());
+
+        Manager david = (Manager) loaded.findByName("david").orElseThrow();
+        Manager alice = (Manager) loaded.findBySsn("1000000").orElseThrow();
+        Employee tim = loaded.findByName("tim").orElseThrow();
+        Employee gareth = loaded.findByName("gareth").orElseThrow();
+
+        assertFalse(tim instanceof Manager);
+        assertSame(david, tim.getManager());
+        assertSame(alice, david.getManager());
+        assertNull(alice.getManager());
+        assertEquals(Arrays.asList(tim, gareth), david.getResponsibleFor());
+        assertEquals(Arrays.asList(tim, david, gareth, alice), loaded.getAll());
+    }
+
+    @Test
+    public void testLoadRejectsUnknownManager(@TempDir Path tempDir) throws IOException {
+        Path file = tempDir.resolve("employees.csv");
+        Files.write(file, Arrays.asList("Tim,2368571,8653899"));
+
+        assertThrows(IllegalArgumentException.class, () -> EmployeeDirectory.load(file));
+    }
+
+    @Test
+    public void testLoadRejectsManagerCycle(@TempDir Path tempDir) throws IOException {
+        Path file = tempDir.resolve("employees.csv");
+        Files.write(file, Arrays.asList("A,1,2", "B,2,1"));
+
+        assertThrows(IllegalArgumentException.class, () -> EmployeeDirectory.load(file));
+    }
+}
@@ -0,0 +1,91 @@
+package se325.example01.employees;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.StreamCorruptedException;
+import java.nio.channels.Channels;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class TestEmployeeSnapshot {
+
+    private EmployeeDirectory directory;
+    private EmployeeSnapshot snapshot;
+
+    @BeforeEach
+    public void setUp() throws IOException {
+        Manager mgr = new Manager("David", "8653899");
+        Employee e1 = new Employee("Tim", "2368571", mgr);
+        Employee e2 = new Employee("Gareth", "0911558", mgr);
+        directory = new EmployeeDirectory(Arrays.asList(mgr, e1, e2));
+        snapshot = EmployeeSnapshot.of(directory);
+    }
+
+    @AfterEach
+    public void tearDown() throws IOException {
+        snapshot.close();
+    }
+
+    @Test
+    public void testSnapshotContainsEveryone() throws IOException {
+        List<Employee> all = EmployeeSnapshot.read(contents());
+
+        assertEquals(directory.getAll(), all);
+        assertInstanceOf(Manager.class, all.get(0));
+        assertSame(all.get(0), all.get(1).getManager());
+        assertEquals(Arrays.asList(all.get(1), all.get(2)), ((Manager) all.get(0)).getResponsibleFor());
+    }
+
+    @Test
+    public void testAdditionsAreAppended() throws IOException {
+        byte[] before = contents();
+
+        directory.add(new Employee("Nasser", "5555555", (Manager) directory.findByName("David").get()));
+        byte[] after = contents();
+
+        // The old snapshot is unchanged at the start of the new one, and still readable by itself
+        assertTrue(after.length > before.length);
+        assertArrayEquals(before, Arrays.copyOf(after, before.length));
+        assertEquals(3, EmployeeSnapshot.read(before).size());
+        assertEquals(directory.getAll(), EmployeeSnapshot.read(after));
+    }
+
+    @Test
+    public void testEmployeesAddedBeforeTheirManagers() throws IOException {
+        Manager ceo = new Manager("CEO", "0000001");
+        Manager cto = new Manager("CTO", "0000002", ceo);
+        Employee engineer = new Employee("Engineer", "0000003", cto);
+
+        // Both managers have to be written before the engineer, but aren't in the directory yet
+        directory.add(engineer);
+        List<Employee> all = EmployeeSnapshot.read(contents());
+        assertEquals(directory.getAll(), all);
+        assertEquals(ceo, all.get(3).getManager().getManager());
+
+        // Once they're added, they're listed in the order they were added
+        directory.add(ceo);
+        directory.add(cto);
+        all = EmployeeSnapshot.read(contents());
+        assertEquals(directory.getAll(), all);
+        assertSame(all.get(5), all.get(3).getManager());
+        assertSame(all.get(4), all.get(5).getManager());
+    }
+
+    @Test
+    public void testRejectsUnsupportedVersion() {
+        assertThrows(StreamCorruptedException.class, () -> EmployeeSnapshot.read(new byte[]{99}));
+    }
+
+    private byte[] contents() throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        snapshot.transferTo(Channels.newChannel(bytes));
+        assertEquals(snapshot.size(), bytes.size());
+        return bytes.toByteArray();
+    }
+}
@@ -0,0 +1,121 @@
+package se325.example01.employees.tcp;
+
+import org.junit.jupiter.api.Test;
+import se325.example01.employees.Employee;
+import se325.example01.employees.EmployeeRequest;
+import se325.example01.employees.Manager;
+
+import java.io.*;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class TestEmployeeObjectInputStream {
+
+    @Test
+    public void testReadsRequests() throws Exception {
+        byte[] data = serialize(new EmployeeRequest("Tim"), new EmployeeRequest("Gareth"));
+
+        try (EmployeeObjectInputStream in = EmployeeObjectInputStream.forRequests(new ByteArrayInputStream(data))) {
+            assertEquals("Tim", in.readMessage(EmployeeRequest.class).getName());
+            assertEquals("Gareth", in.readMessage(EmployeeRequest.class).getName());
+        }
+    }
+
+    @Test
+    public void testReadsResponses() throws Exception {
+        Manager mgr = new Manager("David", "8653899");
+        Employee tim = new Employee("Tim", "2368571", mgr);
+        new Employee("Gareth", "0911558", mgr);
+
+        try (EmployeeObjectInputStream in = EmployeeObjectInputStream.forResponses(new ByteArrayInputStream(serialize(tim)))) {
+            Employee deserialized = in.readMessage(Employee.class);
+            assertEquals(tim, deserialized);
+            assertEquals(2, deserialized.getManager().getResponsibleFor().size());
+        }
+    }
+
+    @Test
+    public void testRejectsUnexpectedClasses() throws Exception {
+        HashMap<String, String> map = new HashMap<>();
+        map.put("name", "Tim");
+
+        try (EmployeeObjectInputStream in = EmployeeObjectInputStream.forRequests(new ByteArrayInputStream(serialize(map)))) {
+            assertThrows(InvalidClassException.class, () -> in.readMessage(EmployeeRequest.class));
+        }
+    }
+
+    @Test
+    public void testServerDoesNotAcceptEmployees() throws Exception {
+        // Employees are only ever sent by the server, so the server shouldn't accept them from clients.
+        byte[] data = serialize(new Employee("Tim", "2368571"));
+
+        try (EmployeeObjectInputStream in = EmployeeObjectInputStream.forRequests(new ByteArrayInputStream(data))) {
+            assertThrows(InvalidClassException.class, () -> in.readMessage(EmployeeRequest.class));
+        }
+    }
+
+    @Test
+    public void testRejectsLongArrays() throws Exception {
+        ArrayList<String> list = new ArrayList<>(Collections.nCopies(EmployeeObjectInputStream.MAX_RESPONSE_ARRAY_LENGTH + 1, "x"));
+
+        try (EmployeeObjectInputStream in = EmployeeObjectInputStream.forResponses(new ByteArrayInputStream(serialize(list)))) {
+            assertThrows(InvalidClassException.class, () -> in.readMessage(Employee.class));
+        }
+    }
+
+    @Test
+    public void testRejectsDeepNesting() throws Exception {
+        // Each manager in this chain is nested a few levels deeper than the last.
+        Manager top = new Manager("Manager 0", "0");
+        Manager next = top;
+        for (int i = 1; i <= EmployeeObjectInputStream.MAX_RESPONSE_DEPTH; i++) {
+            next = new Manager("Manager " + i, String.valueOf(i), next);
+        }
+
+        try (EmployeeObjectInputStream in = EmployeeObjectInputStream.forResponses(new ByteArrayInputStream(serialize(top)))) {
+            assertThrows(InvalidClassException.class, () -> in.readMessage(Employee.class));
+        }
+    }
+
+    @Test
+    public void testRejectsLargeMessages() throws Exception {
+        String hugeName = "x".repeat((int) EmployeeObjectInputStream.MAX_REQUEST_BYTES);
+        byte[] data = serialize(new EmployeeRequest("Tim"), new EmployeeRequest(hugeName));
+
+        try (EmployeeObjectInputStream in = EmployeeObjectInputStream.forRequests(new ByteArrayInputStream(data))) {
+            assertEquals("Tim", in.readMessage(EmployeeRequest.class).getName());
+            assertThrows(StreamCorruptedException.class, () -> in.readMessage(EmployeeRequest.class));
+        }
+    }
+
+    @Test
+    public void testSizeLimitIsPerMessage() throws Exception {
+        // Many messages which add up to more than the limit are fine, as long as each one is small enough.
+        String name = "x".repeat(1000);
+        EmployeeRequest[] requests = new EmployeeRequest[100];
+        for (int i = 0; i < requests.length; i++) {
+            requests[i] = new EmployeeRequest(name + i);
+        }
+        byte[] data = serialize((Object[]) requests);
+        assertTrue(data.length > EmployeeObjectInputStream.MAX_REQUEST_BYTES);
+
+        try (EmployeeObjectInputStream in = EmployeeObjectInputStream.forRequests(new ByteArrayInputStream(data))) {
+            for (int i = 0; i < requests.length; i++) {
+                assertEquals(name + i, in.readMessage(EmployeeRequest.class).getName());
+            }
+        }
+    }
+
+    private static byte[] serialize(Object... objects) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (ObjectOutputStream out = new ObjectOutputStream(bytes)) {
+            for (Object object : objects) {
+                out.writeObject(object);
+            }
+        }
+        return bytes.toByteArray();
+    }
+}
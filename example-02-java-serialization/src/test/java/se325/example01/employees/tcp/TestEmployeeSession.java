@@ -0,0 +1,109 @@
+package se325.example01.employees.tcp;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import se325.example01.employees.Employee;
+import se325.example01.employees.EmployeeDirectory;
+import se325.example01.employees.Manager;
+import se325.util.ConnectionDispatcher;
+
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.ServerSocket;
+import java.nio.channels.ServerSocketChannel;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class TestEmployeeSession {
+
+    private ServerSocket serverSocket;
+    private ConnectionDispatcher dispatcher;
+    private EmployeeDirectory directory;
+    private Server server;
+
+    @BeforeEach
+    public void setUp() throws IOException {
+        Manager mgr = new Manager("David", "8653899");
+        Employee e1 = new Employee("Tim", "2368571", mgr);
+        Employee e2 = new Employee("Gareth", "0911558", mgr);
+        directory = new EmployeeDirectory(Arrays.asList(mgr, e1, e2));
+
+        // Like the real server, use a channel so that snapshots can be sent with zero-copy transfers
+        serverSocket = ServerSocketChannel.open().bind(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0)).socket();
+        server = new Server(directory, true, 2);
+        dispatcher = new ConnectionDispatcher(serverSocket, ConnectionDispatcher.Mode.VIRTUAL_THREADS, server::handle);
+        new Thread(() -> {
+            try {
+                dispatcher.serve();
+            } catch (IOException e) {
+                e.printStackTrace();
+            }
+        }).start();
+    }
+
+    @AfterEach
+    public void tearDown() throws IOException {
+        dispatcher.close();
+        server.close();
+    }
+
+    @Test
+    public void testSharedObjectsAreDeduplicatedBetweenResets() throws Exception {
+        try (EmployeeClient client = connect(WireFormat.JAVA_SERIALIZATION, 2)) {
+
+            // The server resets after every two responses, so the first two share the same manager...
+            Employee tim = client.find("tim");
+            Employee gareth = client.find("gareth");
+            assertSame(tim.getManager(), gareth.getManager());
+
+            // ...but the third is sent from scratch.
+            Employee timAgain = client.find("TIM");
+            assertNotSame(tim, timAgain);
+            assertEquals(tim, timAgain);
+
+            assertNull(client.find("nobody"));
+        }
+    }
+
+    @Test
+    public void testManyRequestsInOneSession() throws Exception {
+        for (WireFormat format : WireFormat.values()) {
+            try (EmployeeClient client = connect(format, 2)) {
+                for (int i = 0; i < 1000; i++) {
+                    assertEquals("Gareth", client.find("gareth").getName());
+                }
+            }
+        }
+    }
+
+    @Test
+    public void testFindAllSeesAdditions() throws Exception {
+        try (EmployeeClient client = connect(WireFormat.BINARY, 2)) {
+            List<Employee> all = client.findAll();
+            assertEquals(directory.getAll(), all);
+            assertSame(all.get(0), all.get(1).getManager());
+
+            // An employee whose manager isn't in the directory yet, then that manager
+            Manager boss = new Manager("Boss", "1111111");
+            Employee newbie = new Employee("Newbie", "2222222", boss);
+            directory.add(newbie);
+            assertEquals(directory.getAll(), client.findAll());
+
+            directory.add(boss);
+            all = client.findAll();
+            assertEquals(directory.getAll(), all);
+            assertSame(all.get(4), all.get(3).getManager());
+
+            // Other requests still work in the same session
+            assertEquals("Newbie", client.find("newbie").getName());
+        }
+    }
+
+    private EmployeeClient connect(WireFormat format, int resetInterval) throws IOException {
+        return new EmployeeClient(InetAddress.getLoopbackAddress(), serverSocket.getLocalPort(), format, resetInterval);
+    }
+}
@@ -0,0 +1,79 @@
+package se325.util;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class TestLatencyHistogram {
+
+    @Test
+    public void testEmptyHistogram() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        assertEquals(0, histogram.getCount());
+        assertEquals(0, histogram.getValueAtPercentile(99));
+    }
+
+    @Test
+    public void testSmallValuesAreExact() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        for (int i = 1; i <= 100; i++) {
+            histogram.record(i);
+        }
+
+        assertEquals(100, histogram.getCount());
+        assertEquals(50, histogram.getValueAtPercentile(50));
+        assertEquals(99, histogram.getValueAtPercentile(99));
+        assertEquals(100, histogram.getValueAtPercentile(100));
+        assertEquals(50.5, histogram.getMean(), 1e-9);
+    }
+
+    @Test
+    public void testLargeValuesAreWithinOnePercent() {
+        long[] values = {1_000, 12_345, 999_999, 1_234_567_890L, 3_600_000_000_000L, Long.MAX_VALUE};
+        for (long value : values) {
+            LatencyHistogram histogram = new LatencyHistogram();
+            histogram.record(value);
+            histogram.record(0);
+
+            long reported = histogram.getValueAtPercentile(100);
+            assertEquals(value, reported, "Maximum is reported exactly");
+
+            long bucketTop = LatencyHistogram.highestValueIn(LatencyHistogram.indexOf(value));
+            assertTrue(bucketTop >= value);
+            assertTrue(bucketTop - value <= value / LatencyHistogram.SUB_BUCKETS, "Bucket for " + value + " is too wide");
+        }
+    }
+
+    @Test
+    public void testBucketsAreContiguous() {
+        for (int index = 1; index < LatencyHistogram.indexOf(Long.MAX_VALUE); index++) {
+            long top = LatencyHistogram.highestValueIn(index);
+            assertEquals(index, LatencyHistogram.indexOf(top));
+            assertEquals(index + 1, LatencyHistogram.indexOf(top + 1));
+        }
+    }
+
+    @Test
+    public void testPercentilesAcrossMergedHistograms() {
+        LatencyHistogram fast = new LatencyHistogram();
+        LatencyHistogram slow = new LatencyHistogram();
+        for (int i = 0; i < 990; i++) {
+            fast.record(1_000_000); // 1 ms
+        }
+        for (int i = 0; i < 10; i++) {
+            slow.record(500_000_000); // 500 ms
+        }
+
+        fast.add(slow);
+        assertEquals(1000, fast.getCount());
+        assertEquals(500_000_000, fast.getMax());
+        assertEquals(1_000_000, fast.getValueAtPercentile(50), 1_000_000 / LatencyHistogram.SUB_BUCKETS);
+        assertEquals(1_000_000, fast.getValueAtPercentile(99), 1_000_000 / LatencyHistogram.SUB_BUCKETS);
+        assertEquals(500_000_000, fast.getValueAtPercentile(99.9), 500_000_000 / LatencyHistogram.SUB_BUCKETS);
+    }
+
+    @Test
+    public void testRejectsNegativeValues() {
+        assertThrows(IllegalArgumentException.class, () -> new LatencyHistogram().record(-1));
+    }
+}
@@ -0,0 +1,125 @@
+package se325.example03.clients;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.ByteBuffer;
+import java.util.Random;
+
+/**
+ * Compares doing many multiplications with one HTTP request each, against sending them in batches (see
+ * {@code MultiplyServlet.doPost()}). Every HTTP request costs at least one network round trip, plus the work of
+ * creating and parsing its headers, so the fewer requests the better.
+ * <p>
+ * Start the server first (e.g. with {@code mvn jetty:run}). The defaults can be changed with arguments, e.g.
+ * {@code --count=20000 --base=http://localhost:8080/my-app}.
+ */
+public class BatchMultiplyBenchmark {
+
+    private static final int[] BATCH_SIZES = {10, 100, 1000, 10_000};
+
+    public static void main(String[] args) throws Exception {
+        String base = option(args, "base", "http://localhost:8080/my-app");
+        int count = Integer.parseInt(option(args, "count", "10000"));
+
+        Random random = new Random(325);
+        int[] xs = new int[count];
+        int[] ys = new int[count];
+        for (int i = 0; i < count; i++) {
+            xs[i] = random.nextInt(10_000);
+            ys[i] = random.nextInt(10_000);
+        }
+
+        HttpClient client = HttpClient.newHttpClient();
+
+        /* Run everything once before measuring, so that both ends have a chance to warm up. */
+        multiplyOneByOne(client, base + "/basicMultiply", xs, ys);
+        for (String path : new String[]{"/basicMultiply", "/asyncMultiply"}) {
+            multiplyInBatches(client, base + path, xs, ys, 1000);
+        }
+
+        System.out.printf("%-16s %-12s %10s %12s %18s%n", "Servlet", "Batch size", "Requests", "Time (ms)", "Multiplications/s");
+
+        long start = System.nanoTime();
+        multiplyOneByOne(client, base + "/basicMultiply", xs, ys);
+        print("/basicMultiply", "(GET)", count, count, System.nanoTime() - start);
+
+        for (String path : new String[]{"/basicMultiply", "/asyncMultiply"}) {
+            for (int batchSize : BATCH_SIZES) {
+                start = System.nanoTime();
+                int requests = multiplyInBatches(client, base + path, xs, ys, batchSize);
+                print(path, String.valueOf(batchSize), count, requests, System.nanoTime() - start);
+            }
+        }
+    }
+
+    private static void print(String servlet, String batchSize, int count, int requests, long nanos) {
+        System.out.printf("%-16s %-12s %10d %12.1f %18.0f%n", servlet, batchSize, requests, nanos / 1e6,
+                count / (nanos / 1e9));
+    }
+
+    /**
+     * Does each multiplication with its own GET request.
+     */
+    private static void multiplyOneByOne(HttpClient client, String url, int[] xs, int[] ys)
+            throws IOException, InterruptedException {
+        for (int i = 0; i < xs.length; i++) {
+            HttpRequest request = HttpRequest.newBuilder(URI.create(url + "?num1=" + xs[i] + "&num2=" + ys[i]))
+                    .GET().build();
+            String body = client.send(request, HttpResponse.BodyHandlers.ofString()).body();
+            check(xs[i] * ys[i], Integer.parseInt(body.trim()));
+        }
+    }
+
+    /**
+     * Does the multiplications with as few POST requests as possible, each containing up to {@code batchSize} pairs of
+     * numbers.
+     *
+     * @return the number of requests made
+     */
+    private static int multiplyInBatches(HttpClient client, String url, int[] xs, int[] ys, int batchSize)
+            throws IOException, InterruptedException {
+        int requests = 0;
+        for (int from = 0; from < xs.length; from += batchSize) {
+            int to = Math.min(from + batchSize, xs.length);
+
+            ByteBuffer body = ByteBuffer.allocate((to - from) * 8);
+            for (int i = from; i < to; i++) {
+                body.putInt(xs[i]).putInt(ys[i]);
+            }
+
+            HttpRequest request = HttpRequest.newBuilder(URI.create(url))
+                    .header("Content-Type", "application/octet-stream")
+                    .POST(HttpRequest.BodyPublishers.ofByteArray(body.array()))
+                    .build();
+            HttpResponse<byte[]> response = client.send(request, HttpResponse.BodyHandlers.ofByteArray());
+            if (response.statusCode() != 200) {
+                throw new IOException("Request failed with status " + response.statusCode());
+            }
+
+            ByteBuffer results = ByteBuffer.wrap(response.body());
+            check(to - from, results.remaining() / 4);
+            for (int i = from; i < to; i++) {
+                check(xs[i] * ys[i], results.getInt());
+            }
+            requests++;
+        }
+        return requests;
+    }
+
+    private static void check(int expected, int actual) throws IOException {
+        if (expected != actual) {
+            throw new IOException("Expected " + expected + " but got " + actual);
+        }
+    }
+
+    private static String option(String[] args, String name, String defaultValue) {
+        String prefix = "--" + name + "=";
+        for (String arg : args) {
+            if (arg.startsWith(prefix)) return arg.substring(prefix.length());
+        }
+        return defaultValue;
+    }
+}
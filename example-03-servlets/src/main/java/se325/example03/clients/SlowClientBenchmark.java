@@ -0,0 +1,151 @@
+package se325.example03.clients;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.Socket;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Shows why asynchronous servlets matter when some clients are slow.
+ * <p>
+ * For each of the blocking ({@code /hello}) and asynchronous ({@code /asyncHello}) servlets, this first opens many
+ * "slow" connections, each of which asks for a large response and then reads it very slowly. It then measures how
+ * many ordinary requests per second a few "fast" clients can get through while the slow clients are still connected.
+ * <p>
+ * The blocking servlet spends a container thread on each slow client, waiting for it to read. Once every thread in
+ * the container's pool is waiting like this, fast clients have to wait too. The asynchronous servlet only uses a
+ * thread while there's something to write, so fast clients are unaffected.
+ * <p>
+ * Start the server first (e.g. with {@code mvn jetty:run}). The defaults can be changed with arguments, e.g.
+ * {@code --slow-clients=500 --duration=20 --base=http://localhost:8080/my-app}.
+ */
+public class SlowClientBenchmark {
+
+    /** Each slow client asks for this many hellos (about 2.8 MB)... */
+    private static final int SLOW_RESPONSE_REPEAT = 200_000;
+
+    /** ...and reads this much of it... */
+    private static final int SLOW_READ_BYTES = 1024;
+
+    /** ...every this many milliseconds. */
+    private static final long SLOW_READ_INTERVAL_MILLIS = 100;
+
+    public static void main(String[] args) throws Exception {
+        String base = option(args, "base", "http://localhost:8080/my-app");
+        int slowClients = Integer.parseInt(option(args, "slow-clients", "300"));
+        int fastClients = Integer.parseInt(option(args, "fast-clients", "8"));
+        int durationSeconds = Integer.parseInt(option(args, "duration", "10"));
+
+        System.out.printf("%-14s %12s %14s %12s %14s%n", "Servlet", "Slow clients", "Fast requests", "Timeouts", "Requests/sec");
+        for (String path : new String[]{"/hello", "/asyncHello"}) {
+            URI uri = URI.create(base + path);
+
+            List<Socket> slow = openSlowClients(uri, slowClients);
+            Thread.sleep(2000); // Give the server time to start (and get stuck on) the slow responses
+
+            Result result = runFastClients(uri, fastClients, durationSeconds);
+            System.out.printf("%-14s %12d %14d %12d %14.1f%n", path, slow.size(), result.completed, result.timeouts,
+                    result.completed / (double) durationSeconds);
+
+            for (Socket socket : slow) {
+                socket.close();
+            }
+            Thread.sleep(2000); // Let the server notice the slow clients have gone
+        }
+    }
+
+    /**
+     * Opens the given number of connections, each requesting a large response which is then read very slowly on a
+     * background thread. Each connection uses a small receive buffer, so the server can't just send the whole
+     * response at once.
+     */
+    private static List<Socket> openSlowClients(URI uri, int count) throws IOException {
+        List<Socket> sockets = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            Socket socket = new Socket();
+            socket.setReceiveBufferSize(4096);
+            socket.connect(new InetSocketAddress(uri.getHost(), uri.getPort()));
+
+            OutputStream out = socket.getOutputStream();
+            out.write(("GET " + uri.getRawPath() + "?repeat=" + SLOW_RESPONSE_REPEAT + " HTTP/1.1\r\n"
+                    + "Host: " + uri.getHost() + ":" + uri.getPort() + "\r\n"
+                    + "Connection: close\r\n\r\n").getBytes(StandardCharsets.US_ASCII));
+            out.flush();
+            sockets.add(socket);
+
+            Thread reader = new Thread(() -> readSlowly(socket));
+            reader.setDaemon(true);
+            reader.start();
+        }
+        return sockets;
+    }
+
+    private static void readSlowly(Socket socket) {
+        byte[] buffer = new byte[SLOW_READ_BYTES];
+        try (InputStream in = socket.getInputStream()) {
+            while (in.read(buffer) >= 0) {
+                Thread.sleep(SLOW_READ_INTERVAL_MILLIS);
+            }
+        } catch (IOException | InterruptedException e) {
+            // The benchmark closed the socket.
+        }
+    }
+
+    private record Result(long completed, long timeouts) {
+    }
+
+    /**
+     * Has each fast client repeatedly request a small response for the given duration, and counts how many requests
+     * complete.
+     */
+    private static Result runFastClients(URI uri, int count, int durationSeconds) throws InterruptedException {
+        HttpClient client = HttpClient.newBuilder().connectTimeout(Duration.ofSeconds(5)).build();
+        HttpRequest request = HttpRequest.newBuilder(uri).timeout(Duration.ofSeconds(5)).GET().build();
+
+        AtomicLong completed = new AtomicLong();
+        AtomicLong timeouts = new AtomicLong();
+        long end = System.nanoTime() + Duration.ofSeconds(durationSeconds).toNanos();
+
+        List<Thread> threads = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            Thread thread = new Thread(() -> {
+                while (System.nanoTime() < end) {
+                    try {
+                        HttpResponse<Void> response = client.send(request, HttpResponse.BodyHandlers.discarding());
+                        if (response.statusCode() == 200 && System.nanoTime() < end) {
+                            completed.incrementAndGet();
+                        }
+                    } catch (IOException e) {
+                        timeouts.incrementAndGet();
+                    } catch (InterruptedException e) {
+                        return;
+                    }
+                }
+            });
+            threads.add(thread);
+            thread.start();
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        return new Result(completed.get(), timeouts.get());
+    }
+
+    private static String option(String[] args, String name, String defaultValue) {
+        String prefix = "--" + name + "=";
+        for (String arg : args) {
+            if (arg.startsWith(prefix)) return arg.substring(prefix.length());
+        }
+        return defaultValue;
+    }
+}
@@ -0,0 +1,143 @@
+package se325.example03.servlets;
+
+import jakarta.servlet.AsyncContext;
+import jakarta.servlet.ReadListener;
+import jakarta.servlet.ServletInputStream;
+import jakarta.servlet.ServletOutputStream;
+import jakarta.servlet.WriteListener;
+import jakarta.servlet.http.HttpServletResponse;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+
+/**
+ * Handles a batch multiplication request (see {@link MultiplyServlet#doPost}) without ever blocking, for
+ * {@link AsyncMultiplyServlet}.
+ * <p>
+ * As a {@link ReadListener}, it reads whatever part of the request body has arrived, and works out the products of
+ * all the complete pairs. As a {@link WriteListener}, it sends those products whenever the client is ready for them.
+ * If the client isn't ready, it stops reading until it is, so that a client which sends quickly but reads slowly
+ * can't make the server buffer an unlimited number of results.
+ */
+public class AsyncBatchMultiplier implements ReadListener, WriteListener {
+
+    private static final int BUFFER_SIZE = 8192;
+
+    private final AsyncContext async;
+    private final ServletInputStream in;
+    private final ServletOutputStream out;
+
+    /** Bytes which have been read but not yet used, because they're only part of a pair. */
+    private final ByteBuffer input = ByteBuffer.allocate(BUFFER_SIZE);
+
+    /** Results which haven't yet been written, or null if there are none. */
+    private byte[] pending;
+
+    private boolean allRead = false;
+    private boolean completed = false;
+
+    /**
+     * Starts handling the request. This returns immediately, and the rest happens as the request body arrives.
+     */
+    public static void start(AsyncContext async) throws IOException {
+        /*
+         * By default, an asynchronous request times out after a fixed time, however much progress is being made. Like
+         * a blocking servlet, rely on the connection's idle timeout to get rid of clients which stop responding.
+         */
+        async.setTimeout(0);
+        AsyncBatchMultiplier multiplier = new AsyncBatchMultiplier(async);
+        multiplier.in.setReadListener(multiplier);
+        multiplier.out.setWriteListener(multiplier);
+    }
+
+    private AsyncBatchMultiplier(AsyncContext async) throws IOException {
+        this.async = async;
+        this.in = async.getRequest().getInputStream();
+        this.out = async.getResponse().getOutputStream();
+    }
+
+    @Override
+    public synchronized void onDataAvailable() throws IOException {
+        readAndMultiply();
+    }
+
+    @Override
+    public synchronized void onAllDataRead() throws IOException {
+        allRead = true;
+        if (input.position() != 0) {
+            // The client sent part of a pair. If we've already started the response, all we can do is stop.
+            HttpServletResponse response = (HttpServletResponse) async.getResponse();
+            if (!response.isCommitted()) {
+                response.reset();
+                response.sendError(HttpServletResponse.SC_BAD_REQUEST, "Expected pairs of 4-byte ints");
+            }
+            complete();
+            return;
+        }
+        completeIfDone();
+    }
+
+    @Override
+    public synchronized void onWritePossible() throws IOException {
+        if (writePending()) {
+            readAndMultiply();
+            completeIfDone();
+        }
+    }
+
+    /**
+     * Reads and multiplies as many numbers as are available without blocking, as long as their results can be sent
+     * straight away.
+     */
+    private void readAndMultiply() throws IOException {
+        while (pending == null && !allRead && in.isReady()) {
+            int n = in.read(input.array(), input.position(), input.remaining());
+            if (n < 0) return; // onAllDataRead() will be called
+            input.position(input.position() + n);
+
+            input.flip();
+            ByteBuffer results = ByteBuffer.allocate(input.remaining() / 8 * 4);
+            while (input.remaining() >= 8) {
+                results.putInt(input.getInt() * input.getInt());
+            }
+            input.compact();
+
+            if (results.position() > 0) {
+                pending = results.array();
+                writePending();
+            }
+        }
+    }
+
+    /**
+     * Writes any pending results, if the client is ready for them.
+     *
+     * @return true if there are no more pending results
+     */
+    private boolean writePending() throws IOException {
+        if (pending != null) {
+            if (!out.isReady()) return false;
+            out.write(pending);
+            pending = null;
+        }
+        return true;
+    }
+
+    private void completeIfDone() throws IOException {
+        if (allRead && pending == null && out.isReady()) {
+            complete();
+        }
+    }
+
+    private void complete() {
+        if (!completed) {
+            completed = true;
+            async.complete();
+        }
+    }
+
+    @Override
+    public synchronized void onError(Throwable t) {
+        complete();
+    }
+}
@@ -0,0 +1,54 @@
+package se325.example03.servlets;
+
+import jakarta.servlet.AsyncContext;
+import jakarta.servlet.http.HttpServlet;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+/**
+ * Sends the same response as {@link HelloWorldServlet}, but asynchronously. {@code doGet()} returns as soon as it has
+ * started the response, and the rest is written by an {@link AsyncResponseWriter} whenever the client is ready for
+ * more. No thread is tied up waiting for a slow client to read a large response.
+ * <p>
+ * Asynchronous servlets must be marked with {@code <async-supported>true</async-supported>} in {@code web.xml}.
+ */
+public class AsyncHelloWorldServlet extends HttpServlet {
+
+    private static final byte[] HELLO = ("Hello, world!" + System.lineSeparator()).getBytes(StandardCharsets.UTF_8);
+
+    /** Write this many hellos at a time. */
+    private static final int HELLOS_PER_CHUNK = 512;
+
+    @Override
+    protected void doGet(HttpServletRequest req, HttpServletResponse resp) throws IOException {
+
+        int repeat = HelloWorldServlet.parseRepeat(req, resp);
+        if (repeat < 0) return;
+        resp.setContentType("text/plain");
+
+        AsyncContext async = req.startAsync();
+        AsyncResponseWriter.start(async, new AsyncResponseWriter.Content() {
+            private int remaining = repeat;
+
+            @Override
+            public byte[] next() {
+                if (remaining == 0) return null;
+                int count = Math.min(remaining, HELLOS_PER_CHUNK);
+                remaining -= count;
+                return repeatHello(count);
+            }
+        });
+    }
+
+    private static byte[] repeatHello(int count) {
+        byte[] chunk = Arrays.copyOf(HELLO, HELLO.length * count);
+        for (int i = 1; i < count; i++) {
+            System.arraycopy(HELLO, 0, chunk, i * HELLO.length, HELLO.length);
+        }
+        return chunk;
+    }
+}
@@ -0,0 +1,48 @@
+package se325.example03.servlets;
+
+import jakarta.servlet.AsyncContext;
+import jakarta.servlet.http.HttpServlet;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Sends the same responses as {@link MultiplyServlet}, but asynchronously, so no thread waits for a slow client to
+ * send its request or read its response. Single multiplications are written with an {@link AsyncResponseWriter}, and
+ * batches are handled by an {@link AsyncBatchMultiplier}.
+ */
+public class AsyncMultiplyServlet extends HttpServlet {
+
+    @Override
+    protected void doGet(HttpServletRequest req, HttpServletResponse resp) throws IOException {
+
+        int num1 = Integer.parseInt(req.getParameter("num1"));
+        int num2 = Integer.parseInt(req.getParameter("num2"));
+
+        int result = num1 * num2;
+
+        resp.setContentType("text/plain");
+
+        AsyncContext async = req.startAsync();
+        AsyncResponseWriter.start(async,
+                AsyncResponseWriter.Content.of(String.valueOf(result).getBytes(StandardCharsets.UTF_8)));
+    }
+
+    /**
+     * Multiplies a whole batch of numbers, in the same format as {@link MultiplyServlet#doPost}.
+     */
+    @Override
+    protected void doPost(HttpServletRequest req, HttpServletResponse resp) throws IOException {
+
+        if (!MultiplyServlet.checkBatchRequest(req, resp)) return;
+
+        resp.setContentType(MultiplyServlet.OCTET_STREAM);
+        if (req.getContentLengthLong() >= 0) {
+            resp.setContentLengthLong(req.getContentLengthLong() / 2);
+        }
+
+        AsyncBatchMultiplier.start(req.startAsync());
+    }
+}
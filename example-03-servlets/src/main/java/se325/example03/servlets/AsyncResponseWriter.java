@@ -0,0 +1,92 @@
+package se325.example03.servlets;
+
+import jakarta.servlet.AsyncContext;
+import jakarta.servlet.ServletOutputStream;
+import jakarta.servlet.WriteListener;
+
+import java.io.IOException;
+
+/**
+ * Writes a response without ever blocking, for use by asynchronous servlets.
+ * <p>
+ * A normal servlet writes its response with blocking calls: if the client is slow to read, the container's thread
+ * waits inside {@code write()} until there is room in the socket's buffer. With enough slow clients, every thread in
+ * the container's pool ends up waiting like this, and no other requests can be handled.
+ * <p>
+ * Instead, this {@link WriteListener} only writes while {@link ServletOutputStream#isReady()} says it can do so without
+ * blocking. When the stream isn't ready, it simply returns, freeing the thread to do other work, and the container
+ * calls {@link #onWritePossible()} again once the client has caught up. Once all of the content has been written, the
+ * request's {@link AsyncContext} is completed.
+ */
+public class AsyncResponseWriter implements WriteListener {
+
+    /**
+     * Supplies the content of a response, one chunk at a time.
+     */
+    @FunctionalInterface
+    public interface Content {
+
+        /**
+         * Returns the next chunk to write, or null if there is nothing left.
+         */
+        byte[] next();
+
+        /**
+         * Content consisting of a single chunk.
+         */
+        static Content of(byte[] body) {
+            return new Content() {
+                private boolean written = false;
+
+                @Override
+                public byte[] next() {
+                    if (written) return null;
+                    written = true;
+                    return body;
+                }
+            };
+        }
+    }
+
+    private final AsyncContext async;
+    private final ServletOutputStream out;
+    private final Content content;
+
+    /**
+     * Starts writing the given content to the request's response. This returns immediately; the rest of the content
+     * is written as the client is ready for it.
+     */
+    public static void start(AsyncContext async, Content content) throws IOException {
+        /*
+         * By default, an asynchronous request times out after a fixed time, however much progress is being made. Like
+         * a blocking servlet, rely on the connection's idle timeout to get rid of clients which stop responding.
+         */
+        async.setTimeout(0);
+        ServletOutputStream out = async.getResponse().getOutputStream();
+        out.setWriteListener(new AsyncResponseWriter(async, out, content));
+    }
+
+    private AsyncResponseWriter(AsyncContext async, ServletOutputStream out, Content content) {
+        this.async = async;
+        this.out = out;
+        this.content = content;
+    }
+
+    @Override
+    public void onWritePossible() throws IOException {
+        while (out.isReady()) {
+            byte[] chunk = content.next();
+            if (chunk == null) {
+                async.complete();
+                return;
+            }
+            out.write(chunk);
+        }
+    }
+
+    @Override
+    public void onError(Throwable t) {
+        // Most likely, the client went away or took too long. There's nobody left to tell.
+        async.complete();
+    }
+}
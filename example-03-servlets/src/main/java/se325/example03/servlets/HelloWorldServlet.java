@@ -9,13 +9,38 @@ import java.io.PrintWriter;
 
 public class HelloWorldServlet extends HttpServlet {
 
+    /** The most times the "repeat" parameter can ask for (bigger values are treated as this), about 14 MB of hellos. */
+    public static final int MAX_REPEAT = 1_000_000;
+
     @Override
     protected void doGet(HttpServletRequest req, HttpServletResponse resp) throws IOException {
 
-        resp.setContentType("text/plain");
+        // The optional "repeat" parameter makes the response bigger (see SlowClientBenchmark).
+        int repeat = parseRepeat(req, resp);
+        if (repeat < 0) return;
 
+        resp.setContentType("text/plain");
         PrintWriter out = resp.getWriter();
-        out.println("Hello, world!");
+        for (int i = 0; i < repeat; i++) {
+            out.println("Hello, world!");
+        }
+
+    }
 
+    /**
+     * Reads the "repeat" parameter (how many times to say hello), which defaults to 1, and is at most
+     * {@link #MAX_REPEAT}. If it isn't a number, sends a 400 Bad Request response and returns -1.
+     */
+    static int parseRepeat(HttpServletRequest req, HttpServletResponse resp) throws IOException {
+        String repeat = req.getParameter("repeat");
+        if (repeat == null) return 1;
+        try {
+            return Math.max(0, Math.min(MAX_REPEAT, Integer.parseInt(repeat.trim())));
+        } catch (NumberFormatException e) {
+            // Too big for an int is still a number, so it's clamped like any other
+            if (repeat.trim().matches("\\d+")) return MAX_REPEAT;
+            resp.sendError(HttpServletResponse.SC_BAD_REQUEST, "repeat must be a whole number");
+            return -1;
+        }
     }
-}
\ No newline at end of file
+}
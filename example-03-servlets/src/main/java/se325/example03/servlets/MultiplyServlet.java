@@ -4,10 +4,18 @@ import jakarta.servlet.http.HttpServlet;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
 
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
 import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
 
 public class MultiplyServlet extends HttpServlet {
 
+    /** The content type of batch requests and responses. */
+    public static final String OCTET_STREAM = "application/octet-stream";
+
     @Override
     protected void doGet(HttpServletRequest req, HttpServletResponse resp) throws IOException {
 
@@ -19,9 +27,59 @@ public class MultiplyServlet extends HttpServlet {
         resp.setContentType("text/plain");
         resp.getWriter().print(result);
 
-//        resp.setContentType("application/octet-stream");
-//        DataOutputStream out = new DataOutputStream(resp.getOutputStream());
-//        out.writeInt(result);
+    }
+
+    /**
+     * Multiplies a whole batch of numbers in one request. The request body is any number of pairs of {@code int}s, and
+     * the response body is their products, in the same order. Both are {@code application/octet-stream}, with each
+     * {@code int} written as 4 bytes (as by {@link DataOutputStream#writeInt(int)}).
+     * <p>
+     * Results are sent as we go, rather than once the whole request has been read, so that neither end needs to hold
+     * an entire batch in memory.
+     */
+    @Override
+    protected void doPost(HttpServletRequest req, HttpServletResponse resp) throws IOException {
+
+        if (!checkBatchRequest(req, resp)) return;
+
+        resp.setContentType(OCTET_STREAM);
+        if (req.getContentLengthLong() >= 0) {
+            resp.setContentLengthLong(req.getContentLengthLong() / 2);
+        }
+
+        InputStream in = new BufferedInputStream(req.getInputStream());
+        DataOutputStream out = new DataOutputStream(new BufferedOutputStream(resp.getOutputStream()));
+        ByteBuffer pair = ByteBuffer.allocate(8);
+        while (true) {
+            int read = in.readNBytes(pair.array(), 0, 8);
+            if (read == 0) break;
+            if (read < 8) {
+                // The client sent part of a pair. If we've already started the response, all we can do is stop.
+                if (!resp.isCommitted()) {
+                    resp.reset();
+                    resp.sendError(HttpServletResponse.SC_BAD_REQUEST, "Expected pairs of 4-byte ints");
+                }
+                return;
+            }
+            out.writeInt(pair.getInt(0) * pair.getInt(4));
+        }
+        out.flush();
+
+    }
 
+    /**
+     * Checks that a batch request has the right content type, and (if its length is known) is a whole number of pairs.
+     * If not, sends an error response and returns false.
+     */
+    static boolean checkBatchRequest(HttpServletRequest req, HttpServletResponse resp) throws IOException {
+        if (req.getContentType() == null || !req.getContentType().startsWith(OCTET_STREAM)) {
+            resp.sendError(HttpServletResponse.SC_UNSUPPORTED_MEDIA_TYPE, "Expected " + OCTET_STREAM);
+            return false;
+        }
+        if (req.getContentLengthLong() >= 0 && req.getContentLengthLong() % 8 != 0) {
+            resp.sendError(HttpServletResponse.SC_BAD_REQUEST, "Expected pairs of 4-byte ints");
+            return false;
+        }
+        return true;
     }
 }
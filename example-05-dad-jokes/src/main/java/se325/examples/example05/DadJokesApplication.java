@@ -1,7 +1,15 @@
 package se325.examples.example05;
 
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.context.annotation.Bean;
+import se325.examples.example05.store.DadJokeStore;
+import se325.examples.example05.store.InMemoryDadJokeStore;
+import se325.examples.example05.store.PersistentDadJokeStore;
+
+import java.io.IOException;
+import java.nio.file.Path;
 
 @SpringBootApplication
 public class DadJokesApplication {
@@ -10,4 +18,25 @@ public class DadJokesApplication {
 		SpringApplication.run(DadJokesApplication.class, args);
 	}
 
+	/**
+	 * The store used by {@code DadJokesController}. Spring creates this once, and passes it to the controller's
+	 * constructor.
+	 * <p>
+	 * If the {@code dad-jokes.storage.directory} property is set (e.g. in {@code application.properties}, or with
+	 * {@code --dad-jokes.storage.directory=...} on the command line), jokes are saved in that directory, and are still
+	 * there when the server is restarted. Otherwise, they're only kept in memory. Spring closes the store when the
+	 * server shuts down.
+	 */
+	@Bean
+	public DadJokeStore dadJokeStore(
+			@Value("${dad-jokes.storage.directory:}") String directory,
+			@Value("${dad-jokes.storage.segment-size:" + PersistentDadJokeStore.DEFAULT_SEGMENT_SIZE + "}") long segmentSize)
+			throws IOException {
+
+		if (directory.isBlank()) {
+			return new InMemoryDadJokeStore();
+		}
+		return PersistentDadJokeStore.open(Path.of(directory), segmentSize);
+	}
+
 }
@@ -1,16 +1,25 @@
 package se325.examples.example05.controller;
 
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.web.server.ResponseStatusException;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 import se325.examples.example05.model.DadJoke;
+import se325.examples.example05.model.DadJokePage;
+import se325.examples.example05.search.DadJokeIndex;
+import se325.examples.example05.store.DadJokeStore;
+import se325.examples.example05.store.PersistentDadJokeStore;
 
 import java.net.URI;
 import java.net.URISyntaxException;
-import java.util.ArrayList;
+import java.nio.charset.StandardCharsets;
 import java.util.List;
-import java.util.concurrent.atomic.AtomicLong;
 
 /**
  * A Spring Boot REST controller for managing and serving dad jokes.
@@ -20,38 +29,124 @@ import java.util.concurrent.atomic.AtomicLong;
 @RequestMapping("/dad-jokes")
 public class DadJokesController {
 
-    private final AtomicLong counter = new AtomicLong();
-
-    private final List<DadJoke> dadJokes;
-
-    public DadJokesController() {
-        this.dadJokes = new ArrayList<>(List.of(
-                new DadJoke(counter.incrementAndGet(), "Why don't skeletons fight each other? They don't have the guts."),
-                new DadJoke(counter.incrementAndGet(), "What do you call cheese that isn't yours? Nacho cheese."),
-                new DadJoke(counter.incrementAndGet(), "How does a penguin build its house? Igloos it together."),
-                new DadJoke(counter.incrementAndGet(), "What do you call fake spaghetti? An impasta."),
-                new DadJoke(counter.incrementAndGet(), "What do you call a factory that makes okay products? A satisfactory."),
-                new DadJoke(counter.incrementAndGet(), "Why did the scarecrow win an award? Because he was outstanding in his field."),
-                new DadJoke(counter.incrementAndGet(), "Why don’t eggs tell jokes? They’d crack each other up."),
-                new DadJoke(counter.incrementAndGet(), "Why couldn’t the bicycle stand up by itself? It was two tired."),
-                new DadJoke(counter.incrementAndGet(), "What do you call a fish with no eyes? Fsh."),
-                new DadJoke(counter.incrementAndGet(), "I would tell you a construction joke, but I’m still working on it.")
-        ));
+    /** Newline-delimited JSON: one JSON object per line. */
+    public static final String APPLICATION_NDJSON = "application/x-ndjson";
+
+    /** The largest page of dad jokes that can be requested. */
+    public static final int MAX_PAGE_SIZE = 1000;
+
+    private static final List<String> INITIAL_DAD_JOKES = List.of(
+            "Why don't skeletons fight each other? They don't have the guts.",
+            "What do you call cheese that isn't yours? Nacho cheese.",
+            "How does a penguin build its house? Igloos it together.",
+            "What do you call fake spaghetti? An impasta.",
+            "What do you call a factory that makes okay products? A satisfactory.",
+            "Why did the scarecrow win an award? Because he was outstanding in his field.",
+            "Why don’t eggs tell jokes? They’d crack each other up.",
+            "Why couldn’t the bicycle stand up by itself? It was two tired.",
+            "What do you call a fish with no eyes? Fsh.",
+            "I would tell you a construction joke, but I’m still working on it."
+    );
+
+    private final DadJokeStore store;
+
+    private final DadJokeIndex index;
+
+    private final ObjectMapper mapper;
+
+    /** Writes one streamed dad joke. By default, Jackson would flush after each one, sending lots of tiny packets. */
+    private final ObjectWriter streamWriter;
+
+    /**
+     * Creates the controller, adding some initial dad jokes to the store if it's empty.
+     *
+     * @param store  Where the dad jokes are kept. This is provided by Spring (see {@code DadJokesApplication}).
+     * @param mapper Spring's Jackson {@link ObjectMapper}, for writing streamed dad jokes.
+     */
+    public DadJokesController(DadJokeStore store, ObjectMapper mapper) {
+        this.store = store;
+        this.mapper = mapper;
+        this.streamWriter = mapper.writerFor(DadJoke.class).without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
+        if (store.size() == 0) {
+            for (String text : INITIAL_DAD_JOKES) {
+                store.add(new DadJoke(text));
+            }
+        }
+        this.index = new DadJokeIndex(store.findAll());
     }
 
     /**
      * Retrieves all dad jokes, or a subset matching the given searchText.
+     * <p>
+     * Searches use a {@link DadJokeIndex}, rather than checking every joke's text, and return the best matches first.
      *
-     * @param searchText The text to search for in dad jokes. If null or blank, will be ignored.
+     * @param searchText The text to search for in dad jokes (ignoring case). If null or blank, will be ignored.
      * @return A {@link List} of dad jokes.
      */
     @GetMapping
     public List<DadJoke> getAllDadJokes(@RequestParam(value = "search", required = false) String searchText) {
-        if (searchText == null || searchText.isBlank()) return this.dadJokes;
+        if (searchText == null || searchText.isBlank()) return this.store.findAll();
 
-        return this.dadJokes.stream()
-                .filter(joke -> joke.getText().toLowerCase().contains(searchText.toLowerCase()))
-                .toList();
+        return this.index.search(searchText);
+    }
+
+    /**
+     * Retrieves one page of dad jokes. To go through every joke, first request a page with no {@code after} parameter,
+     * then pass each page's {@code nextCursor} as the {@code after} parameter of the next request, until a page has no
+     * {@code nextCursor}. Clients can go through any number of jokes this way, without the server ever having to hold
+     * more than one page of them in a response.
+     *
+     * @param limit      The maximum number of jokes on the page, from 1 to {@link #MAX_PAGE_SIZE}.
+     * @param after      The previous page's {@code nextCursor}. If not given, the first page is returned.
+     * @param searchText Search results can't be paged, so this must not be given.
+     * @return A {@link DadJokePage}.
+     * @throws ResponseStatusException If the limit is out of range, or search text is given, an HTTP 400 Bad Request
+     *                                 error is thrown.
+     */
+    @GetMapping(params = "limit")
+    public DadJokePage getDadJokePage(@RequestParam("limit") int limit,
+                                      @RequestParam(value = "after", defaultValue = "0") long after,
+                                      @RequestParam(value = "search", required = false) String searchText) {
+        if (searchText != null && !searchText.isBlank()) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Search results can't be paged");
+        }
+        if (limit < 1 || limit > MAX_PAGE_SIZE) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Limit must be between 1 and " + MAX_PAGE_SIZE);
+        }
+
+        /* Ask for one extra joke, to find out whether there's another page after this one. */
+        List<DadJoke> jokes = this.store.findAfter(after, limit + 1);
+        if (jokes.size() <= limit) return new DadJokePage(jokes, null);
+        return new DadJokePage(jokes.subList(0, limit), jokes.get(limit - 1).getId());
+    }
+
+    /**
+     * Retrieves all dad jokes (or those matching the given searchText, as for {@link #getAllDadJokes(String)}) as
+     * newline-delimited JSON, when the client accepts {@value #APPLICATION_NDJSON}.
+     * <p>
+     * Rather than converting the whole list into one big JSON array in memory before sending any of it, each joke is
+     * written to the response as soon as it has been converted. The server's output buffer is sent whenever it
+     * fills up, so memory use stays the same however many jokes there are, and the client can start processing jokes
+     * before the last one has been sent.
+     *
+     * @param searchText The text to search for in dad jokes (ignoring case). If null or blank, will be ignored.
+     * @return A response whose body writes each dad joke, as a JSON object on its own line.
+     */
+    @GetMapping(produces = APPLICATION_NDJSON)
+    public ResponseEntity<StreamingResponseBody> streamDadJokes(
+            @RequestParam(value = "search", required = false) String searchText) {
+        List<DadJoke> jokes = getAllDadJokes(searchText);
+
+        StreamingResponseBody body = out -> {
+            try (JsonGenerator generator = this.mapper.getFactory().createGenerator(out)) {
+                generator.setRootValueSeparator(null); // We add our own newlines, rather than Jackson's spaces
+                for (DadJoke joke : jokes) {
+                    this.streamWriter.writeValue(generator, joke);
+                    generator.writeRaw('\n');
+                }
+            }
+        };
+        return ResponseEntity.ok().contentType(MediaType.parseMediaType(APPLICATION_NDJSON)).body(body);
     }
 
     /**
@@ -61,11 +156,8 @@ public class DadJokesController {
      */
     @GetMapping("/random")
     public DadJoke getRandomDadJoke() {
-        if (this.dadJokes.isEmpty()) {
-            throw new ResponseStatusException(HttpStatus.NOT_FOUND, "No dad jokes available");
-        }
-        int randomIndex = (int) (Math.random() * this.dadJokes.size());
-        return this.dadJokes.get(randomIndex);
+        return this.store.findRandom()
+                .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND, "No dad jokes available"));
     }
 
     /**
@@ -78,14 +170,12 @@ public class DadJokesController {
     @GetMapping("/{id}")
     public DadJoke getDadJokeById(@PathVariable("id") long id) {
 
-        return this.dadJokes.stream()
-                .filter(joke -> joke.getId() == id)
-                .findFirst()
+        return this.store.findById(id)
                 .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND, "Dad joke not found"));
     }
 
     /**
-     * Adds a new dad joke to the list.
+     * Adds a new dad joke to the store.
      *
      * @param newJoke The dad joke to add.
      * @return The added dad joke with its generated ID.
@@ -95,8 +185,13 @@ public class DadJokesController {
         if (newJoke.getText() == null || newJoke.getText().isBlank()) {
             throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Dad joke text cannot be blank");
         }
-        newJoke.setId(counter.incrementAndGet());
-        this.dadJokes.add(newJoke);
+        /* Checked here for every store, so that the limit doesn't depend on whether jokes are being saved. */
+        if (newJoke.getText().getBytes(StandardCharsets.UTF_8).length > PersistentDadJokeStore.MAX_TEXT_BYTES) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST,
+                    "Dad joke text cannot be longer than " + PersistentDadJokeStore.MAX_TEXT_BYTES + " bytes");
+        }
+        this.store.add(newJoke);
+        this.index.add(newJoke);
         return ResponseEntity.created(new URI("/dad-jokes/" + newJoke.getId())).body(newJoke);
     }
 }
@@ -0,0 +1,38 @@
+package se325.examples.example05.model;
+
+import java.util.List;
+
+/**
+ * One page of dad jokes, along with the cursor needed to fetch the next page.
+ */
+public class DadJokePage {
+
+    private List<DadJoke> jokes;
+
+    /** The value of the {@code after} parameter which gets the next page, or null if this is the last page. */
+    private Long nextCursor;
+
+    public DadJokePage() {
+    }
+
+    public DadJokePage(List<DadJoke> jokes, Long nextCursor) {
+        this.jokes = jokes;
+        this.nextCursor = nextCursor;
+    }
+
+    public List<DadJoke> getJokes() {
+        return jokes;
+    }
+
+    public void setJokes(List<DadJoke> jokes) {
+        this.jokes = jokes;
+    }
+
+    public Long getNextCursor() {
+        return nextCursor;
+    }
+
+    public void setNextCursor(Long nextCursor) {
+        this.nextCursor = nextCursor;
+    }
+}
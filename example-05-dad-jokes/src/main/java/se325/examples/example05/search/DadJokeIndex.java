@@ -0,0 +1,351 @@
+package se325.examples.example05.search;
+
+import se325.examples.example05.model.DadJoke;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.TreeMap;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * An inverted index of dad jokes, which finds the jokes containing some text without looking at every joke.
+ * <p>
+ * A search matches exactly the jokes whose text contains the search text, ignoring case (and treating curly
+ * apostrophes as straight ones, so that {@code don't} finds {@code don’t}). Rather than checking every joke, the
+ * index uses the search text's words to pick out a few <em>candidate</em> jokes, and only checks those:
+ * <ul>
+ *     <li>Each joke's text is split into <em>terms</em>: runs of letters and digits. For each term, the index keeps a
+ *     list of the jokes which contain it (a "postings list"), sorted by the order the jokes were added.</li>
+ *     <li>The search text is split up the same way. A word in the middle of the search text must be a whole term of
+ *     any matching joke, so its postings list holds every candidate. The last word might be cut off (e.g. "skel"), so
+ *     any term it is a prefix of will do - since the terms are kept in order, these are all next to each other. The
+ *     first word might similarly start part-way through a term, and a search for a single word could be part of any
+ *     term (e.g. "elet"). To find the terms containing such a word, the index also keeps a list of the terms containing
+ *     each <em>trigram</em> (three-character sequence): only terms in the lists of all the word's trigrams can
+ *     contain it. Since there are far fewer distinct terms than jokes, this is much smaller than indexing the trigrams
+ *     of the jokes themselves.</li>
+ *     <li>Of all the words, the one with the fewest candidates is used. Each candidate is then checked to see whether
+ *     it really does contain the search text, since the other words (and the punctuation between them) must match
+ *     too.</li>
+ * </ul>
+ * Matches are ranked so that jokes containing the search text as whole words come first, followed by those where it
+ * is at the start of a word, and then the rest. Within each group, jokes where it appears earlier come first, and
+ * then jokes which were added earlier.
+ * <p>
+ * Adding a joke only updates the postings lists of its own terms, so the index never needs to be rebuilt. Searches may
+ * happen concurrently with each other, but not with additions.
+ */
+public class DadJokeIndex {
+
+    /** Every joke, in the order it was added. A joke's position in this list is its document number. */
+    private final List<DadJoke> jokes = new ArrayList<>();
+
+    /** The normalized text of each joke, by document number, so that it doesn't need to be normalized on every search. */
+    private final List<String> texts = new ArrayList<>();
+
+    /** Every distinct term, in the order it was first seen. A term's position in this list is its term number. */
+    private final List<String> terms = new ArrayList<>();
+
+    /** The postings list of each term, by term number. */
+    private final List<Postings> postings = new ArrayList<>();
+
+    /** The number of each term, in alphabetical order. */
+    private final NavigableMap<String, Integer> termNumbers = new TreeMap<>();
+
+    /**
+     * The number of each term again, for looking terms up while adding jokes. This is much quicker than looking them up
+     * in {@link #termNumbers}, which makes a big difference when indexing millions of jokes at startup.
+     */
+    private final Map<String, Integer> termNumbersByTerm = new HashMap<>();
+
+    /** For each trigram, the numbers of the terms containing it. */
+    private final Map<String, Postings> termsByTrigram = new HashMap<>();
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    public DadJokeIndex() {
+    }
+
+    public DadJokeIndex(Collection<DadJoke> jokes) {
+        for (DadJoke joke : jokes) {
+            add(joke);
+        }
+    }
+
+    /**
+     * Adds a joke to the index. The joke's text must not change afterwards.
+     */
+    public void add(DadJoke joke) {
+        String text = normalize(joke.getText());
+        lock.writeLock().lock();
+        try {
+            int doc = jokes.size();
+            jokes.add(joke);
+            texts.add(text);
+            for (Token token : tokenize(text)) {
+                postings.get(termNumber(token.term())).add(doc);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Returns the number of the given term, first adding it to the index if it's new.
+     */
+    private int termNumber(String term) {
+        Integer number = termNumbersByTerm.get(term);
+        if (number != null) return number;
+
+        number = terms.size();
+        terms.add(term);
+        postings.add(new Postings());
+        termNumbersByTerm.put(term, number);
+        termNumbers.put(term, number);
+        for (int i = 0; i + 3 <= term.length(); i++) {
+            termsByTrigram.computeIfAbsent(term.substring(i, i + 3), trigram -> new Postings()).add(number);
+        }
+        return number;
+    }
+
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return jokes.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Finds every joke whose text contains the given text, ignoring case, ranked as described above.
+     */
+    public List<DadJoke> search(String searchText) {
+        String query = normalize(searchText);
+        if (query.isEmpty()) return List.of();
+
+        lock.readLock().lock();
+        try {
+            List<Match> matches = new ArrayList<>();
+            Candidates candidates = findCandidates(query);
+            if (candidates == null) {
+                /* The search text has no letters or digits (e.g. "?"), so every joke is a candidate. */
+                for (int doc = 0; doc < texts.size(); doc++) {
+                    addIfMatches(matches, doc, query);
+                }
+            } else {
+                for (int doc : candidates.docs()) {
+                    addIfMatches(matches, doc, query);
+                }
+            }
+
+            matches.sort(Comparator.comparingInt(Match::rank).thenComparingInt(Match::position)
+                    .thenComparingInt(Match::doc));
+            List<DadJoke> results = new ArrayList<>(matches.size());
+            for (Match match : matches) {
+                results.add(jokes.get(match.doc()));
+            }
+            return results;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Converts text into the form used by the index, so that searches can ignore case.
+     */
+    static String normalize(String text) {
+        return text.toLowerCase(Locale.ROOT).replace('\u2019', '\'').replace('\u2018', '\'');
+    }
+
+    /**
+     * A term, and where it was in the (normalized) text it came from.
+     */
+    record Token(String term, int start, int end) {
+    }
+
+    /**
+     * Splits normalized text into terms: maximal runs of letters and digits.
+     */
+    static List<Token> tokenize(String text) {
+        List<Token> tokens = new ArrayList<>();
+        int i = 0;
+        while (i < text.length()) {
+            while (i < text.length() && !isTermChar(text.charAt(i))) i++;
+            int start = i;
+            while (i < text.length() && isTermChar(text.charAt(i))) i++;
+            if (i > start) tokens.add(new Token(text.substring(start, i), start, i));
+        }
+        return tokens;
+    }
+
+    static boolean isTermChar(char c) {
+        return Character.isLetterOrDigit(c);
+    }
+
+    /**
+     * A set of documents, as a union of postings lists.
+     */
+    private record Candidates(List<Postings> lists, int size) {
+
+        /** The documents in every list, without duplicates. */
+        int[] docs() {
+            if (lists.isEmpty()) return new int[0];
+            if (lists.size() == 1) return lists.get(0).toArray();
+
+            int[] docs = new int[size];
+            int n = 0;
+            for (Postings list : lists) {
+                System.arraycopy(list.docs, 0, docs, n, list.size);
+                n += list.size;
+            }
+            Arrays.sort(docs);
+            int unique = 0;
+            for (int i = 0; i < docs.length; i++) {
+                if (i == 0 || docs[i] != docs[i - 1]) docs[unique++] = docs[i];
+            }
+            return Arrays.copyOf(docs, unique);
+        }
+    }
+
+    /**
+     * Picks the word of the query which narrows the search down the most, and returns the documents which could
+     * match based on that word alone. Returns {@code null} if the query has no words.
+     */
+    private Candidates findCandidates(String query) {
+        List<Token> words = tokenize(query);
+        if (words.isEmpty()) return null;
+
+        Candidates best = null;
+        Token partWord = null;
+        for (Token word : words) {
+            boolean startsAtTerm = word.start() > 0;
+            boolean endsAtTerm = word.end() < query.length();
+
+            Candidates candidates;
+            if (startsAtTerm && endsAtTerm) {
+                Integer number = termNumbersByTerm.get(word.term());
+                candidates = union(number == null ? List.of() : List.of(number));
+            } else if (startsAtTerm) {
+                candidates = union(termNumbers.subMap(word.term(), true, word.term() + Character.MAX_VALUE, false)
+                        .values());
+            } else {
+                /* Could be anywhere in a term. Only worth looking for if there's nothing better (see below). */
+                partWord = word;
+                continue;
+            }
+            if (best == null || candidates.size() < best.size()) best = candidates;
+        }
+
+        if (best == null) {
+            best = union(termsContaining(partWord.term(), partWord.end() < query.length()));
+        }
+        return best;
+    }
+
+    /**
+     * Finds the numbers of the terms which contain (or, if {@code atEnd} is true, end with) the given text.
+     */
+    private List<Integer> termsContaining(String part, boolean atEnd) {
+        List<Integer> numbers = new ArrayList<>();
+        if (part.length() < 3) {
+            /* Too short to have a trigram. Such short words are in a large share of terms anyway. */
+            for (int number = 0; number < terms.size(); number++) {
+                String term = terms.get(number);
+                if (atEnd ? term.endsWith(part) : term.contains(part)) numbers.add(number);
+            }
+            return numbers;
+        }
+
+        /* Intersect the trigrams' lists, starting from the shortest, then check each term which is in all of them. */
+        List<Postings> lists = new ArrayList<>();
+        for (int i = 0; i + 3 <= part.length(); i++) {
+            Postings list = termsByTrigram.get(part.substring(i, i + 3));
+            if (list == null) return numbers;
+            lists.add(list);
+        }
+        lists.sort(Comparator.comparingInt(list -> list.size));
+        Postings shortest = lists.get(0);
+        for (int i = 0; i < shortest.size; i++) {
+            int number = shortest.docs[i];
+            if (containsAll(lists, number)) {
+                String term = terms.get(number);
+                if (atEnd ? term.endsWith(part) : term.contains(part)) numbers.add(number);
+            }
+        }
+        return numbers;
+    }
+
+    private static boolean containsAll(List<Postings> lists, int number) {
+        for (int i = 1; i < lists.size(); i++) {
+            if (!lists.get(i).contains(number)) return false;
+        }
+        return true;
+    }
+
+    /**
+     * Returns the documents containing any of the given terms.
+     */
+    private Candidates union(Collection<Integer> termNumbers) {
+        List<Postings> lists = new ArrayList<>(termNumbers.size());
+        int size = 0;
+        for (int number : termNumbers) {
+            Postings list = postings.get(number);
+            lists.add(list);
+            size += list.size;
+        }
+        return new Candidates(lists, size);
+    }
+
+    private void addIfMatches(List<Match> matches, int doc, String query) {
+        String text = texts.get(doc);
+        int position = text.indexOf(query);
+        if (position < 0) return;
+
+        int end = position + query.length();
+        boolean startsAtTerm = position == 0 || !isTermChar(text.charAt(position - 1))
+                || !isTermChar(query.charAt(0));
+        boolean endsAtTerm = end == text.length() || !isTermChar(text.charAt(end))
+                || !isTermChar(query.charAt(query.length() - 1));
+        int rank = startsAtTerm ? (endsAtTerm ? 0 : 1) : 2;
+        matches.add(new Match(doc, rank, position));
+    }
+
+    /**
+     * A joke which matched a search. Lower ranks are better.
+     */
+    private record Match(int doc, int rank, int position) {
+    }
+
+    /**
+     * A growable list of document (or term) numbers, in increasing order. This stores plain {@code int}s rather than
+     * boxed {@code Integer}s, since there is one entry for every term of every joke.
+     */
+    private static class Postings {
+        private int[] docs = new int[2];
+        private int size = 0;
+
+        void add(int doc) {
+            /* Documents are added in order, so a repeated term in the same joke is always at the end. */
+            if (size > 0 && docs[size - 1] == doc) return;
+            if (size == docs.length) docs = Arrays.copyOf(docs, size * 2);
+            docs[size++] = doc;
+        }
+
+        boolean contains(int doc) {
+            return Arrays.binarySearch(docs, 0, size, doc) >= 0;
+        }
+
+        int[] toArray() {
+            return Arrays.copyOf(docs, size);
+        }
+    }
+}
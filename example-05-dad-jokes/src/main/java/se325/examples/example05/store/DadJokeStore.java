@@ -0,0 +1,46 @@
+package se325.examples.example05.store;
+
+import se325.examples.example05.model.DadJoke;
+
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Somewhere to keep dad jokes. Every method may be called by many request threads at once.
+ */
+public interface DadJokeStore {
+
+    /**
+     * Adds a joke to the store, giving it the next id (which is set on the joke). Ids start at 1, and each joke's id is
+     * greater than those of every joke added before it.
+     *
+     * @return the joke.
+     */
+    DadJoke add(DadJoke joke);
+
+    /**
+     * Finds the joke with the given id.
+     */
+    Optional<DadJoke> findById(long id);
+
+    /**
+     * Picks a joke at random, or returns an empty {@link Optional} if there are no jokes.
+     */
+    Optional<DadJoke> findRandom();
+
+    /**
+     * Returns every joke in the store, in the order they were added. This is a snapshot: jokes added later won't
+     * appear in it.
+     */
+    List<DadJoke> findAll();
+
+    /**
+     * Returns up to {@code limit} jokes with ids greater than {@code afterId}, in the order they were added. This is
+     * used to go through every joke a page at a time: start with an {@code afterId} of 0, then use the id of the last
+     * joke on each page as the {@code afterId} of the next. Unlike numbered pages, this never skips or repeats a joke
+     * when jokes are added in the meantime.
+     */
+    List<DadJoke> findAfter(long afterId, int limit);
+
+    int size();
+}
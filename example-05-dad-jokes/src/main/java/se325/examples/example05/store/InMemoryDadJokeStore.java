@@ -0,0 +1,135 @@
+package se325.examples.example05.store;
+
+import se325.examples.example05.model.DadJoke;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * A {@link DadJokeStore} which keeps its jokes in memory, and lets any number of threads read them without locking.
+ * <p>
+ * The jokes are kept twice: in a {@link ConcurrentHashMap} by id, so that {@link #findById(long)} takes constant time
+ * rather than searching every joke, and in an array in the order they were added, so that {@link #findRandom()} can
+ * simply pick a random position.
+ * <p>
+ * The array is only ever appended to. Adding a joke writes it to the first unused position, and only then increases
+ * the (volatile) {@code size}, so a reader which sees the new size is guaranteed to also see the new joke. Positions
+ * below {@code size} never change after that - when the array is full, the jokes are copied into a bigger one, and the
+ * old array is left alone. So a reader which reads {@code size} and then the array can use the first {@code size}
+ * jokes without any locking, and {@link #findAll()} can return a view of them without copying anything. Only adding
+ * jokes needs a lock, so that two threads don't both try to fill the same position.
+ */
+public class InMemoryDadJokeStore implements DadJokeStore {
+
+    private final Map<Long, DadJoke> byId = new ConcurrentHashMap<>();
+
+    /** Every joke, in the order they were added. Only the first {@link #size} positions are in use. */
+    private volatile DadJoke[] jokes = new DadJoke[16];
+
+    private volatile int size = 0;
+
+    /** The id of the last joke added. Guarded by {@code this}. */
+    private long lastId = 0;
+
+    @Override
+    public synchronized DadJoke add(DadJoke joke) {
+        joke.setId(lastId + 1);
+        persist(joke);
+        lastId++;
+        append(joke);
+        return joke;
+    }
+
+    /**
+     * Called by {@link #add(DadJoke)} once the joke has been given its id, but before anyone can see it. Subclasses
+     * can override this to save the joke somewhere - if this throws an exception, the joke isn't added. The default
+     * does nothing.
+     */
+    protected void persist(DadJoke joke) {
+    }
+
+    /**
+     * Adds a joke which already has an id (e.g. one loaded from a file), without calling {@link #persist(DadJoke)}.
+     * Later jokes are given ids after this one.
+     *
+     * @throws IllegalArgumentException if the joke's id isn't greater than that of every joke already in the store
+     */
+    protected synchronized void restore(DadJoke joke) {
+        if (joke.getId() == null || joke.getId() <= lastId) {
+            throw new IllegalArgumentException("Joke id " + joke.getId() + " isn't greater than " + lastId);
+        }
+        lastId = joke.getId();
+        append(joke);
+    }
+
+    /**
+     * The id of the last joke added, or 0 if there are none.
+     */
+    protected synchronized long getLastId() {
+        return lastId;
+    }
+
+    private void append(DadJoke joke) {
+        int n = size;
+        DadJoke[] array = jokes;
+        if (n == array.length) {
+            array = Arrays.copyOf(array, n * 2);
+            jokes = array;
+        }
+        array[n] = joke;
+        byId.put(joke.getId(), joke);
+
+        /* Publish the new joke. This must come last. */
+        size = n + 1;
+    }
+
+    @Override
+    public Optional<DadJoke> findById(long id) {
+        return Optional.ofNullable(byId.get(id));
+    }
+
+    @Override
+    public Optional<DadJoke> findRandom() {
+        int n = size;
+        if (n == 0) return Optional.empty();
+        return Optional.of(jokes[ThreadLocalRandom.current().nextInt(n)]);
+    }
+
+    @Override
+    public List<DadJoke> findAll() {
+        int n = size;
+        return Collections.unmodifiableList(Arrays.asList(jokes).subList(0, n));
+    }
+
+    /**
+     * Since jokes are added in order of id, this can binary search for the first joke on the page.
+     */
+    @Override
+    public List<DadJoke> findAfter(long afterId, int limit) {
+        int n = size;
+        DadJoke[] array = jokes;
+
+        int low = 0;
+        int high = n;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (array[mid].getId() <= afterId) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        int end = (int) Math.min(n, (long) low + limit);
+        return Collections.unmodifiableList(Arrays.asList(array).subList(low, end));
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+}
@@ -0,0 +1,394 @@
+package se325.examples.example05.store;
+
+import se325.examples.example05.model.DadJoke;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.StreamCorruptedException;
+import java.io.UncheckedIOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+import java.util.zip.CRC32C;
+
+/**
+ * A {@link DadJokeStore} which also saves its jokes to a directory, so that they survive the server being restarted.
+ * The jokes are still all kept in memory (see {@link InMemoryDadJokeStore}), so reading them is just as fast - only
+ * adding a joke does any extra work.
+ * <p>
+ * The directory contains:
+ * <ul>
+ *     <li>A series of <em>log segments</em> ({@code jokes-<generation>.log}). Each new joke is appended to the end of
+ *     the current segment, which is a memory-mapped file: appending just copies the joke into memory, and the operating
+ *     system writes it to disk in the background. Even if the server crashes straight afterwards, the operating system
+ *     still has the data, and will write it out. (If the whole machine crashes, the last few jokes may be lost - the
+ *     segment is only forced to disk when it's finished.) Each record has a checksum, so a record which was only partly
+ *     written can be recognised and ignored.</li>
+ *     <li>A <em>snapshot</em> ({@code jokes.snapshot}), containing every joke from the segments before a certain
+ *     generation.</li>
+ * </ul>
+ * When the current segment is full, a new one is started, and the snapshot is <em>compacted</em>: a new snapshot
+ * containing every joke is written on a background thread, and the segments it covers are then deleted. The new
+ * snapshot is written to a temporary file, which only replaces the old one once it is complete, and segments are only
+ * deleted after that, so a crash at any point loses nothing. Since compaction works from a snapshot of the in-memory
+ * jokes (see {@link #findAll()}), jokes can still be read and added while it runs.
+ * <p>
+ * At startup, the snapshot is loaded, and then the segments after it are replayed, so the next joke's id carries on
+ * from the last one. Both are read sequentially in large blocks, so millions of jokes can be loaded in a second or two.
+ * <pre>
+ * segment  := record*  (then zeroes, up to the segment size)
+ * record   := length:int  crc:int  id:long  text:byte[length - 8]   (crc is the CRC-32C of id and text)
+ * snapshot := MAGIC:int  VERSION:int  nextGeneration:long  count:int  (id:long  textLength:int  text:byte[textLength])*
+ * </pre>
+ * All text is UTF-8.
+ */
+public class PersistentDadJokeStore extends InMemoryDadJokeStore implements Closeable {
+
+    public static final long DEFAULT_SEGMENT_SIZE = 64L * 1024 * 1024;
+
+    /** The longest joke which can be stored, in UTF-8 bytes. */
+    public static final int MAX_TEXT_BYTES = 64 * 1024;
+
+    static final String SNAPSHOT_FILE = "jokes.snapshot";
+    private static final String SEGMENT_PREFIX = "jokes-";
+    private static final String SEGMENT_SUFFIX = ".log";
+
+    private static final int SNAPSHOT_MAGIC = 0x444A4B53; // "DJKS"
+    private static final int SNAPSHOT_VERSION = 1;
+
+    /** The length, checksum and id at the start of each record. */
+    private static final int RECORD_HEADER_BYTES = 4 + 4 + 8;
+
+    private static final System.Logger LOGGER = System.getLogger(PersistentDadJokeStore.class.getName());
+
+    private final Path directory;
+    private final long segmentSize;
+
+    /** Runs compactions one at a time, in the background. */
+    private final ExecutorService compactor = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "dad-joke-compactor");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    /** The segment new jokes are appended to. Guarded by {@code this}, as are the fields below. */
+    private Segment segment;
+    private long generation;
+    private boolean closed = false;
+
+    private PersistentDadJokeStore(Path directory, long segmentSize) {
+        this.directory = directory;
+        this.segmentSize = segmentSize;
+    }
+
+    /**
+     * Opens the store in the given directory (creating it if necessary), loading any jokes which were saved there.
+     *
+     * @param segmentSize the size of each log segment. The bigger this is, the less often the snapshot is compacted.
+     */
+    public static PersistentDadJokeStore open(Path directory, long segmentSize) throws IOException {
+        if (segmentSize < RECORD_HEADER_BYTES + MAX_TEXT_BYTES || segmentSize > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("Segment size must be between " + (RECORD_HEADER_BYTES + MAX_TEXT_BYTES)
+                    + " and " + Integer.MAX_VALUE + " bytes");
+        }
+        Files.createDirectories(directory);
+        PersistentDadJokeStore store = new PersistentDadJokeStore(directory, segmentSize);
+        store.load();
+        return store;
+    }
+
+    public static PersistentDadJokeStore open(Path directory) throws IOException {
+        return open(directory, DEFAULT_SEGMENT_SIZE);
+    }
+
+    private synchronized void load() throws IOException {
+        long start = System.nanoTime();
+
+        long firstGeneration = 0;
+        Path snapshot = directory.resolve(SNAPSHOT_FILE);
+        if (Files.exists(snapshot)) {
+            firstGeneration = readSnapshot(snapshot);
+        }
+
+        boolean replayed = false;
+        generation = firstGeneration;
+        for (long g : segmentGenerations()) {
+            if (g < firstGeneration) {
+                /* Already in the snapshot. The server must have stopped before it could delete this. */
+                Files.deleteIfExists(segmentPath(g));
+            } else if (replaySegment(segmentPath(g))) {
+                replayed = true;
+                generation = Math.max(generation, g + 1);
+            } else if (!deleteEmptySegment(segmentPath(g))) {
+                generation = Math.max(generation, g + 1);
+            }
+        }
+
+        /* Always start a new segment, rather than appending after whatever was at the end of the last one. Empty
+           segments have been deleted above, so restarting without adding any jokes doesn't leave a new one behind. */
+        segment = Segment.create(segmentPath(generation), segmentSize);
+
+        LOGGER.log(System.Logger.Level.INFO, "Loaded {0} dad jokes from {1} in {2} ms", size(), directory,
+                (System.nanoTime() - start) / 1_000_000);
+
+        /* Fold the replayed segments into the snapshot, so that they don't need replaying next time. */
+        if (replayed) {
+            long nextGeneration = generation;
+            compactor.execute(() -> compact(nextGeneration));
+        }
+    }
+
+    @Override
+    protected void persist(DadJoke joke) {
+        if (closed) throw new IllegalStateException("Store is closed");
+
+        byte[] text = joke.getText().getBytes(StandardCharsets.UTF_8);
+        if (text.length > MAX_TEXT_BYTES) {
+            throw new IllegalArgumentException("Joke is longer than " + MAX_TEXT_BYTES + " bytes");
+        }
+        try {
+            if (!segment.hasRoomFor(text.length)) {
+                startNewSegment();
+            }
+            segment.append(joke.getId(), text);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Finishes the current segment, and starts a new one. Every joke in the earlier segments is now in memory, so a
+     * compaction is started to move them into the snapshot.
+     */
+    private void startNewSegment() throws IOException {
+        segment.close();
+        generation++;
+        segment = Segment.create(segmentPath(generation), segmentSize);
+
+        long nextGeneration = generation;
+        compactor.execute(() -> compact(nextGeneration));
+    }
+
+    /**
+     * Writes every joke currently in memory to a new snapshot, and deletes the segments before the given generation,
+     * whose jokes are all in the new snapshot. Some jokes from later segments may be in the snapshot too - when
+     * replaying, jokes whose ids are already in the snapshot are skipped.
+     */
+    private void compact(long nextGeneration) {
+        try {
+            List<DadJoke> jokes = findAll();
+            Path temp = directory.resolve(SNAPSHOT_FILE + ".tmp");
+            try (FileChannel channel = FileChannel.open(temp, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                    StandardOpenOption.TRUNCATE_EXISTING)) {
+                DataOutputStream out = new DataOutputStream(
+                        new BufferedOutputStream(Channels.newOutputStream(channel), 1 << 16));
+                out.writeInt(SNAPSHOT_MAGIC);
+                out.writeInt(SNAPSHOT_VERSION);
+                out.writeLong(nextGeneration);
+                out.writeInt(jokes.size());
+                for (DadJoke joke : jokes) {
+                    byte[] text = joke.getText().getBytes(StandardCharsets.UTF_8);
+                    out.writeLong(joke.getId());
+                    out.writeInt(text.length);
+                    out.write(text);
+                }
+                out.flush();
+                channel.force(true);
+            }
+            Files.move(temp, directory.resolve(SNAPSHOT_FILE), StandardCopyOption.ATOMIC_MOVE,
+                    StandardCopyOption.REPLACE_EXISTING);
+
+            for (long g : segmentGenerations()) {
+                if (g < nextGeneration) Files.deleteIfExists(segmentPath(g));
+            }
+        } catch (IOException e) {
+            /* Nothing is lost: the old snapshot and segments are still there, and will be compacted next time. */
+            LOGGER.log(System.Logger.Level.WARNING, "Couldn't compact dad jokes in " + directory, e);
+        }
+    }
+
+    /**
+     * Loads the jokes from a snapshot, returning the generation of the first segment which isn't in it.
+     */
+    private long readSnapshot(Path snapshot) throws IOException {
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(snapshot), 1 << 16))) {
+            if (in.readInt() != SNAPSHOT_MAGIC) throw new StreamCorruptedException(snapshot + " isn't a snapshot");
+            int version = in.readInt();
+            if (version != SNAPSHOT_VERSION) {
+                throw new StreamCorruptedException("Unsupported snapshot version: " + version);
+            }
+            long nextGeneration = in.readLong();
+            int count = in.readInt();
+            for (int i = 0; i < count; i++) {
+                long id = in.readLong();
+                int length = in.readInt();
+                if (length < 0 || length > MAX_TEXT_BYTES) {
+                    throw new StreamCorruptedException("Invalid joke length in snapshot: " + length);
+                }
+                byte[] text = new byte[length];
+                in.readFully(text);
+                restore(new DadJoke(id, new String(text, StandardCharsets.UTF_8)));
+            }
+            return nextGeneration;
+        }
+    }
+
+    /**
+     * Loads the jokes from a segment which aren't already in memory. Stops at the end of the segment, or at the first
+     * record which is incomplete or corrupt.
+     *
+     * @return whether the segment contained any jokes.
+     */
+    private boolean replaySegment(Path path) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            long size = Math.min(channel.size(), Integer.MAX_VALUE);
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, size);
+            CRC32C crc = new CRC32C();
+            boolean any = false;
+
+            while (buffer.remaining() >= RECORD_HEADER_BYTES) {
+                int length = buffer.getInt();
+                if (length < 8 || length - 8 > MAX_TEXT_BYTES || length + 4 > buffer.remaining()) {
+                    break; // The end of the segment (a length of 0), or a partly written record
+                }
+                int expectedCrc = buffer.getInt();
+                int payloadStart = buffer.position();
+                long id = buffer.getLong();
+                byte[] text = new byte[length - 8];
+                buffer.get(text);
+
+                crc.reset();
+                crc.update(buffer.duplicate().position(payloadStart).limit(payloadStart + length));
+                if ((int) crc.getValue() != expectedCrc) {
+                    LOGGER.log(System.Logger.Level.WARNING, "Ignoring corrupt record at end of {0}", path);
+                    break;
+                }
+
+                any = true;
+                if (id > getLastId()) {
+                    restore(new DadJoke(id, new String(text, StandardCharsets.UTF_8)));
+                }
+            }
+            return any;
+        }
+    }
+
+    /**
+     * Deletes a segment which has no jokes in it (e.g. because the server was restarted without any being added).
+     *
+     * @return whether it was deleted. If it wasn't, it's harmless, and will be tried again next time.
+     */
+    private boolean deleteEmptySegment(Path path) {
+        try {
+            Files.deleteIfExists(path);
+            return true;
+        } catch (IOException e) {
+            LOGGER.log(System.Logger.Level.WARNING, "Couldn't delete empty segment " + path, e);
+            return false;
+        }
+    }
+
+    private List<Long> segmentGenerations() throws IOException {
+        try (Stream<Path> files = Files.list(directory)) {
+            List<Long> generations = new ArrayList<>();
+            for (Path file : files.toList()) {
+                String name = file.getFileName().toString();
+                if (name.startsWith(SEGMENT_PREFIX) && name.endsWith(SEGMENT_SUFFIX)) {
+                    try {
+                        generations.add(Long.parseLong(
+                                name.substring(SEGMENT_PREFIX.length(), name.length() - SEGMENT_SUFFIX.length())));
+                    } catch (NumberFormatException e) {
+                        // Not one of ours
+                    }
+                }
+            }
+            generations.sort(null);
+            return generations;
+        }
+    }
+
+    private Path segmentPath(long generation) {
+        return directory.resolve(SEGMENT_PREFIX + generation + SEGMENT_SUFFIX);
+    }
+
+    /**
+     * Waits for any compaction to finish, then forces the current segment to disk. No more jokes can be added.
+     */
+    @Override
+    public void close() throws IOException {
+        compactor.shutdown();
+        try {
+            compactor.awaitTermination(1, TimeUnit.MINUTES);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        synchronized (this) {
+            if (closed) return;
+            closed = true;
+            segment.close();
+        }
+    }
+
+    /**
+     * A log segment, being appended to.
+     */
+    private static class Segment implements Closeable {
+        private final FileChannel channel;
+        private final MappedByteBuffer buffer;
+        private final CRC32C crc = new CRC32C();
+
+        private Segment(FileChannel channel, MappedByteBuffer buffer) {
+            this.channel = channel;
+            this.buffer = buffer;
+        }
+
+        /**
+         * Creates a new segment file. Mapping it makes it {@code size} bytes long, filled with zeroes (although most
+         * file systems won't actually use any disk space for the zeroes until they're overwritten).
+         */
+        static Segment create(Path path, long size) throws IOException {
+            FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE_NEW, StandardOpenOption.READ,
+                    StandardOpenOption.WRITE);
+            return new Segment(channel, channel.map(FileChannel.MapMode.READ_WRITE, 0, size));
+        }
+
+        boolean hasRoomFor(int textLength) {
+            return buffer.remaining() >= RECORD_HEADER_BYTES + textLength;
+        }
+
+        void append(long id, byte[] text) {
+            int start = buffer.position();
+            buffer.position(start + 8); // Come back for the length and checksum
+            buffer.putLong(id);
+            buffer.put(text);
+
+            crc.reset();
+            crc.update(buffer.duplicate().position(start + 8).limit(buffer.position()));
+
+            /* Write the length last, so that a record is never seen until the rest of it is there. */
+            buffer.putInt(start + 4, (int) crc.getValue());
+            buffer.putInt(start, 8 + text.length);
+        }
+
+        @Override
+        public void close() throws IOException {
+            buffer.force();
+            channel.close();
+        }
+    }
+}
@@ -5,13 +5,18 @@ import org.springframework.test.annotation.DirtiesContext;
 import org.springframework.test.web.servlet.request.MockMvcRequestBuilders;
 import org.springframework.http.MediaType;
 
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import se325.examples.example05.store.PersistentDadJokeStore;
 
 @SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.MOCK)
 @AutoConfigureMockMvc
@@ -70,6 +75,124 @@ public class DadJokesControllerIT {
                 .andExpect(jsonPath("$.length()").value(4));
     }
 
+    /**
+     * Tests that searching for dad jokes returns whole-word matches before jokes which only contain the search text as
+     * part of a word
+     */
+    @Test
+    public void testSearchDadJokesRanking() throws Exception {
+        String searchText = "stand";
+
+        mvc.perform(MockMvcRequestBuilders
+                        .get("/dad-jokes")
+                        .param("search", searchText)
+                        .accept(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()").value(2))
+                .andExpect(jsonPath("$[0].text").value("Why couldn’t the bicycle stand up by itself? It was two tired."))
+                .andExpect(jsonPath("$[1].text").value("Why did the scarecrow win an award? Because he was outstanding in his field."));
+    }
+
+    /**
+     * Tests that a newly added dad joke can be found by searching
+     */
+    @Test
+    public void testSearchFindsAddedDadJoke() throws Exception {
+        String newJoke = "{\"text\":\"Why do seagulls fly over the sea? Because if they flew over the bay they would be bagels.\"}";
+
+        mvc.perform(MockMvcRequestBuilders
+                        .post("/dad-jokes")
+                        .content(newJoke)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .accept(MediaType.APPLICATION_JSON))
+                .andExpect(status().isCreated());
+
+        mvc.perform(MockMvcRequestBuilders
+                        .get("/dad-jokes")
+                        .param("search", "BAGEL")
+                        .accept(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()").value(1))
+                .andExpect(jsonPath("$[0].id").value(11));
+    }
+
+    /**
+     * Tests that all dad jokes can be retrieved a page at a time, by following each page's cursor
+     */
+    @Test
+    public void testGetDadJokePages() throws Exception {
+        mvc.perform(MockMvcRequestBuilders
+                        .get("/dad-jokes")
+                        .param("limit", "4")
+                        .accept(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.jokes.length()").value(4))
+                .andExpect(jsonPath("$.jokes[0].id").value(1))
+                .andExpect(jsonPath("$.nextCursor").value(4));
+
+        mvc.perform(MockMvcRequestBuilders
+                        .get("/dad-jokes")
+                        .param("limit", "4")
+                        .param("after", "4")
+                        .accept(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.jokes.length()").value(4))
+                .andExpect(jsonPath("$.jokes[0].id").value(5))
+                .andExpect(jsonPath("$.nextCursor").value(8));
+
+        mvc.perform(MockMvcRequestBuilders
+                        .get("/dad-jokes")
+                        .param("limit", "4")
+                        .param("after", "8")
+                        .accept(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.jokes.length()").value(2))
+                .andExpect(jsonPath("$.jokes[1].text").value("I would tell you a construction joke, but I’m still working on it."))
+                .andExpect(jsonPath("$.nextCursor").isEmpty());
+    }
+
+    /**
+     * Tests that asking for a page which is too large (or too small) results in an HTTP 400 error
+     */
+    @Test
+    public void testGetDadJokePageWithInvalidLimit() throws Exception {
+        mvc.perform(MockMvcRequestBuilders
+                        .get("/dad-jokes")
+                        .param("limit", "0")
+                        .accept(MediaType.APPLICATION_JSON))
+                .andExpect(status().isBadRequest());
+
+        mvc.perform(MockMvcRequestBuilders
+                        .get("/dad-jokes")
+                        .param("limit", "1001")
+                        .accept(MediaType.APPLICATION_JSON))
+                .andExpect(status().isBadRequest());
+    }
+
+    /**
+     * Tests that dad jokes can be streamed as newline-delimited JSON. Streamed responses are written asynchronously, so
+     * MockMvc needs to be told to wait for the response to be finished.
+     */
+    @Test
+    public void testStreamDadJokes() throws Exception {
+        MvcResult result = mvc.perform(MockMvcRequestBuilders
+                        .get("/dad-jokes")
+                        .param("search", "what do you call")
+                        .accept("application/x-ndjson"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        mvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType("application/x-ndjson"))
+                .andExpect(content().string("""
+                        {"id":2,"text":"What do you call cheese that isn't yours? Nacho cheese."}
+                        {"id":4,"text":"What do you call fake spaghetti? An impasta."}
+                        {"id":5,"text":"What do you call a factory that makes okay products? A satisfactory."}
+                        {"id":9,"text":"What do you call a fish with no eyes? Fsh."}
+                        """));
+    }
+
     /**
      * Tests that the controller returns correct dad joke by id
      */
@@ -138,4 +261,16 @@ public class DadJokesControllerIT {
                         .accept(MediaType.APPLICATION_JSON))
                 .andExpect(status().isBadRequest());
     }
+
+    @Test
+    public void testAddJokeWithTooLongText() throws Exception {
+        String longJoke = "{\"text\":\"" + "ha".repeat(PersistentDadJokeStore.MAX_TEXT_BYTES) + "\"}";
+
+        mvc.perform(MockMvcRequestBuilders
+                        .post("/dad-jokes")
+                        .content(longJoke)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .accept(MediaType.APPLICATION_JSON))
+                .andExpect(status().isBadRequest());
+    }
 }
@@ -0,0 +1,123 @@
+package se325.examples.example05.search;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import se325.examples.example05.model.DadJoke;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+
+public class DadJokeIndexUnitTest {
+
+    private final List<DadJoke> jokes = List.of(
+            new DadJoke(1L, "Why don't skeletons fight each other? They don't have the guts."),
+            new DadJoke(2L, "What do you call cheese that isn't yours? Nacho cheese."),
+            new DadJoke(3L, "What do you call fake spaghetti? An impasta."),
+            new DadJoke(4L, "Why don’t eggs tell jokes? They’d crack each other up."),
+            new DadJoke(5L, "I'm reading a book about anti-gravity. It's impossible to put down."),
+            new DadJoke(6L, "The skeleton key opens everything."));
+
+    private final DadJokeIndex index = new DadJokeIndex(jokes);
+
+    @Test
+    public void testSearchWholeWord() {
+        assertEquals(List.of(1L), ids(index.search("skeletons")));
+    }
+
+    @Test
+    public void testSearchIgnoresCase() {
+        assertEquals(List.of(2L, 3L), ids(index.search("WHAT do You CALL")));
+    }
+
+    @Test
+    public void testSearchPrefix() {
+        assertEquals(List.of(6L, 1L), ids(index.search("skelet")));
+    }
+
+    @Test
+    public void testWholeWordMatchesRankFirst() {
+        /* "skeleton" is a whole word in joke 6, but only the start of one in joke 1. */
+        assertEquals(List.of(6L, 1L), ids(index.search("skeleton")));
+        assertEquals(List.of(1L), ids(index.search("skeletons")));
+    }
+
+    @Test
+    public void testSearchSubstring() {
+        assertEquals(List.of(6L, 1L), ids(index.search("eleto")));
+        assertEquals(List.of(2L), ids(index.search("cho chee")));
+        assertEquals(List.of(3L, 5L), ids(index.search("mp")));
+    }
+
+    @Test
+    public void testSearchPunctuation() {
+        /* No words, so every joke is checked. The earliest question marks come first. */
+        assertEquals(List.of(4L, 3L, 1L, 2L), ids(index.search("? ")));
+        assertEquals(List.of(5L), ids(index.search("anti-grav")));
+    }
+
+    @Test
+    public void testSearchTreatsCurlyApostrophesAsStraight() {
+        assertEquals(List.of(1L, 4L), ids(index.search("don't")));
+    }
+
+    @Test
+    public void testSearchNoMatches() {
+        assertEquals(List.of(), index.search("penguin"));
+        assertEquals(List.of(), index.search("skeletons fight the"));
+    }
+
+    @Test
+    public void testAddedJokesCanBeFound() {
+        index.add(new DadJoke(7L, "How does a penguin build its house? Igloos it together."));
+        assertEquals(List.of(7L), ids(index.search("penguin")));
+        assertEquals(7, index.size());
+    }
+
+    /**
+     * Checks that the index finds exactly the same jokes as checking each joke's text, for lots of random searches.
+     */
+    @Test
+    public void testSearchMatchesFullScan() {
+        Random random = new Random(325);
+        String[] words = {"what", "do", "you", "call", "a", "fish", "with", "no", "eyes", "fsh", "why", "did", "the",
+                "scarecrow", "win", "award", "because", "he", "was", "outstanding", "in", "his", "field"};
+        String[] separators = {" ", " ", " ", ", ", "? ", "-"};
+
+        List<DadJoke> corpus = new ArrayList<>();
+        DadJokeIndex large = new DadJokeIndex();
+        for (long id = 1; id <= 2000; id++) {
+            StringBuilder text = new StringBuilder();
+            int length = 3 + random.nextInt(10);
+            for (int i = 0; i < length; i++) {
+                if (i > 0) text.append(separators[random.nextInt(separators.length)]);
+                text.append(words[random.nextInt(words.length)]);
+            }
+            DadJoke joke = new DadJoke(id, text.toString());
+            corpus.add(joke);
+            large.add(joke);
+        }
+
+        for (int i = 0; i < 500; i++) {
+            String text = corpus.get(random.nextInt(corpus.size())).getText();
+            int start = random.nextInt(text.length());
+            String searchText = text.substring(start, Math.min(text.length(), start + 1 + random.nextInt(12)));
+
+            List<Long> expected = corpus.stream()
+                    .filter(joke -> joke.getText().toLowerCase().contains(searchText.toLowerCase()))
+                    .map(DadJoke::getId)
+                    .toList();
+            List<Long> actual = ids(large.search(searchText));
+            assertEquals(expected.size(), actual.size(), "Searching for \"" + searchText + "\"");
+            assertTrue(new HashSet<>(expected).equals(new HashSet<>(actual)), "Searching for \"" + searchText + "\"");
+        }
+    }
+
+    private static List<Long> ids(List<DadJoke> jokes) {
+        return jokes.stream().map(DadJoke::getId).toList();
+    }
+}
@@ -0,0 +1,159 @@
+package se325.examples.example05.store;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import se325.examples.example05.model.DadJoke;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+public class InMemoryDadJokeStoreUnitTest {
+
+    private final DadJokeStore store = new InMemoryDadJokeStore();
+
+    @Test
+    public void testAddAssignsIncreasingIds() {
+        DadJoke first = store.add(new DadJoke("What do you call fake spaghetti? An impasta."));
+        DadJoke second = store.add(new DadJoke("What do you call a fish with no eyes? Fsh."));
+
+        assertEquals(1L, first.getId());
+        assertEquals(2L, second.getId());
+        assertEquals(2, store.size());
+        assertEquals(List.of(first, second), store.findAll());
+    }
+
+    @Test
+    public void testFindById() {
+        for (int i = 0; i < 100; i++) {
+            store.add(new DadJoke("Joke " + i));
+        }
+
+        assertEquals("Joke 41", store.findById(42).orElseThrow().getText());
+        assertFalse(store.findById(0).isPresent());
+        assertFalse(store.findById(101).isPresent());
+    }
+
+    @Test
+    public void testFindRandom() {
+        assertFalse(store.findRandom().isPresent());
+
+        DadJoke joke = store.add(new DadJoke("Why couldn't the bicycle stand up by itself? It was two tired."));
+        assertSame(joke, store.findRandom().orElseThrow());
+    }
+
+    @Test
+    public void testFindAllIsASnapshot() {
+        store.add(new DadJoke("Joke 1"));
+        List<DadJoke> all = store.findAll();
+        store.add(new DadJoke("Joke 2"));
+
+        assertEquals(1, all.size());
+        assertEquals(2, store.findAll().size());
+        assertThrows(UnsupportedOperationException.class, () -> all.add(new DadJoke("Joke 3")));
+    }
+
+    @Test
+    public void testFindAfter() {
+        for (int i = 1; i <= 10; i++) {
+            store.add(new DadJoke("Joke " + i));
+        }
+
+        assertEquals(List.of(1L, 2L, 3L), ids(store.findAfter(0, 3)));
+        assertEquals(List.of(4L, 5L, 6L), ids(store.findAfter(3, 3)));
+        assertEquals(List.of(10L), ids(store.findAfter(9, 3)));
+        assertEquals(List.of(), store.findAfter(10, 3));
+        assertEquals(10, store.findAfter(0, Integer.MAX_VALUE).size());
+    }
+
+    /**
+     * Adds jokes from several threads, while several other threads read them. Every joke must get a unique id, and
+     * readers must never see a joke which hasn't been completely added (e.g. a {@code null} in {@code findAll()}, or a
+     * joke which can't yet be found by its id).
+     */
+    @Test
+    public void testConcurrentAddsAndReads() throws Exception {
+        int writers = 4;
+        int readers = 4;
+        int jokesPerWriter = 20_000;
+
+        CountDownLatch start = new CountDownLatch(1);
+        AtomicBoolean writing = new AtomicBoolean(true);
+        ConcurrentLinkedQueue<Throwable> failures = new ConcurrentLinkedQueue<>();
+
+        List<Thread> writerThreads = new ArrayList<>();
+        for (int w = 0; w < writers; w++) {
+            int writer = w;
+            writerThreads.add(new Thread(() -> {
+                try {
+                    start.await();
+                    for (int i = 0; i < jokesPerWriter; i++) {
+                        store.add(new DadJoke("Writer " + writer + " joke " + i));
+                    }
+                } catch (Throwable e) {
+                    failures.add(e);
+                }
+            }));
+        }
+
+        List<Thread> readerThreads = new ArrayList<>();
+        for (int r = 0; r < readers; r++) {
+            readerThreads.add(new Thread(() -> {
+                try {
+                    start.await();
+                    while (writing.get()) {
+                        List<DadJoke> all = store.findAll();
+                        for (int i = 0; i < all.size(); i++) {
+                            DadJoke joke = all.get(i);
+                            assertNotNull(joke);
+                            assertEquals(i + 1L, joke.getId());
+                        }
+                        if (!all.isEmpty()) {
+                            DadJoke last = all.get(all.size() - 1);
+                            assertSame(last, store.findById(last.getId()).orElseThrow());
+                            Optional<DadJoke> random = store.findRandom();
+                            assertTrue(random.isPresent());
+                            assertNotNull(random.get().getText());
+                        }
+                    }
+                } catch (Throwable e) {
+                    failures.add(e);
+                }
+            }));
+        }
+
+        writerThreads.forEach(Thread::start);
+        readerThreads.forEach(Thread::start);
+        start.countDown();
+        for (Thread thread : writerThreads) {
+            thread.join();
+        }
+        writing.set(false);
+        for (Thread thread : readerThreads) {
+            thread.join();
+        }
+
+        assertTrue(failures.isEmpty(), () -> "Failures: " + failures);
+        int total = writers * jokesPerWriter;
+        assertEquals(total, store.size());
+        List<DadJoke> all = store.findAll();
+        for (int i = 0; i < total; i++) {
+            assertEquals(i + 1L, all.get(i).getId());
+            assertSame(all.get(i), store.findById(i + 1L).orElseThrow());
+        }
+    }
+
+    private static List<Long> ids(List<DadJoke> jokes) {
+        return jokes.stream().map(DadJoke::getId).toList();
+    }
+}
@@ -0,0 +1,150 @@
+package se325.examples.example05.store;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import se325.examples.example05.model.DadJoke;
+
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.stream.Stream;
+
+public class PersistentDadJokeStoreUnitTest {
+
+    /** The smallest segment size allowed, so that a few hundred jokes are enough to fill several segments. */
+    private static final long SMALL_SEGMENT_SIZE = 16 + PersistentDadJokeStore.MAX_TEXT_BYTES;
+
+    @TempDir
+    Path directory;
+
+    @Test
+    public void testJokesSurviveReopening() throws IOException {
+        try (PersistentDadJokeStore store = PersistentDadJokeStore.open(directory)) {
+            store.add(new DadJoke("What do you call fake spaghetti? An impasta."));
+            store.add(new DadJoke("I’m reading a book about anti-gravity. It’s impossible to put down!"));
+        }
+
+        try (PersistentDadJokeStore store = PersistentDadJokeStore.open(directory)) {
+            assertEquals(2, store.size());
+            assertEquals("What do you call fake spaghetti? An impasta.", store.findById(1).orElseThrow().getText());
+            assertEquals("I’m reading a book about anti-gravity. It’s impossible to put down!",
+                    store.findById(2).orElseThrow().getText());
+
+            /* Ids carry on from where they left off. */
+            assertEquals(3L, store.add(new DadJoke("Why don't eggs tell jokes? They'd crack each other up.")).getId());
+        }
+
+        try (PersistentDadJokeStore store = PersistentDadJokeStore.open(directory)) {
+            assertEquals(List.of(1L, 2L, 3L), ids(store.findAll()));
+        }
+    }
+
+    @Test
+    public void testCompaction() throws IOException {
+        int count = 2000;
+        try (PersistentDadJokeStore store = PersistentDadJokeStore.open(directory, SMALL_SEGMENT_SIZE)) {
+            for (int i = 1; i <= count; i++) {
+                store.add(new DadJoke("Joke " + i + ": " + "ha".repeat(i % 100)));
+            }
+        }
+
+        /* The full segments have been moved into the snapshot and deleted, leaving only the latest one. */
+        assertTrue(Files.exists(directory.resolve(PersistentDadJokeStore.SNAPSHOT_FILE)));
+        assertEquals(1, segments().size());
+
+        try (PersistentDadJokeStore store = PersistentDadJokeStore.open(directory, SMALL_SEGMENT_SIZE)) {
+            assertEquals(count, store.size());
+            for (int i = 1; i <= count; i++) {
+                assertEquals("Joke " + i + ": " + "ha".repeat(i % 100), store.findById(i).orElseThrow().getText());
+            }
+            assertEquals(count + 1L, store.add(new DadJoke("One more")).getId());
+        }
+    }
+
+    /**
+     * If the server stops part-way through adding a joke, the joke may only be partly written. It should be ignored,
+     * and the jokes before it should still be loaded.
+     */
+    @Test
+    public void testIgnoresCorruptRecord() throws IOException {
+        try (PersistentDadJokeStore store = PersistentDadJokeStore.open(directory)) {
+            store.add(new DadJoke("Why did the scarecrow win an award? He was outstanding in his field."));
+            store.add(new DadJoke("Why couldn't the bicycle stand up by itself? It was two tired."));
+        }
+
+        /* Overwrite the last byte of the second joke. */
+        Path segment = segments().get(0);
+        String first = "Why did the scarecrow win an award? He was outstanding in his field.";
+        String second = "Why couldn't the bicycle stand up by itself? It was two tired.";
+        try (RandomAccessFile file = new RandomAccessFile(segment.toFile(), "rw")) {
+            file.seek(16 + first.length() + 16 + second.length() - 1);
+            file.write('!');
+        }
+
+        try (PersistentDadJokeStore store = PersistentDadJokeStore.open(directory)) {
+            assertEquals(List.of(1L), ids(store.findAll()));
+            assertEquals(2L, store.add(new DadJoke("I used to hate facial hair, but then it grew on me.")).getId());
+        }
+
+        try (PersistentDadJokeStore store = PersistentDadJokeStore.open(directory)) {
+            assertEquals("I used to hate facial hair, but then it grew on me.", store.findById(2).orElseThrow().getText());
+        }
+    }
+
+    /**
+     * Each time the store is opened, it starts a new segment. Restarting without adding any jokes shouldn't leave
+     * more and more empty segments behind.
+     */
+    @Test
+    public void testRestartingDoesNotAccumulateSegments() throws IOException {
+        try (PersistentDadJokeStore store = PersistentDadJokeStore.open(directory, SMALL_SEGMENT_SIZE)) {
+            store.add(new DadJoke("Why do seagulls fly over the sea? Because if they flew over the bay, they'd be bagels."));
+        }
+        try (PersistentDadJokeStore store = PersistentDadJokeStore.open(directory, SMALL_SEGMENT_SIZE)) {
+            assertEquals(1, store.size());
+        }
+        int segmentCount = segments().size();
+
+        for (int i = 0; i < 5; i++) {
+            try (PersistentDadJokeStore store = PersistentDadJokeStore.open(directory, SMALL_SEGMENT_SIZE)) {
+                assertEquals(1, store.size());
+            }
+            assertEquals(segmentCount, segments().size());
+        }
+
+        try (PersistentDadJokeStore store = PersistentDadJokeStore.open(directory, SMALL_SEGMENT_SIZE)) {
+            assertEquals(2L, store.add(new DadJoke("I only know 25 letters of the alphabet. I don't know y.")).getId());
+        }
+        try (PersistentDadJokeStore store = PersistentDadJokeStore.open(directory, SMALL_SEGMENT_SIZE)) {
+            assertEquals(List.of(1L, 2L), ids(store.findAll()));
+        }
+    }
+
+    @Test
+    public void testRejectsLongJoke() throws IOException {
+        try (PersistentDadJokeStore store = PersistentDadJokeStore.open(directory)) {
+            String text = "a".repeat(PersistentDadJokeStore.MAX_TEXT_BYTES + 1);
+            assertThrows(IllegalArgumentException.class, () -> store.add(new DadJoke(text)));
+
+            assertEquals(0, store.size());
+            assertEquals(1L, store.add(new DadJoke("Short and sweet")).getId());
+        }
+    }
+
+    private List<Path> segments() throws IOException {
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.filter(file -> file.getFileName().toString().endsWith(".log")).toList();
+        }
+    }
+
+    private static List<Long> ids(List<DadJoke> jokes) {
+        return jokes.stream().map(DadJoke::getId).toList();
+    }
+}
@@ -0,0 +1,76 @@
+package se325.example06.jacksonsamples;
+
+import se325.example06.jacksonsamples.example01_basic.Example01Main;
+import se325.example06.jacksonsamples.example02_customproperties.Example02Main;
+import se325.example06.jacksonsamples.example03_lists.Example03Main;
+import se325.example06.jacksonsamples.example04_maps.Example04Main;
+import se325.example06.jacksonsamples.example05_customserialization.Example05Main;
+import se325.example06.jacksonsamples.example06_references.Example06Main;
+import se325.example06.jacksonsamples.example07_polymorphism.Example07Main;
+
+import java.io.ByteArrayOutputStream;
+import java.io.PrintStream;
+import java.nio.charset.StandardCharsets;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Runs each of the examples twice - once as normal, and once with Blackbird (see {@link JsonMappers}) - and checks
+ * that they print exactly the same thing, JSON included.
+ */
+public class BlackbirdCheck {
+
+    @FunctionalInterface
+    private interface Example {
+        void run() throws Exception;
+    }
+
+    public static void main(String[] args) throws Exception {
+        Map<String, Example> examples = new LinkedHashMap<>();
+        examples.put("Example01Main", () -> Example01Main.main(args));
+        examples.put("Example02Main", () -> Example02Main.main(args));
+        examples.put("Example03Main", () -> Example03Main.main(args));
+        examples.put("Example04Main", () -> Example04Main.main(args));
+        examples.put("Example05Main", () -> Example05Main.main(args));
+        examples.put("Example06Main", () -> Example06Main.main(args));
+        examples.put("Example07Main", () -> Example07Main.main(args));
+
+        boolean allSame = true;
+        for (Map.Entry<String, Example> example : examples.entrySet()) {
+            String reflection = run(example.getValue(), false);
+            String blackbird = run(example.getValue(), true);
+            boolean same = reflection.equals(blackbird);
+            allSame &= same;
+            System.out.println(example.getKey() + ": " + (same ? "same output" : "DIFFERENT output"));
+            if (!same) {
+                System.out.println("  Reflection:\n" + reflection + "  Blackbird:\n" + blackbird);
+            }
+        }
+
+        if (!allSame) {
+            System.exit(1);
+        }
+    }
+
+    /**
+     * Runs an example, with or without Blackbird, and returns everything it printed.
+     */
+    private static String run(Example example, boolean blackbird) throws Exception {
+        String previous = System.getProperty(JsonMappers.BLACKBIRD_PROPERTY);
+        PrintStream out = System.out;
+        ByteArrayOutputStream captured = new ByteArrayOutputStream();
+        System.setProperty(JsonMappers.BLACKBIRD_PROPERTY, Boolean.toString(blackbird));
+        System.setOut(new PrintStream(captured, true, StandardCharsets.UTF_8));
+        try {
+            example.run();
+        } finally {
+            System.setOut(out);
+            if (previous == null) {
+                System.clearProperty(JsonMappers.BLACKBIRD_PROPERTY);
+            } else {
+                System.setProperty(JsonMappers.BLACKBIRD_PROPERTY, previous);
+            }
+        }
+        return captured.toString(StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,131 @@
+package se325.example06.jacksonsamples;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import com.fasterxml.jackson.module.blackbird.BlackbirdModule;
+import se325.example06.jacksonsamples.example01_basic.Book;
+import se325.example06.jacksonsamples.example02_customproperties.Person;
+import se325.example06.jacksonsamples.example04_maps.PhoneBook;
+import se325.example06.jacksonsamples.example04_maps.PhoneBookEntry;
+import se325.example06.jacksonsamples.example05_customserialization.ImageModule;
+import se325.example06.jacksonsamples.example05_customserialization.Movie;
+import se325.example06.jacksonsamples.example05_customserialization.University;
+import se325.example06.jacksonsamples.example06_references.Employee;
+import se325.example06.jacksonsamples.example06_references.Manager;
+import se325.example06.jacksonsamples.example06_references.Teams;
+import se325.example06.jacksonsamples.example07_polymorphism.Animal;
+import se325.example06.jacksonsamples.example07_polymorphism.Zoo;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * A single, shared, fully configured {@link ObjectMapper}, and an {@link ObjectReader} and {@link ObjectWriter} for
+ * each of the examples' classes.
+ * <p>
+ * Creating an {@code ObjectMapper} is expensive: as well as the mapper itself, Jackson has to work out (using
+ * reflection) how to read and write each class the first time it sees it, and it caches the result in the mapper. A
+ * new mapper throws all of that away. Once it's configured, though, an {@code ObjectMapper} is thread-safe, so one is
+ * enough for the whole program.
+ * <p>
+ * Readers and writers are immutable, so they're thread-safe too. One made for a specific type looks up that type's
+ * deserializer / serializer as soon as it's created, so it skips that step each time it's used. They're all created
+ * up front, when this class is first used, so that not even the first message of each type has to wait for Jackson to
+ * work out how to read or write it.
+ * <p>
+ * Examples 01 to 07 configure their own mappers (from {@link #newMapper()}), so that you can see how each one is set
+ * up. Example 08, which is about reading and writing big documents rather than configuring Jackson, uses the shared
+ * mapper and writers instead.
+ * <p>
+ * By default, Jackson reads and writes properties using reflection. Running with
+ * {@code -Dse325.jackson.blackbird=true} registers the {@link BlackbirdModule} with every mapper created here, which
+ * generates code to call each class's constructors, getters and setters directly instead. It's faster once it's warmed
+ * up, and the JSON is exactly the same - {@link BlackbirdCheck} runs each example both ways to make sure.
+ */
+public final class JsonMappers {
+
+    /** Set this system property to {@code true} to use Blackbird. */
+    public static final String BLACKBIRD_PROPERTY = "se325.jackson.blackbird";
+
+    private static final ObjectMapper MAPPER = newMapper()
+            .registerModule(new JavaTimeModule())
+            .registerModule(new ImageModule());
+
+    /** The classes which have a reader and writer ready. */
+    private static final List<Class<?>> TYPES = List.of(
+            Book.class,
+            Person.class,
+            se325.example06.jacksonsamples.example03_lists.Pokemon.class,
+            PhoneBook.class, PhoneBookEntry.class,
+            Movie.class, University.class, se325.example06.jacksonsamples.example05_customserialization.Pokemon.class,
+            Teams.class, Employee.class, Manager.class,
+            Zoo.class, Animal.class);
+
+    private static final Map<Class<?>, ObjectReader> READERS;
+    private static final Map<Class<?>, ObjectWriter> WRITERS;
+
+    static {
+        Map<Class<?>, ObjectReader> readers = new HashMap<>();
+        Map<Class<?>, ObjectWriter> writers = new HashMap<>();
+        for (Class<?> type : TYPES) {
+            readers.put(type, MAPPER.readerFor(type));
+            writers.put(type, MAPPER.writerFor(type));
+        }
+        READERS = Map.copyOf(readers);
+        WRITERS = Map.copyOf(writers);
+    }
+
+    private JsonMappers() {
+    }
+
+    /**
+     * Creates a new mapper, with no modules registered - except Blackbird, if {@link #BLACKBIRD_PROPERTY} is set.
+     */
+    public static ObjectMapper newMapper() {
+        return newMapper(Boolean.getBoolean(BLACKBIRD_PROPERTY));
+    }
+
+    /**
+     * Creates a new mapper, with no modules registered - except Blackbird, if asked for.
+     */
+    public static ObjectMapper newMapper(boolean blackbird) {
+        ObjectMapper mapper = new ObjectMapper();
+        if (blackbird) {
+            mapper.registerModule(new BlackbirdModule());
+        }
+        return mapper;
+    }
+
+    /**
+     * The shared mapper. Don't change its configuration (e.g. by registering modules) - it's used everywhere, and
+     * may already have cached readers and writers which wouldn't see the change.
+     */
+    public static ObjectMapper mapper() {
+        return MAPPER;
+    }
+
+    /**
+     * A reader which reads JSON into instances of the given type. For one of the examples' classes, it's the one created
+     * up front. For any other class, it's a new reader each time - so if it's used often, keep hold of it, or add the
+     * class to {@link #TYPES}.
+     */
+    public static ObjectReader reader(Class<?> type) {
+        ObjectReader reader = READERS.get(type);
+        return reader != null ? reader : MAPPER.readerFor(type);
+    }
+
+    /**
+     * A writer which writes instances of the given type as JSON. As with {@link #reader(Class)}, it's only created up
+     * front for the examples' classes.
+     * <p>
+     * The writer uses the given type's serializer, even for subclasses. So if the type has subclasses with properties
+     * of their own, make sure it's annotated with {@code @JsonTypeInfo} (see example 07), or they won't be written.
+     */
+    public static ObjectWriter writer(Class<?> type) {
+        ObjectWriter writer = WRITERS.get(type);
+        return writer != null ? writer : MAPPER.writerFor(type);
+    }
+}
@@ -1,6 +1,7 @@
 package se325.example06.jacksonsamples.example01_basic;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
+import se325.example06.jacksonsamples.JsonMappers;
 
 import java.io.IOException;
 
@@ -10,7 +11,7 @@ public class Example01Main {
 
         Book book = new Book("The Neverending Story", Genre.Fantasy);
 
-        ObjectMapper mapper = new ObjectMapper();
+        ObjectMapper mapper = JsonMappers.newMapper();
 
         String json = mapper.writeValueAsString(book);
         System.out.println("Book json: " + json);
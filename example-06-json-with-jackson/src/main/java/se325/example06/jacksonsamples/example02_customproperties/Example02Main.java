@@ -1,6 +1,7 @@
 package se325.example06.jacksonsamples.example02_customproperties;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
+import se325.example06.jacksonsamples.JsonMappers;
 
 import java.io.IOException;
 
@@ -10,7 +11,7 @@ public class Example02Main {
 
         Person person = new Person("Bob", 42, "Stuff & things");
 
-        ObjectMapper mapper = new ObjectMapper();
+        ObjectMapper mapper = JsonMappers.newMapper();
 
         String json = mapper.writeValueAsString(person);
         System.out.println("Person json: " + json);
@@ -1,6 +1,7 @@
 package se325.example06.jacksonsamples.example03_lists;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
+import se325.example06.jacksonsamples.JsonMappers;
 
 import java.io.IOException;
 
@@ -15,7 +16,7 @@ public class Example03Main {
         System.out.println("Charizard types list class: " + charizard.getTypes().getClass().getName());
 
 
-        ObjectMapper mapper = new ObjectMapper();
+        ObjectMapper mapper = JsonMappers.newMapper();
 
         String json = mapper.writeValueAsString(charizard);
         System.out.println("Charizard json: " + json);
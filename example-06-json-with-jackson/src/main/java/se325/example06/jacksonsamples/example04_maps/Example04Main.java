@@ -1,6 +1,7 @@
 package se325.example06.jacksonsamples.example04_maps;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
+import se325.example06.jacksonsamples.JsonMappers;
 
 import java.io.IOException;
 
@@ -14,7 +15,7 @@ public class Example04Main {
 
         System.out.println("Phone book entries class name: " + phoneBook.getEntries().getClass().getName());
 
-        ObjectMapper mapper = new ObjectMapper();
+        ObjectMapper mapper = JsonMappers.newMapper();
 
         String phoneBookJson = mapper.writeValueAsString(phoneBook);
 
@@ -1,12 +1,15 @@
 package se325.example06.jacksonsamples.example05_customserialization;
 
 import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
 import com.fasterxml.jackson.databind.DeserializationContext;
 import com.fasterxml.jackson.databind.deser.std.StdDeserializer;
 
+import javax.imageio.ImageIO;
+import javax.imageio.stream.MemoryCacheImageInputStream;
 import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
 import java.io.IOException;
-import java.util.Base64;
 
 public class BufferedImageDeserializer extends StdDeserializer<BufferedImage> {
 
@@ -19,22 +22,24 @@ public class BufferedImageDeserializer extends StdDeserializer<BufferedImage> {
     }
 
     /**
-     * Reads in a JSON string, parses it as a Base64 string, and returns a BufferedImage
-     * representation of that string.
+     * Reads in PNG binary data (written by {@link BufferedImageSerializer}), and returns a BufferedImage
+     * representation of it.
+     * <p>
+     * {@code getBinaryValue()} works whatever format is being parsed: in JSON, it decodes the Base64 string straight
+     * from the parser's buffer (without creating a String first), and in binary formats like Smile and CBOR, it
+     * returns the raw bytes.
      *
-     * @param p         the JSON parser from which the string is read
+     * @param p         the parser from which the image is read
      * @param ctxt
      * @return a BufferedImage
      * @throws IOException
      */
     @Override
     public BufferedImage deserialize(JsonParser p, DeserializationContext ctxt) throws IOException {
-        String base64String = p.getValueAsString();
-        if (base64String == null) return null;
+        if (p.currentToken() == JsonToken.VALUE_NULL) return null;
 
-        byte[] imageBytes = Base64.getDecoder().decode(base64String);
-        try (java.io.ByteArrayInputStream bis = new java.io.ByteArrayInputStream(imageBytes)) {
-            return javax.imageio.ImageIO.read(bis);
-        }
+        byte[] imageBytes = p.getBinaryValue();
+        // As when writing, avoid ImageIO's temporary file cache
+        return ImageIO.read(new MemoryCacheImageInputStream(new ByteArrayInputStream(imageBytes)));
     }
 }
@@ -5,10 +5,13 @@ import com.fasterxml.jackson.databind.SerializerProvider;
 import com.fasterxml.jackson.databind.ser.std.StdSerializer;
 
 import javax.imageio.ImageIO;
+import javax.imageio.stream.ImageOutputStream;
+import javax.imageio.stream.MemoryCacheImageOutputStream;
 import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
 import java.io.ByteArrayOutputStream;
 import java.io.IOException;
-import java.util.Base64;
+import java.io.InputStream;
 
 public class BufferedImageSerializer extends StdSerializer<BufferedImage> {
 
@@ -21,10 +24,15 @@ public class BufferedImageSerializer extends StdSerializer<BufferedImage> {
     }
 
     /**
-     * Serializes a BufferedImage as a Base64 Sgtring
+     * Serializes a BufferedImage as PNG binary data. How that's written depends on the format being generated:
+     * in JSON, which has no binary type, it's a Base64 string, while binary formats like Smile and CBOR store the
+     * raw bytes (a third smaller than Base64).
+     * <p>
+     * Either way, the PNG is streamed straight into the generator with {@code writeBinary()}, which Base64-encodes it
+     * (if necessary) directly into its output buffer. We never make a copy of the PNG bytes, or a Base64 String.
      *
      * @param bufferedImage the image to serialize
-     * @param jsonGenerator the JSON generator to which the string will be written
+     * @param jsonGenerator the generator to which the image will be written
      * @param serializerProvider
      * @throws IOException if anything goes wrong
      */
@@ -34,11 +42,22 @@ public class BufferedImageSerializer extends StdSerializer<BufferedImage> {
             jsonGenerator.writeNull();
             return;
         }
-        try(ByteArrayOutputStream byteArrayOutputStream = new ByteArrayOutputStream()) {
-            ImageIO.write(bufferedImage, "png", byteArrayOutputStream);
-            byte[] imageBytes = byteArrayOutputStream.toByteArray();
-            String base64Image = Base64.getEncoder().encodeToString(imageBytes);
-            jsonGenerator.writeString(base64Image);
+        PngBuffer png = new PngBuffer();
+        // Given a plain OutputStream, ImageIO would cache the output in a temporary file. The image is small enough
+        // to cache in memory instead.
+        try (ImageOutputStream out = new MemoryCacheImageOutputStream(png)) {
+            ImageIO.write(bufferedImage, "png", out);
+        }
+        jsonGenerator.writeBinary(png.toInputStream(), png.size());
+    }
+
+    /**
+     * A {@link ByteArrayOutputStream} which can be read back without copying its contents.
+     */
+    private static class PngBuffer extends ByteArrayOutputStream {
+
+        InputStream toInputStream() {
+            return new ByteArrayInputStream(buf, 0, count);
         }
     }
 }
@@ -1,21 +1,30 @@
 package se325.example06.jacksonsamples.example05_customserialization;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
+import se325.example06.jacksonsamples.JsonMappers;
+import com.fasterxml.jackson.dataformat.cbor.databind.CBORMapper;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileGenerator;
+import com.fasterxml.jackson.dataformat.smile.databind.SmileMapper;
 import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
 
 import javax.imageio.ImageIO;
 import java.awt.image.BufferedImage;
 import java.io.IOException;
+import java.nio.charset.StandardCharsets;
 import java.time.LocalDate;
 import java.util.Arrays;
 
 public class Example05Main {
 
     public static void main(String[] args) throws IOException {
-        ObjectMapper mapper = new ObjectMapper();
+        ObjectMapper mapper = JsonMappers.newMapper();
 
         // Add support for Java8 data / time classes
         mapper.registerModule(new JavaTimeModule());
+
+        // Add support for BufferedImages, using our custom serializer / deserializer
+        mapper.registerModule(new ImageModule());
         
         // Demonstrate serialization of Movie class with a Java8 Date / Time class property
         Movie movie = new Movie("The Neverending Story", LocalDate.of(1984, 04, 06));
@@ -45,7 +54,36 @@ public class Example05Main {
         String pokemonJson = mapper.writeValueAsString(dragonite);
         System.out.println("Pokemon json: " + pokemonJson);
         Pokemon deserializedPokemon = mapper.readValue(pokemonJson, Pokemon.class);
-        System.out.println("Pokemon deserialized!");
+        System.out.println("Pokemon deserialized! Image decoded yet? " + deserializedPokemon.isImageDecoded());
+        BufferedImage deserializedImage = deserializedPokemon.getImage();
+        System.out.println("Image size: " + deserializedImage.getWidth() + " x " + deserializedImage.getHeight()
+                + ". Image decoded yet? " + deserializedPokemon.isImageDecoded());
+
+        // Pokemon keeps its image as a LazyImage, which has its own serializer / deserializer. Any other BufferedImage
+        // is handled by BufferedImageSerializer and BufferedImageDeserializer, which ImageModule registered above.
+        // These encode / decode the image every time.
+        String imageJson = mapper.writeValueAsString(dragoniteImage);
+        System.out.println("Image json: " + imageJson.length() + " characters");
+        BufferedImage readImage = mapper.readValue(imageJson, BufferedImage.class);
+        System.out.println("Image deserialized! Image size: " + readImage.getWidth() + " x " + readImage.getHeight());
+
+        // Demonstrate the same Pokemon in two binary formats, Smile and CBOR. The same custom serializer / deserializer
+        // work with them, but now the image is written as raw bytes rather than a Base64 string. (By default, Smile
+        // writes binary data 7 bits per byte, so that its output never contains certain byte values - we don't need
+        // that, so we turn it off.)
+        ObjectMapper smileMapper = new SmileMapper(SmileFactory.builder()
+                .disable(SmileGenerator.Feature.ENCODE_BINARY_AS_7BIT)
+                .build());
+        ObjectMapper cborMapper = new CBORMapper();
+        byte[] pokemonSmile = smileMapper.writeValueAsBytes(dragonite);
+        byte[] pokemonCbor = cborMapper.writeValueAsBytes(dragonite);
+        System.out.println("Pokemon sizes: JSON = " + pokemonJson.getBytes(StandardCharsets.UTF_8).length
+                + " bytes, Smile = " + pokemonSmile.length + " bytes, CBOR = " + pokemonCbor.length + " bytes");
+        Pokemon smilePokemon = smileMapper.readValue(pokemonSmile, Pokemon.class);
+        Pokemon cborPokemon = cborMapper.readValue(pokemonCbor, Pokemon.class);
+        System.out.println("Pokemon deserialized from Smile and CBOR! Image sizes: "
+                + smilePokemon.getImage().getWidth() + " x " + smilePokemon.getImage().getHeight()
+                + ", " + cborPokemon.getImage().getWidth() + " x " + cborPokemon.getImage().getHeight());
     }
 
 }
@@ -0,0 +1,20 @@
+package se325.example06.jacksonsamples.example05_customserialization;
+
+import com.fasterxml.jackson.databind.module.SimpleModule;
+
+import java.awt.image.BufferedImage;
+
+/**
+ * A Jackson module which registers our image serializer and deserializer for every property of type
+ * {@link BufferedImage}, so they don't each need {@code @JsonSerialize} and {@code @JsonDeserialize} annotations.
+ * Register it with {@code mapper.registerModule(new ImageModule())}, just like {@code JavaTimeModule}. ({@link LazyImage}
+ * doesn't need it - it's annotated with its own serializer and deserializer.)
+ */
+public class ImageModule extends SimpleModule {
+
+    public ImageModule() {
+        super("ImageModule");
+        addSerializer(BufferedImage.class, new BufferedImageSerializer());
+        addDeserializer(BufferedImage.class, new BufferedImageDeserializer());
+    }
+}
@@ -0,0 +1,123 @@
+package se325.example06.jacksonsamples.example05_customserialization;
+
+import com.fasterxml.jackson.databind.annotation.JsonDeserialize;
+import com.fasterxml.jackson.databind.annotation.JsonSerialize;
+
+import javax.imageio.ImageIO;
+import javax.imageio.stream.ImageOutputStream;
+import javax.imageio.stream.MemoryCacheImageInputStream;
+import javax.imageio.stream.MemoryCacheImageOutputStream;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+
+/**
+ * An image which is only decoded when it's actually needed.
+ * <p>
+ * When a {@link Pokemon} is deserialized, its image arrives as compressed PNG data. Decoding that into a
+ * {@link BufferedImage} takes far longer (and far more memory) than parsing the rest of the JSON - which is wasted if
+ * the image is never looked at. A {@code LazyImage} just keeps the compressed bytes, and decodes them the first time
+ * {@link #getImage()} is called.
+ * <p>
+ * It works the other way too: a {@code LazyImage} created from a {@code BufferedImage} only encodes it as PNG the first
+ * time it's serialized, and then keeps the PNG, so serializing it again is just a copy.
+ * <p>
+ * The annotations tell Jackson how to read and write these, so a {@code LazyImage} property works with any mapper,
+ * with no module needed.
+ */
+@JsonSerialize(using = LazyImageSerializer.class)
+@JsonDeserialize(using = LazyImageDeserializer.class)
+public final class LazyImage {
+
+    /** The encoded image, or {@code null} if it hasn't been encoded yet. */
+    private volatile byte[] bytes;
+
+    /** The decoded image, or {@code null} if it hasn't been decoded yet. */
+    private volatile BufferedImage image;
+
+    private LazyImage(byte[] bytes, BufferedImage image) {
+        this.bytes = bytes;
+        this.image = image;
+    }
+
+    /**
+     * Wraps an image which has already been decoded.
+     */
+    public static LazyImage of(BufferedImage image) {
+        if (image == null) throw new IllegalArgumentException("image must not be null");
+        return new LazyImage(null, image);
+    }
+
+    /**
+     * Wraps an encoded image (in any format {@code ImageIO} can read), without decoding it. The array must not be
+     * changed afterwards.
+     */
+    public static LazyImage fromBytes(byte[] bytes) {
+        if (bytes == null) throw new IllegalArgumentException("bytes must not be null");
+        return new LazyImage(bytes, null);
+    }
+
+    /**
+     * Returns the image, decoding it if this is the first time it's been needed.
+     *
+     * @throws UncheckedIOException if the bytes aren't a valid image.
+     */
+    public BufferedImage getImage() {
+        BufferedImage result = image;
+        if (result == null) {
+            synchronized (this) {
+                result = image;
+                if (result == null) {
+                    image = result = decode(bytes);
+                }
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Whether the image has been decoded yet.
+     */
+    public boolean isDecoded() {
+        return image != null;
+    }
+
+    /**
+     * Returns the encoded image, encoding it as PNG if this is the first time it's been needed. This is the array
+     * itself rather than a copy, so it's only available to the serializer.
+     */
+    byte[] getBytes() {
+        byte[] result = bytes;
+        if (result == null) {
+            synchronized (this) {
+                result = bytes;
+                if (result == null) {
+                    bytes = result = encode(image);
+                }
+            }
+        }
+        return result;
+    }
+
+    private static BufferedImage decode(byte[] bytes) {
+        try {
+            BufferedImage decoded = ImageIO.read(new MemoryCacheImageInputStream(new ByteArrayInputStream(bytes)));
+            if (decoded == null) throw new IOException("Not a supported image format");
+            return decoded;
+        } catch (IOException e) {
+            throw new UncheckedIOException("Couldn't decode image", e);
+        }
+    }
+
+    private static byte[] encode(BufferedImage image) {
+        ByteArrayOutputStream png = new ByteArrayOutputStream();
+        try (ImageOutputStream out = new MemoryCacheImageOutputStream(png)) {
+            ImageIO.write(image, "png", out);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Couldn't encode image", e);
+        }
+        return png.toByteArray();
+    }
+}
@@ -0,0 +1,23 @@
+package se325.example06.jacksonsamples.example05_customserialization;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.databind.DeserializationContext;
+import com.fasterxml.jackson.databind.deser.std.StdDeserializer;
+
+import java.io.IOException;
+
+public class LazyImageDeserializer extends StdDeserializer<LazyImage> {
+
+    public LazyImageDeserializer() {
+        super(LazyImage.class);
+    }
+
+    /**
+     * Reads an image written by {@link LazyImageSerializer} or {@link BufferedImageSerializer}, but only as far as
+     * its encoded bytes. They aren't decoded until someone calls {@link LazyImage#getImage()}.
+     */
+    @Override
+    public LazyImage deserialize(JsonParser p, DeserializationContext ctxt) throws IOException {
+        return LazyImage.fromBytes(p.getBinaryValue());
+    }
+}
@@ -0,0 +1,24 @@
+package se325.example06.jacksonsamples.example05_customserialization;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.SerializerProvider;
+import com.fasterxml.jackson.databind.ser.std.StdSerializer;
+
+import java.io.IOException;
+
+public class LazyImageSerializer extends StdSerializer<LazyImage> {
+
+    public LazyImageSerializer() {
+        super(LazyImage.class);
+    }
+
+    /**
+     * Writes a LazyImage's encoded bytes, just like {@link BufferedImageSerializer} (Base64 in JSON, raw bytes in
+     * binary formats). If the image was deserialized and never changed, these are the bytes that were read, so it
+     * never needs to be decoded or encoded at all.
+     */
+    @Override
+    public void serialize(LazyImage lazyImage, JsonGenerator jsonGenerator, SerializerProvider serializerProvider) throws IOException {
+        jsonGenerator.writeBinary(lazyImage.getBytes());
+    }
+}
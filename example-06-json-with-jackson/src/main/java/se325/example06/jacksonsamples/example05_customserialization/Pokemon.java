@@ -1,7 +1,7 @@
 package se325.example06.jacksonsamples.example05_customserialization;
 
-import com.fasterxml.jackson.databind.annotation.JsonDeserialize;
-import com.fasterxml.jackson.databind.annotation.JsonSerialize;
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.fasterxml.jackson.annotation.JsonProperty;
 
 import java.awt.image.BufferedImage;
 
@@ -9,16 +9,17 @@ public class Pokemon {
     private int dexNumber;
     private String name;
 
-    @JsonSerialize(using = BufferedImageSerializer.class)
-    @JsonDeserialize(using = BufferedImageDeserializer.class)
-    private BufferedImage image;
+    // Kept as a LazyImage, so it's only decoded if someone calls getImage(). Jackson reads and writes this field
+    // directly (LazyImage's annotations tell it how), rather than going through getImage() / setImage().
+    @JsonProperty("image")
+    private LazyImage image;
 
     public Pokemon(){}
 
     public Pokemon(int dexNumber, String name, BufferedImage image) {
         this.dexNumber = dexNumber;
         this.name = name;
-        this.image = image;
+        setImage(image);
     }
 
     public int getDexNumber() {
@@ -37,11 +38,21 @@ public class Pokemon {
         this.name = name;
     }
 
+    @JsonIgnore
     public BufferedImage getImage() {
-        return image;
+        return image == null ? null : image.getImage();
     }
 
+    @JsonIgnore
     public void setImage(BufferedImage image) {
-        this.image = image;
+        this.image = image == null ? null : LazyImage.of(image);
+    }
+
+    /**
+     * Whether {@link #getImage()} has had to decode the image yet.
+     */
+    @JsonIgnore
+    public boolean isImageDecoded() {
+        return image == null || image.isDecoded();
     }
 }
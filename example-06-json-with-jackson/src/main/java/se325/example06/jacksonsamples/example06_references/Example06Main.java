@@ -1,6 +1,7 @@
 package se325.example06.jacksonsamples.example06_references;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
+import se325.example06.jacksonsamples.JsonMappers;
 
 import java.io.IOException;
 import java.util.Arrays;
@@ -19,7 +20,7 @@ public class Example06Main {
         teams.getTeams().put("Project 1", Arrays.asList(alice, bob));
         teams.getTeams().put("Project 2", Arrays.asList(bob, caitlin, dave));
 
-        ObjectMapper mapper = new ObjectMapper();
+        ObjectMapper mapper = JsonMappers.newMapper();
         String teamsJson = mapper.writeValueAsString(teams);
         System.out.println("Teams json: " + teamsJson);
 
@@ -1,6 +1,7 @@
 package se325.example06.jacksonsamples.example07_polymorphism;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
+import se325.example06.jacksonsamples.JsonMappers;
 
 import java.io.IOException;
 
@@ -12,7 +13,7 @@ public class Example07Main {
         zoo.add(new Cat("Mufasa"));
         zoo.add(new Dog("Lassie"));
 
-        ObjectMapper mapper = new ObjectMapper();
+        ObjectMapper mapper = JsonMappers.newMapper();
 
         String zooJson = mapper.writeValueAsString(zoo);
         System.out.println("Zoo json: " + zooJson);
@@ -0,0 +1,99 @@
+package se325.example06.jacksonsamples.example08_streaming;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import se325.example06.jacksonsamples.JsonMappers;
+import se325.example06.jacksonsamples.example04_maps.PhoneBookEntry;
+import se325.example06.jacksonsamples.example07_polymorphism.Animal;
+import se325.example06.jacksonsamples.example07_polymorphism.Cat;
+import se325.example06.jacksonsamples.example07_polymorphism.Dog;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.stream.Stream;
+
+public class Example08Main {
+
+    public static void main(String[] args) throws IOException {
+
+        // How many animals / phone book entries to write. Try a big number with a small heap (e.g. -Xmx32m) - the
+        // files won't fit in memory, but they can still be read.
+        int count = args.length > 0 ? Integer.parseInt(args[0]) : 100_000;
+
+        // Unlike the other examples, this one doesn't need to configure its own mapper, so it uses the shared one
+        ObjectMapper mapper = JsonMappers.mapper();
+        StreamingReader reader = new StreamingReader(mapper);
+
+        Path zooFile = Files.createTempFile("zoo", ".json");
+        Path phoneBookFile = Files.createTempFile("phone-book", ".json");
+        try {
+            writeZoo(mapper, zooFile, count);
+            System.out.println("Zoo json: " + Files.size(zooFile) + " bytes");
+
+            // Read the animals one at a time, with a callback. Jackson still works out whether each is a Cat or a Dog.
+            int[] cats = new int[1];
+            int[] dogs = new int[1];
+            try (InputStream in = Files.newInputStream(zooFile)) {
+                reader.readZoo(in, animal -> {
+                    if (animal instanceof Cat) cats[0]++;
+                    if (animal instanceof Dog) dogs[0]++;
+                });
+            }
+            System.out.println("Zoo read: " + cats[0] + " cats and " + dogs[0] + " dogs");
+
+            // Or as a Stream - which must be closed, to close the file
+            try (Stream<Animal> animals = reader.animals(Files.newInputStream(zooFile))) {
+                animals.skip(count / 2).limit(1).forEach(Animal::sayHello);
+            }
+
+            writePhoneBook(mapper, phoneBookFile, count);
+            System.out.println("Phone book json: " + Files.size(phoneBookFile) + " bytes");
+            try (var entries = reader.phoneBookEntries(Files.newInputStream(phoneBookFile))) {
+                long withSomeStreet = entries.filter(e -> e.getValue().getAddress().endsWith("Some Street")).count();
+                System.out.println("Phone book read: " + withSomeStreet + " entries on Some Street");
+            }
+
+            Runtime runtime = Runtime.getRuntime();
+            System.out.println("Heap used: " + (runtime.totalMemory() - runtime.freeMemory()) / (1024 * 1024) + " MB");
+
+        } finally {
+            Files.deleteIfExists(zooFile);
+            Files.deleteIfExists(phoneBookFile);
+        }
+    }
+
+    /**
+     * Writes a zoo to a file, one animal at a time, so it doesn't have to be in memory all at once either. The writer
+     * is for Animal, so it adds the type info from Animal's @JsonTypeInfo annotation, just as when writing a Zoo.
+     */
+    private static void writeZoo(ObjectMapper mapper, Path file, int animals) throws IOException {
+        ObjectWriter animalWriter = JsonMappers.writer(Animal.class);
+        try (JsonGenerator generator = mapper.getFactory().createGenerator(Files.newOutputStream(file))) {
+            generator.writeStartObject();
+            generator.writeArrayFieldStart("animals");
+            for (int i = 0; i < animals; i++) {
+                animalWriter.writeValue(generator, i % 2 == 0 ? new Cat("Cat " + i) : new Dog("Dog " + i));
+            }
+            generator.writeEndArray();
+            generator.writeEndObject();
+        }
+    }
+
+    private static void writePhoneBook(ObjectMapper mapper, Path file, int entries) throws IOException {
+        ObjectWriter entryWriter = JsonMappers.writer(PhoneBookEntry.class);
+        try (JsonGenerator generator = mapper.getFactory().createGenerator(Files.newOutputStream(file))) {
+            generator.writeStartObject();
+            generator.writeObjectFieldStart("entries");
+            for (int i = 0; i < entries; i++) {
+                generator.writeFieldName(String.format("Person %07d", i));
+                entryWriter.writeValue(generator, new PhoneBookEntry(String.format("021 %07d", i),
+                        i + (i % 2 == 0 ? " Some Street" : " Some Other Street")));
+            }
+            generator.writeEndObject();
+            generator.writeEndObject();
+        }
+    }
+}
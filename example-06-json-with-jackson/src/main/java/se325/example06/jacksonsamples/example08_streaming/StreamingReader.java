@@ -0,0 +1,184 @@
+package se325.example06.jacksonsamples.example08_streaming;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import se325.example06.jacksonsamples.example04_maps.PhoneBook;
+import se325.example06.jacksonsamples.example04_maps.PhoneBookEntry;
+import se325.example06.jacksonsamples.example07_polymorphism.Animal;
+import se325.example06.jacksonsamples.example07_polymorphism.Zoo;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.util.AbstractMap;
+import java.util.Map;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.function.BiConsumer;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+/**
+ * Reads {@link PhoneBook} and {@link Zoo} JSON one entry / animal at a time, rather than all at once.
+ * <p>
+ * {@code mapper.readValue(in, Zoo.class)} creates every animal before it returns, so the whole zoo has to fit in
+ * memory. Here, a {@link JsonParser} reads the document token by token instead. It skips ahead to the zoo's
+ * {@code animals} array (or the phone book's {@code entries} object), and then uses the mapper to read just one
+ * element, hands it over, and moves on to the next. Only one element is in memory at a time, however big the document
+ * is.
+ * <p>
+ * Each animal is read with a reader for {@link Animal}, so Jackson still uses its {@code @JsonTypeInfo} to work out
+ * whether it's a {@code Cat} or a {@code Dog}, just as when it reads a whole {@code Zoo}.
+ * <p>
+ * Each method takes ownership of the given stream, and closes it once it's done (for the {@code Stream} methods, when
+ * the {@code Stream} is closed - so use them in a try-with-resources block).
+ */
+public class StreamingReader {
+
+    private final ObjectMapper mapper;
+    private final ObjectReader entryReader;
+    private final ObjectReader animalReader;
+
+    public StreamingReader(ObjectMapper mapper) {
+        this.mapper = mapper;
+        this.entryReader = mapper.readerFor(PhoneBookEntry.class);
+        this.animalReader = mapper.readerFor(Animal.class);
+    }
+
+    /**
+     * Reads a phone book, calling the given action with each name and entry in turn.
+     */
+    public void readPhoneBook(InputStream in, BiConsumer<String, PhoneBookEntry> action) throws IOException {
+        try (Stream<Map.Entry<String, PhoneBookEntry>> entries = phoneBookEntries(in)) {
+            entries.forEach(entry -> action.accept(entry.getKey(), entry.getValue()));
+        } catch (ParserException e) {
+            throw e.getCause();
+        }
+    }
+
+    /**
+     * Reads a phone book's entries, as they're needed. Any {@link IOException} while reading them is thrown as an
+     * {@link UncheckedIOException}. An entry's value is {@code null} if it's {@code null} in the JSON.
+     */
+    public Stream<Map.Entry<String, PhoneBookEntry>> phoneBookEntries(InputStream in) throws IOException {
+        return stream(in, "entries", JsonToken.START_OBJECT, parser -> {
+            String name = parser.currentName();
+            parser.nextToken();
+            // Not Map.entry(), which doesn't allow null values
+            return new AbstractMap.SimpleImmutableEntry<>(name, entryReader.readValue(parser));
+        });
+    }
+
+    /**
+     * Reads a zoo, calling the given action with each animal in turn.
+     */
+    public void readZoo(InputStream in, Consumer<Animal> action) throws IOException {
+        try (Stream<Animal> animals = animals(in)) {
+            animals.forEach(action);
+        } catch (ParserException e) {
+            throw e.getCause();
+        }
+    }
+
+    /**
+     * Reads a zoo's animals, as they're needed. Any {@link IOException} while reading them is thrown as an
+     * {@link UncheckedIOException}. An animal is {@code null} if it's {@code null} in the JSON.
+     */
+    public Stream<Animal> animals(InputStream in) throws IOException {
+        return stream(in, "animals", JsonToken.START_ARRAY, animalReader::readValue);
+    }
+
+    /**
+     * Reads one element. When this is called, the parser is at the element's first token (its field name, for an
+     * object's fields). When it returns, the parser must be at the element's last token.
+     */
+    @FunctionalInterface
+    private interface ElementReader<T> {
+        T read(JsonParser parser) throws IOException;
+    }
+
+    /**
+     * Returns a stream of the elements of the given array / object property of the document's root object. If there's
+     * no such property (or it's null), the stream is empty.
+     */
+    private <T> Stream<T> stream(InputStream in, String propertyName, JsonToken start, ElementReader<T> elementReader)
+            throws IOException {
+
+        JsonParser parser = mapper.getFactory().createParser(in);
+        try {
+            boolean found = moveTo(parser, propertyName, start);
+            Spliterator<T> elements = new Spliterators.AbstractSpliterator<>(
+                    Long.MAX_VALUE, Spliterator.ORDERED) {
+
+                private boolean done = !found;
+
+                @Override
+                public boolean tryAdvance(Consumer<? super T> action) {
+                    if (done) return false;
+                    T element;
+                    try {
+                        JsonToken token = parser.nextToken();
+                        if (token == JsonToken.END_ARRAY || token == JsonToken.END_OBJECT) {
+                            done = true;
+                            return false;
+                        }
+                        element = elementReader.read(parser);
+                    } catch (IOException e) {
+                        throw new ParserException(e);
+                    }
+                    action.accept(element);
+                    return true;
+                }
+            };
+            return StreamSupport.stream(elements, false).onClose(() -> {
+                try {
+                    parser.close();
+                } catch (IOException e) {
+                    throw new ParserException(e);
+                }
+            });
+        } catch (IOException | RuntimeException e) {
+            parser.close();
+            throw e;
+        }
+    }
+
+    /**
+     * Moves the parser to the start of the given property of the root object, skipping over any other properties
+     * (and everything in them) on the way.
+     *
+     * @return whether the property was found, and isn't null.
+     */
+    private static boolean moveTo(JsonParser parser, String propertyName, JsonToken start) throws IOException {
+        if (parser.nextToken() != JsonToken.START_OBJECT) {
+            throw new IOException("Expected a JSON object, but got " + parser.currentToken());
+        }
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            String name = parser.currentName();
+            JsonToken value = parser.nextToken();
+            if (!name.equals(propertyName)) {
+                parser.skipChildren();
+            } else if (value == JsonToken.VALUE_NULL) {
+                return false;
+            } else if (value != start) {
+                throw new IOException("Expected " + propertyName + " to start with " + start + ", but got " + value);
+            } else {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * An {@link IOException} from the parser, rather than from whoever is using the elements - so that
+     * {@link #readZoo} and {@link #readPhoneBook} only turn our own exceptions back into {@code IOException}s.
+     */
+    private static class ParserException extends UncheckedIOException {
+        ParserException(IOException cause) {
+            super(cause);
+        }
+    }
+}
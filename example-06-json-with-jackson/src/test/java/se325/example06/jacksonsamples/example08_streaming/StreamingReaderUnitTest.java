@@ -0,0 +1,162 @@
+package se325.example06.jacksonsamples.example08_streaming;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+import se325.example06.jacksonsamples.example04_maps.PhoneBookEntry;
+import se325.example06.jacksonsamples.example07_polymorphism.Animal;
+import se325.example06.jacksonsamples.example07_polymorphism.Cat;
+import se325.example06.jacksonsamples.example07_polymorphism.Dog;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class StreamingReaderUnitTest {
+
+    private static final String CAT = Cat.class.getName();
+    private static final String DOG = Dog.class.getName();
+
+    private final StreamingReader reader = new StreamingReader(new ObjectMapper());
+
+    @Test
+    public void testResolvesEachAnimalsSubtype() throws IOException {
+        List<Animal> animals = readZoo("{'animals': [{'type': '" + CAT + "', 'name': 'Mufasa'},"
+                + " {'type': '" + DOG + "', 'name': 'Lassie'}, {'name': 'Garfield', 'type': '" + CAT + "'}]}");
+
+        assertEquals(3, animals.size());
+        assertInstanceOf(Cat.class, animals.get(0));
+        assertEquals("Mufasa", animals.get(0).getName());
+        assertInstanceOf(Dog.class, animals.get(1));
+        assertEquals("Lassie", animals.get(1).getName());
+        /* The type doesn't have to come first. */
+        assertInstanceOf(Cat.class, animals.get(2));
+        assertEquals("Garfield", animals.get(2).getName());
+    }
+
+    @Test
+    public void testSkipsOtherProperties() throws IOException {
+        List<Animal> animals = readZoo("{'name': 'Auckland Zoo', 'keepers': [{'animals': ['not these']}],"
+                + " 'map': {'animals': {'nested': true}}, 'animals': [{'type': '" + DOG + "', 'name': 'Lassie'}],"
+                + " 'after': [1, 2, 3]}");
+
+        assertEquals(1, animals.size());
+        assertEquals("Lassie", animals.get(0).getName());
+    }
+
+    @Test
+    public void testMissingOrNullPropertyIsEmpty() throws IOException {
+        assertTrue(readZoo("{}").isEmpty());
+        assertTrue(readZoo("{'name': 'Empty Zoo'}").isEmpty());
+        assertTrue(readZoo("{'animals': null}").isEmpty());
+        assertTrue(readZoo("{'animals': []}").isEmpty());
+        assertTrue(readPhoneBook("{'entries': null}").isEmpty());
+    }
+
+    @Test
+    public void testNullElements() throws IOException {
+        List<Animal> animals = readZoo("{'animals': [null, {'type': '" + CAT + "', 'name': 'Mufasa'}]}");
+        assertEquals(2, animals.size());
+        assertNull(animals.get(0));
+        assertEquals("Mufasa", animals.get(1).getName());
+
+        Map<String, PhoneBookEntry> entries = readPhoneBook(
+                "{'entries': {'Bob': null, 'Alice': {'phoneNumber': '021 123 4567', 'address': '123 Some Street'}}}");
+        assertEquals(List.of("Bob", "Alice"), new ArrayList<>(entries.keySet()));
+        assertNull(entries.get("Bob"));
+        assertEquals("021 123 4567", entries.get("Alice").getPhoneNumber());
+        assertEquals("123 Some Street", entries.get("Alice").getAddress());
+    }
+
+    @Test
+    public void testWrongTypeThrowsIOException() {
+        assertThrows(IOException.class, () -> readZoo("{'animals': {'type': '" + CAT + "', 'name': 'Mufasa'}}"));
+        assertThrows(IOException.class, () -> readPhoneBook("{'entries': []}"));
+        assertThrows(IOException.class, () -> readZoo("[]"));
+    }
+
+    @Test
+    public void testBadJsonPartWayThroughThrowsIOException() {
+        assertThrows(IOException.class, () -> readZoo("{'animals': [{'type': '" + CAT + "', 'name': 'Mufasa'}, {"));
+    }
+
+    @Test
+    public void testClosingStreamClosesInput() throws IOException {
+        TrackingInputStream in = new TrackingInputStream(json(
+                "{'animals': [{'type': '" + CAT + "', 'name': 'Mufasa'}, {'type': '" + DOG + "', 'name': 'Lassie'}]}"));
+
+        try (Stream<Animal> animals = reader.animals(in)) {
+            assertEquals("Mufasa", animals.findFirst().orElseThrow().getName());
+            assertFalse(in.closed);
+        }
+        assertTrue(in.closed);
+    }
+
+    @Test
+    public void testCallbackExceptionsAreNotUnwrapped() {
+        UncheckedIOException thrown = new UncheckedIOException(new IOException("From the callback"));
+
+        UncheckedIOException caught = assertThrows(UncheckedIOException.class, () -> reader.readZoo(
+                json("{'animals': [{'type': '" + CAT + "', 'name': 'Mufasa'}]}"), animal -> {
+                    throw thrown;
+                }));
+        assertSame(thrown, caught);
+    }
+
+    private List<Animal> readZoo(String json) throws IOException {
+        List<Animal> animals = new ArrayList<>();
+        reader.readZoo(json(json), animals::add);
+        return animals;
+    }
+
+    private Map<String, PhoneBookEntry> readPhoneBook(String json) throws IOException {
+        Map<String, PhoneBookEntry> entries = new LinkedHashMap<>();
+        reader.readPhoneBook(json(json), entries::put);
+        return entries;
+    }
+
+    /**
+     * Turns JSON written with single quotes (to keep the tests readable) into an input stream of real JSON.
+     */
+    private static InputStream json(String json) {
+        return new ByteArrayInputStream(json.replace('\'', '"').getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static class TrackingInputStream extends InputStream {
+        private final InputStream in;
+        boolean closed = false;
+
+        TrackingInputStream(InputStream in) {
+            this.in = in;
+        }
+
+        @Override
+        public int read() throws IOException {
+            return in.read();
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) throws IOException {
+            return in.read(b, off, len);
+        }
+
+        @Override
+        public void close() {
+            closed = true;
+        }
+    }
+}
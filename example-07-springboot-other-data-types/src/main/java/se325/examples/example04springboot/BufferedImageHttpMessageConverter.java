@@ -4,15 +4,29 @@ import org.springframework.http.HttpInputMessage;
 import org.springframework.http.HttpOutputMessage;
 import org.springframework.http.MediaType;
 import org.springframework.http.converter.AbstractHttpMessageConverter;
+import se325.examples.example04springboot.image.ImageEncoder;
+import se325.examples.example04springboot.image.ImageFormat;
 
 import javax.imageio.ImageIO;
 import java.awt.image.BufferedImage;
 import java.io.IOException;
+import java.util.Arrays;
 
+/**
+ * Converts between {@link BufferedImage}s and PNG, JPEG or GIF data. When writing, the format is whichever one Spring
+ * picked from the request's {@code Accept} header (and the {@code produces} property of the controller method), and
+ * the image is encoded with an {@link ImageEncoder}, so the response has a {@code Content-Length}.
+ */
 public class BufferedImageHttpMessageConverter extends AbstractHttpMessageConverter<BufferedImage> {
 
-    public BufferedImageHttpMessageConverter() {
-        super(MediaType.IMAGE_PNG);
+    private final ImageEncoder encoder;
+
+    public BufferedImageHttpMessageConverter(ImageEncoder encoder) {
+        // PNG comes first, so it's used when the client accepts any image type
+        super(Arrays.stream(ImageFormat.values())
+                .map(format -> MediaType.parseMediaType(format.getMediaType()))
+                .toArray(MediaType[]::new));
+        this.encoder = encoder;
     }
 
     @Override
@@ -29,6 +43,14 @@ public class BufferedImageHttpMessageConverter extends AbstractHttpMessageConver
     @Override
     protected void writeInternal(BufferedImage image, HttpOutputMessage outputMessage)
             throws IOException {
-        ImageIO.write(image, "png", outputMessage.getBody());
+        MediaType contentType = outputMessage.getHeaders().getContentType();
+        ImageFormat format = contentType == null ? ImageFormat.PNG
+                : ImageFormat.fromMediaType(contentType.getType() + "/" + contentType.getSubtype()).orElse(ImageFormat.PNG);
+
+        encoder.encode(image, format, (bytes, length) -> {
+            // Headers can still be set until the body is first written to
+            outputMessage.getHeaders().setContentLength(length);
+            outputMessage.getBody().write(bytes, 0, length);
+        });
     }
 }
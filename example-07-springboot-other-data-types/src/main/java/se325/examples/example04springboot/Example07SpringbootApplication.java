@@ -1,7 +1,11 @@
 package se325.examples.example04springboot;
 
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.context.annotation.Bean;
+import se325.examples.example04springboot.image.ImageCache;
+import se325.examples.example04springboot.image.ImageEncoder;
 
 @SpringBootApplication
 public class Example07SpringbootApplication {
@@ -10,4 +14,35 @@ public class Example07SpringbootApplication {
 		SpringApplication.run(Example07SpringbootApplication.class, args);
 	}
 
+	/**
+	 * The cache of encoded images used by {@code ImageController}. Its size can be changed with the
+	 * {@code images.cache.max-bytes} property.
+	 */
+	@Bean
+	public ImageCache imageCache(@Value("${images.cache.max-bytes:16777216}") long maxBytes) {
+		return new ImageCache(maxBytes);
+	}
+
+	/**
+	 * The cache of placeholder images used by {@code ImageController}. This is kept separate from {@link #imageCache},
+	 * since there's no limit to how many different placeholders can be requested, and they shouldn't push the real
+	 * images out of the cache. Its size can be changed with the {@code images.placeholder-cache.max-bytes} property.
+	 */
+	@Bean
+	public ImageCache placeholderCache(@Value("${images.placeholder-cache.max-bytes:4194304}") long maxBytes) {
+		return new ImageCache(maxBytes);
+	}
+
+	/**
+	 * Encodes images for {@code ImageController} and {@code BufferedImageHttpMessageConverter}. The compression can be
+	 * changed with the {@code images.encoding.png-compression-level} (0 to 9) and {@code images.encoding.jpeg-quality}
+	 * (0 to 1) properties.
+	 */
+	@Bean
+	public ImageEncoder imageEncoder(
+			@Value("${images.encoding.png-compression-level:" + ImageEncoder.DEFAULT_PNG_COMPRESSION_LEVEL + "}") int pngCompressionLevel,
+			@Value("${images.encoding.jpeg-quality:" + ImageEncoder.DEFAULT_JPEG_QUALITY + "}") float jpegQuality) {
+		return new ImageEncoder(pngCompressionLevel, jpegQuality);
+	}
+
 }
@@ -3,14 +3,21 @@ package se325.examples.example04springboot;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.http.converter.HttpMessageConverter;
 import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+import se325.examples.example04springboot.image.ImageEncoder;
 
 import java.util.List;
 
 @Configuration
 public class WebConfig implements WebMvcConfigurer {
 
+    private final ImageEncoder imageEncoder;
+
+    public WebConfig(ImageEncoder imageEncoder) {
+        this.imageEncoder = imageEncoder;
+    }
+
     @Override
     public void configureMessageConverters(List<HttpMessageConverter<?>> converters) {
-        converters.add(new BufferedImageHttpMessageConverter());
+        converters.add(new BufferedImageHttpMessageConverter(imageEncoder));
     }
 }
@@ -1,68 +1,158 @@
 package se325.examples.example04springboot.controller;
 
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.web.server.ResponseStatusException;
+import se325.examples.example04springboot.image.ImageCache;
+import se325.examples.example04springboot.image.ImageEncoder;
+import se325.examples.example04springboot.image.ImageFormat;
+import se325.examples.example04springboot.image.PlaceholderRenderer;
 
+import javax.imageio.ImageIO;
 import java.awt.*;
 import java.awt.image.BufferedImage;
 import java.io.IOException;
+import java.util.List;
 
 @RestController
 @RequestMapping("/images")
 public class ImageController {
 
+    private final ImageCache imageCache;
+    private final ImageCache placeholderCache;
+    private final ImageEncoder imageEncoder;
+    private final PlaceholderRenderer placeholderRenderer = new PlaceholderRenderer();
+
+    public ImageController(@Qualifier("imageCache") ImageCache imageCache,
+                           @Qualifier("placeholderCache") ImageCache placeholderCache,
+                           ImageEncoder imageEncoder) {
+        this.imageCache = imageCache;
+        this.placeholderCache = placeholderCache;
+        this.imageEncoder = imageEncoder;
+    }
 
+    /**
+     * Returns an image from the classpath, as a PNG, JPEG or GIF, depending on the request's Accept header. The encoded
+     * image is cached, so the image is only decoded and encoded the first time it's requested in each format - after
+     * that, the cached bytes are written straight to the response. Since the response has an ETag, Spring sends 304
+     * Not Modified instead if the request's If-None-Match header contains that ETag.
+     */
+    @GetMapping(value = "/{imageName}", produces = {"image/png", "image/jpeg", "image/gif"})
+    public ResponseEntity<byte[]> getImage(@PathVariable("imageName") String imageName,
+                                           @RequestHeader(value = HttpHeaders.ACCEPT, required = false) String accept)
+            throws IOException {
+
+        ImageFormat format = negotiate(accept);
+        ImageCache.CachedImage image = imageCache.get(format.name() + "/" + imageName, key -> load(imageName, format));
+        if (image == null) {
+            throw new ResponseStatusException(HttpStatus.NOT_FOUND, "Image not found: " + imageName);
+        }
+        return toResponse(image, format);
+    }
 
-    @GetMapping(value = "/{imageName}", produces = "image/png")
-    public BufferedImage getImage(@PathVariable("imageName") String imageName) throws IOException {
-        // Load the image from the classpath
+    /**
+     * Loads an image from the classpath, and encodes it in the given format (whatever format it was in originally).
+     *
+     * @return the encoded image, or {@code null} if there is no such image.
+     */
+    private byte[] load(String imageName, ImageFormat format) throws IOException {
         ClassLoader classLoader = getClass().getClassLoader();
         try (var resourceStream = classLoader.getResourceAsStream(imageName)) {
-            if (resourceStream == null) {
-                throw new ResponseStatusException(
-                        org.springframework.http.HttpStatus.NOT_FOUND,
-                        "Image not found: " + imageName);
+            if (resourceStream == null) return null;
+
+            // Read the image as a BufferedImage. This is null if the resource isn't an image.
+            BufferedImage image = ImageIO.read(resourceStream);
+            if (image == null) return null;
+
+            return imageEncoder.encode(image, format);
+        }
+    }
+
+    /**
+     * Picks the format to send, from the request's Accept header - or PNG, if the client doesn't mind. Each format's
+     * quality comes from the most specific media range which includes it, so {@code image/*, image/png;q=0} means "any
+     * image except PNG". The format with the highest quality wins, and if two are equal, the one named more specifically
+     * (then PNG, JPEG and GIF, in that order).
+     *
+     * @throws ResponseStatusException (406 Not Acceptable) if the client won't accept any of them.
+     */
+    private static ImageFormat negotiate(String accept) {
+        if (accept == null || accept.isBlank()) return ImageFormat.PNG;
+
+        List<MediaType> accepted = MediaType.parseMediaTypes(accept);
+        ImageFormat best = null;
+        MediaType bestRange = null;
+        for (ImageFormat format : ImageFormat.values()) {
+            MediaType formatType = MediaType.parseMediaType(format.getMediaType());
+            MediaType range = null;
+            for (MediaType type : accepted) {
+                if (type.includes(formatType) && (range == null || specificity(type) > specificity(range))) {
+                    range = type;
+                }
+            }
+            if (range == null || range.getQualityValue() == 0) continue;
+
+            if (bestRange == null || range.getQualityValue() > bestRange.getQualityValue()
+                    || (range.getQualityValue() == bestRange.getQualityValue() && specificity(range) > specificity(bestRange))) {
+                best = format;
+                bestRange = range;
             }
-            // Read the image as a BufferedImage
-            return javax.imageio.ImageIO.read(resourceStream);
         }
+        if (best == null) {
+            throw new ResponseStatusException(HttpStatus.NOT_ACCEPTABLE, "Images are only available as PNG, JPEG or GIF");
+        }
+        return best;
+    }
+
+    /**
+     * How specific a media range is: 2 for e.g. {@code image/png}, 1 for {@code image/*} and 0 for {@code *}{@code /*}.
+     */
+    private static int specificity(MediaType range) {
+        if (range.isWildcardType()) return 0;
+        return range.isWildcardSubtype() ? 1 : 2;
+    }
+
+    private static ResponseEntity<byte[]> toResponse(ImageCache.CachedImage image, ImageFormat format) {
+        return ResponseEntity.ok()
+                .contentType(MediaType.parseMediaType(format.getMediaType()))
+                .eTag(image.eTag())
+                // The same URL gives different images for different Accept headers, so caches must take it into account
+                .varyBy(HttpHeaders.ACCEPT)
+                .body(image.bytes());
     }
 
-    @GetMapping(value = "/placeholder", produces = "image/png")
-    public BufferedImage getPlaceholderImage(@RequestParam(value = "width", defaultValue = "32") int width,
-                                             @RequestParam(value = "height", defaultValue = "32") int height,
-                                             @RequestParam(value = "color", defaultValue = "255,255,255") String color,
-                                             @RequestParam(value = "background-color", defaultValue = "20,20,20") String backgroundColor,
-                                             @RequestParam(value = "text", required = false) String text) throws IOException {
+    /**
+     * Returns a placeholder image, as a PNG, JPEG or GIF. Each distinct placeholder is only drawn and encoded once (in
+     * each format) - after that, it comes from a cache, just like the images in {@link #getImage(String, String)}.
+     */
+    @GetMapping(value = "/placeholder", produces = {"image/png", "image/jpeg", "image/gif"})
+    public ResponseEntity<byte[]> getPlaceholderImage(@RequestParam(value = "width", defaultValue = "32") int width,
+                                                      @RequestParam(value = "height", defaultValue = "32") int height,
+                                                      @RequestParam(value = "color", defaultValue = "255,255,255") String color,
+                                                      @RequestParam(value = "background-color", defaultValue = "20,20,20") String backgroundColor,
+                                                      @RequestParam(value = "text", required = false) String text,
+                                                      @RequestHeader(value = HttpHeaders.ACCEPT, required = false) String accept)
+            throws IOException {
 
         if (width <= 0 || height <= 0) throw new ResponseStatusException(
                 HttpStatus.BAD_REQUEST, "Width and height must be greater than 0");
 
-        // Set background color
-        BufferedImage image = new BufferedImage(width, height, BufferedImage.TYPE_INT_ARGB);
-        Graphics g = image.getGraphics();
-        g.setColor(parseColor(backgroundColor));
-        g.fillRect(0, 0, width, height);
-
-        // Draw placeholder text
-        if (text == null) text = "Placeholder " + width + " x " + height;
-        g.setColor(parseColor(color));
-        int fontSize = 24;
-        Font font = new Font("Arial", Font.BOLD, fontSize);
-        g.setFont(font);
-        FontMetrics metrics = g.getFontMetrics(font);
-
-        while ((metrics.stringWidth(text) > width || metrics.getHeight() > height) && fontSize > 1) {
-            fontSize--;
-            font = new Font("Arial", Font.BOLD, fontSize);
-            g.setFont(font);
-            metrics = g.getFontMetrics(font);
-        }
+        Color parsedColor = parseColor(color);
+        Color parsedBackgroundColor = parseColor(backgroundColor);
+        String placeholderText = text != null ? text : "Placeholder " + width + " x " + height;
 
-        g.drawString(text, (width - metrics.stringWidth(text)) / 2, (height - metrics.getHeight()) / 2 + metrics.getAscent());
+        ImageFormat format = negotiate(accept);
+        // The text goes last, so that keys can't be ambiguous whatever it contains
+        String key = format.name() + "/" + width + "x" + height + "/" + Integer.toHexString(parsedColor.getRGB())
+                + "/" + Integer.toHexString(parsedBackgroundColor.getRGB()) + "/" + placeholderText;
 
-        return image;
+        ImageCache.CachedImage image = placeholderCache.get(key, k -> imageEncoder.encode(
+                placeholderRenderer.render(width, height, parsedColor, parsedBackgroundColor, placeholderText), format));
+        return toResponse(image, format);
     }
 
     private Color parseColor(String color) {
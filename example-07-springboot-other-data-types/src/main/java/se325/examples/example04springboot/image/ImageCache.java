@@ -0,0 +1,117 @@
+package se325.examples.example04springboot.image;
+
+import java.io.IOException;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * A cache of encoded images (e.g. PNG files), so that an image which is requested over and over only needs to be
+ * decoded and encoded once. Each image also gets a strong ETag - a hash of its bytes - so that clients which already
+ * have it can be sent a 304 Not Modified response instead.
+ * <p>
+ * The cache holds at most {@code maxBytes} bytes of images. When it's full, the least recently used images are evicted
+ * to make room. Images bigger than {@code maxBytes} are never cached.
+ * <p>
+ * It's safe to use from many request threads at once. Images are loaded outside the lock, so a slow load doesn't hold
+ * up requests for other images. The cost is that if two requests for the same image miss at the same time, it's loaded
+ * twice (and both copies are identical, so it doesn't matter which one ends up in the cache).
+ */
+public class ImageCache {
+
+    /**
+     * An encoded image and its ETag (including the quotes, as in the {@code ETag} header).
+     */
+    public record CachedImage(byte[] bytes, String eTag) {
+    }
+
+    /**
+     * Loads an image which isn't in the cache.
+     */
+    @FunctionalInterface
+    public interface Loader {
+
+        /**
+         * @return the encoded image, or {@code null} if there is no such image (which isn't cached).
+         */
+        byte[] load(String key) throws IOException;
+    }
+
+    private final long maxBytes;
+
+    /** The cached images, from least to most recently used. Guarded by {@code this}, as is {@link #totalBytes}. */
+    private final LinkedHashMap<String, CachedImage> images = new LinkedHashMap<>(16, 0.75f, true);
+    private long totalBytes = 0;
+
+    public ImageCache(long maxBytes) {
+        if (maxBytes < 0) throw new IllegalArgumentException("maxBytes must not be negative");
+        this.maxBytes = maxBytes;
+    }
+
+    /**
+     * Returns the image with the given key, loading and caching it if it isn't already cached.
+     *
+     * @return the image, or {@code null} if the loader couldn't find it.
+     */
+    public CachedImage get(String key, Loader loader) throws IOException {
+        synchronized (this) {
+            CachedImage image = images.get(key);
+            if (image != null) return image;
+        }
+
+        byte[] bytes = loader.load(key);
+        if (bytes == null) return null;
+        CachedImage image = new CachedImage(bytes, eTag(bytes));
+
+        if (bytes.length <= maxBytes) {
+            put(key, image);
+        }
+        return image;
+    }
+
+    private synchronized void put(String key, CachedImage image) {
+        CachedImage previous = images.put(key, image);
+        if (previous != null) totalBytes -= previous.bytes().length;
+        totalBytes += image.bytes().length;
+
+        Iterator<Map.Entry<String, CachedImage>> leastRecentlyUsed = images.entrySet().iterator();
+        while (totalBytes > maxBytes) {
+            totalBytes -= leastRecentlyUsed.next().getValue().bytes().length;
+            leastRecentlyUsed.remove();
+        }
+    }
+
+    public synchronized boolean contains(String key) {
+        return images.containsKey(key);
+    }
+
+    /**
+     * The number of images in the cache.
+     */
+    public synchronized int size() {
+        return images.size();
+    }
+
+    /**
+     * The total size of the images in the cache, in bytes.
+     */
+    public synchronized long getTotalBytes() {
+        return totalBytes;
+    }
+
+    /**
+     * A strong ETag for the given bytes: the first 128 bits of their SHA-256 hash, in hex. Identical bytes always get
+     * the same ETag, even after a restart, or from another server.
+     */
+    static String eTag(byte[] bytes) {
+        try {
+            byte[] hash = MessageDigest.getInstance("SHA-256").digest(bytes);
+            return "\"" + HexFormat.of().formatHex(hash, 0, 16) + "\"";
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("Every JVM supports SHA-256", e);
+        }
+    }
+}
@@ -0,0 +1,190 @@
+package se325.examples.example04springboot.image;
+
+import javax.imageio.IIOImage;
+import javax.imageio.ImageIO;
+import javax.imageio.ImageWriteParam;
+import javax.imageio.ImageWriter;
+import javax.imageio.stream.ImageOutputStream;
+import javax.imageio.stream.MemoryCacheImageOutputStream;
+import java.awt.*;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.EnumMap;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+/**
+ * Encodes images as PNG, JPEG or GIF, with configurable compression. This does the same job as
+ * {@code ImageIO.write(image, "png", out)}, but more cheaply when it's done over and over:
+ * <ul>
+ *     <li>{@code ImageIO.write()} looks up and creates a new {@link ImageWriter} every time. Here, writers are kept
+ *     in a pool and reused (each one can only be used by one thread at a time).</li>
+ *     <li>When writing to an {@code OutputStream}, {@code ImageIO.write()} caches the output in a temporary file by
+ *     default. Here, images are always encoded in memory, into a buffer which is also reused.</li>
+ *     <li>Since the whole image is in the buffer before it's sent, its length is known, so HTTP responses can have a
+ *     {@code Content-Length} header rather than being chunked.</li>
+ * </ul>
+ * It's safe to use from many threads at once.
+ */
+public class ImageEncoder {
+
+    /**
+     * The deflate level used by PNG, from 0 (fastest, biggest) to 9 (slowest, smallest). 4 is what
+     * {@code ImageIO.write()} uses, so the default output is exactly the same as before.
+     */
+    public static final int DEFAULT_PNG_COMPRESSION_LEVEL = 4;
+
+    /** JPEG quality, from 0 (smallest, worst) to 1 (biggest, best). */
+    public static final float DEFAULT_JPEG_QUALITY = 0.85f;
+
+    /** Buffers which have grown bigger than this are thrown away after use, rather than kept forever. */
+    private static final int MAX_POOLED_BUFFER_BYTES = 4 * 1024 * 1024;
+    private static final int MAX_POOLED_BUFFERS = 16;
+
+    /**
+     * Receives an encoded image. The bytes are only valid until this returns, since the buffer is then reused.
+     */
+    @FunctionalInterface
+    public interface Sink {
+        void accept(byte[] bytes, int length) throws IOException;
+    }
+
+    private final int pngCompressionLevel;
+    private final float jpegQuality;
+
+    private final Map<ImageFormat, Queue<ImageWriter>> writers = new EnumMap<>(ImageFormat.class);
+    private final BlockingQueue<Buffer> buffers = new ArrayBlockingQueue<>(MAX_POOLED_BUFFERS);
+
+    public ImageEncoder() {
+        this(DEFAULT_PNG_COMPRESSION_LEVEL, DEFAULT_JPEG_QUALITY);
+    }
+
+    public ImageEncoder(int pngCompressionLevel, float jpegQuality) {
+        if (pngCompressionLevel < 0 || pngCompressionLevel > 9) {
+            throw new IllegalArgumentException("PNG compression level must be between 0 and 9");
+        }
+        if (jpegQuality < 0 || jpegQuality > 1) {
+            throw new IllegalArgumentException("JPEG quality must be between 0 and 1");
+        }
+        this.pngCompressionLevel = pngCompressionLevel;
+        this.jpegQuality = jpegQuality;
+        for (ImageFormat format : ImageFormat.values()) {
+            writers.put(format, new ConcurrentLinkedQueue<>());
+        }
+    }
+
+    /**
+     * Encodes an image, and returns a copy of the encoded bytes.
+     */
+    public byte[] encode(BufferedImage image, ImageFormat format) throws IOException {
+        byte[][] result = new byte[1][];
+        encode(image, format, (bytes, length) -> result[0] = Arrays.copyOf(bytes, length));
+        return result[0];
+    }
+
+    /**
+     * Encodes an image, and passes the encoded bytes to the given sink, without copying them.
+     */
+    public void encode(BufferedImage image, ImageFormat format, Sink sink) throws IOException {
+        if (!format.supportsAlpha() && image.getColorModel().hasAlpha()) {
+            image = withoutAlpha(image);
+        }
+
+        Buffer buffer = borrowBuffer();
+        ImageWriter writer = borrowWriter(format);
+        boolean reusable = false;
+        try {
+            try (ImageOutputStream out = new MemoryCacheImageOutputStream(buffer)) {
+                writer.setOutput(out);
+                writer.write(null, new IIOImage(image, null, null), writeParam(writer, format));
+            }
+            writer.reset();
+            reusable = true;
+
+            sink.accept(buffer.array(), buffer.size());
+        } finally {
+            if (reusable) {
+                writers.get(format).offer(writer);
+            } else {
+                // It failed part-way through writing, so who knows what state it's in
+                writer.dispose();
+            }
+            returnBuffer(buffer);
+        }
+    }
+
+    private ImageWriteParam writeParam(ImageWriter writer, ImageFormat format) {
+        ImageWriteParam param = writer.getDefaultWriteParam();
+        float quality = switch (format) {
+            // ImageIO's PNG writer turns quality 1 into deflate level 0 (no compression), and 0 into level 9
+            case PNG -> 1 - pngCompressionLevel / 9f;
+            case JPEG -> jpegQuality;
+            default -> -1;
+        };
+        if (quality >= 0 && param.canWriteCompressed()) {
+            param.setCompressionMode(ImageWriteParam.MODE_EXPLICIT);
+            param.setCompressionType(param.getCompressionTypes()[0]);
+            param.setCompressionQuality(quality);
+        }
+        return param;
+    }
+
+    private ImageWriter borrowWriter(ImageFormat format) {
+        ImageWriter writer = writers.get(format).poll();
+        if (writer != null) return writer;
+
+        Iterator<ImageWriter> available = ImageIO.getImageWritersByFormatName(format.getFormatName());
+        if (!available.hasNext()) throw new IllegalStateException("No ImageIO writer for " + format);
+        return available.next();
+    }
+
+    private Buffer borrowBuffer() {
+        Buffer buffer = buffers.poll();
+        return buffer != null ? buffer : new Buffer();
+    }
+
+    private void returnBuffer(Buffer buffer) {
+        if (buffer.capacity() <= MAX_POOLED_BUFFER_BYTES) {
+            buffer.reset();
+            buffers.offer(buffer); // If the pool is already full, the buffer is just garbage collected
+        }
+    }
+
+    /**
+     * Draws an image on a white background, for formats which can't store transparency.
+     */
+    private static BufferedImage withoutAlpha(BufferedImage image) {
+        BufferedImage opaque = new BufferedImage(image.getWidth(), image.getHeight(), BufferedImage.TYPE_INT_RGB);
+        Graphics2D g = opaque.createGraphics();
+        try {
+            g.drawImage(image, 0, 0, Color.WHITE, null);
+        } finally {
+            g.dispose();
+        }
+        return opaque;
+    }
+
+    /**
+     * A {@link ByteArrayOutputStream} whose array can be read directly, rather than copied.
+     */
+    private static class Buffer extends ByteArrayOutputStream {
+
+        Buffer() {
+            super(64 * 1024);
+        }
+
+        byte[] array() {
+            return buf;
+        }
+
+        int capacity() {
+            return buf.length;
+        }
+    }
+}
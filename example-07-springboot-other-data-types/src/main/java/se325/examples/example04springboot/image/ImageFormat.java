@@ -0,0 +1,62 @@
+package se325.examples.example04springboot.image;
+
+import java.util.Optional;
+
+/**
+ * The image formats we can send. Java's {@code ImageIO} can write all of these without any extra libraries.
+ */
+public enum ImageFormat {
+
+    /** Lossless, and supports transparency. The default. */
+    PNG("image/png", "png", true),
+
+    /** Lossy, and no transparency, but usually much smaller than PNG for photos. */
+    JPEG("image/jpeg", "jpeg", false),
+
+    /** Lossless, but only 256 colours. */
+    GIF("image/gif", "gif", true);
+
+    private final String mediaType;
+    private final String formatName;
+    private final boolean supportsAlpha;
+
+    ImageFormat(String mediaType, String formatName, boolean supportsAlpha) {
+        this.mediaType = mediaType;
+        this.formatName = formatName;
+        this.supportsAlpha = supportsAlpha;
+    }
+
+    /**
+     * The format's MIME type, e.g. {@code image/png}.
+     */
+    public String getMediaType() {
+        return mediaType;
+    }
+
+    /**
+     * The format's name, as {@code ImageIO} knows it.
+     */
+    public String getFormatName() {
+        return formatName;
+    }
+
+    /**
+     * Whether the format can store transparent pixels. Images with transparency are drawn on a white background
+     * before being written in formats which can't.
+     */
+    public boolean supportsAlpha() {
+        return supportsAlpha;
+    }
+
+    /**
+     * Finds the format with the given MIME type (ignoring case and any parameters).
+     */
+    public static Optional<ImageFormat> fromMediaType(String mediaType) {
+        int parameters = mediaType.indexOf(';');
+        String type = (parameters < 0 ? mediaType : mediaType.substring(0, parameters)).trim();
+        for (ImageFormat format : values()) {
+            if (format.mediaType.equalsIgnoreCase(type)) return Optional.of(format);
+        }
+        return Optional.empty();
+    }
+}
@@ -0,0 +1,73 @@
+package se325.examples.example04springboot.image;
+
+import java.awt.*;
+import java.awt.image.BufferedImage;
+
+/**
+ * Draws placeholder images: a solid background, with some text in the middle, in the biggest font (up to
+ * {@link #MAX_FONT_SIZE}) which fits.
+ * <p>
+ * The {@link FontMetrics} of every font size are worked out once, when this is created, and shared by every image.
+ * Finding the biggest font which fits is then a binary search through them, rather than creating a new {@link Font}
+ * (and measuring it) for every size from the biggest down.
+ */
+public class PlaceholderRenderer {
+
+    public static final int MAX_FONT_SIZE = 24;
+    private static final String FONT_NAME = "Arial";
+
+    /** The metrics of each font size (so metrics[0] isn't used). */
+    private final FontMetrics[] metrics = new FontMetrics[MAX_FONT_SIZE + 1];
+
+    public PlaceholderRenderer() {
+        /* The metrics depend on how text will be drawn, so they come from the same kind of image as we'll draw on. */
+        Graphics2D g = new BufferedImage(1, 1, BufferedImage.TYPE_INT_ARGB).createGraphics();
+        try {
+            for (int size = 1; size <= MAX_FONT_SIZE; size++) {
+                metrics[size] = g.getFontMetrics(new Font(FONT_NAME, Font.BOLD, size));
+            }
+        } finally {
+            g.dispose();
+        }
+    }
+
+    public BufferedImage render(int width, int height, Color color, Color backgroundColor, String text) {
+        BufferedImage image = new BufferedImage(width, height, BufferedImage.TYPE_INT_ARGB);
+        Graphics2D g = image.createGraphics();
+        try {
+            g.setColor(backgroundColor);
+            g.fillRect(0, 0, width, height);
+
+            FontMetrics fontMetrics = fit(text, width, height);
+            g.setColor(color);
+            g.setFont(fontMetrics.getFont());
+            g.drawString(text, (width - fontMetrics.stringWidth(text)) / 2,
+                    (height - fontMetrics.getHeight()) / 2 + fontMetrics.getAscent());
+        } finally {
+            g.dispose();
+        }
+        return image;
+    }
+
+    /**
+     * Returns the metrics of the biggest font in which the text fits in the given space, or of the smallest font if
+     * it doesn't fit in any of them. Since bigger fonts are never smaller, this can be a binary search.
+     */
+    FontMetrics fit(String text, int width, int height) {
+        int low = 1;
+        int high = MAX_FONT_SIZE;
+        while (low < high) {
+            int size = (low + high + 1) / 2;
+            if (fits(metrics[size], text, width, height)) {
+                low = size;
+            } else {
+                high = size - 1;
+            }
+        }
+        return metrics[low];
+    }
+
+    static boolean fits(FontMetrics fontMetrics, String text, int width, int height) {
+        return fontMetrics.stringWidth(text) <= width && fontMetrics.getHeight() <= height;
+    }
+}
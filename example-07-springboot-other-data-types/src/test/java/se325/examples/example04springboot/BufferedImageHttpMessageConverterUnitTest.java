@@ -0,0 +1,41 @@
+package se325.examples.example04springboot;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.http.MediaType;
+import org.springframework.mock.http.MockHttpInputMessage;
+import org.springframework.mock.http.MockHttpOutputMessage;
+import se325.examples.example04springboot.image.ImageEncoder;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.awt.image.BufferedImage;
+import java.io.IOException;
+
+public class BufferedImageHttpMessageConverterUnitTest {
+
+    private final BufferedImageHttpMessageConverter converter = new BufferedImageHttpMessageConverter(new ImageEncoder());
+    private final BufferedImage image = new BufferedImage(64, 32, BufferedImage.TYPE_INT_ARGB);
+
+    @Test
+    public void testWriteSetsContentLength() throws IOException {
+        for (MediaType type : new MediaType[]{MediaType.IMAGE_PNG, MediaType.IMAGE_JPEG, MediaType.IMAGE_GIF}) {
+            MockHttpOutputMessage message = new MockHttpOutputMessage();
+            converter.write(image, type, message);
+
+            assertEquals(type, message.getHeaders().getContentType());
+            assertEquals(message.getBodyAsBytes().length, message.getHeaders().getContentLength());
+
+            BufferedImage decoded = converter.read(BufferedImage.class, new MockHttpInputMessage(message.getBodyAsBytes()));
+            assertEquals(64, decoded.getWidth());
+            assertEquals(32, decoded.getHeight());
+        }
+    }
+
+    @Test
+    public void testWriteDefaultsToPng() throws IOException {
+        MockHttpOutputMessage message = new MockHttpOutputMessage();
+        converter.write(image, null, message);
+
+        assertEquals(MediaType.IMAGE_PNG, message.getHeaders().getContentType());
+    }
+}
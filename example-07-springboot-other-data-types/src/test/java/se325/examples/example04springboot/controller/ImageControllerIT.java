@@ -0,0 +1,197 @@
+package se325.examples.example04springboot.controller;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.request.MockMvcRequestBuilders;
+import org.springframework.http.MediaType;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.web.servlet.MockMvc;
+
+import javax.imageio.ImageIO;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.MOCK)
+@AutoConfigureMockMvc
+public class ImageControllerIT {
+
+    @Autowired
+    private MockMvc mvc;
+
+    @Test
+    public void testGetImage() throws Exception {
+        MvcResult result = mvc.perform(MockMvcRequestBuilders
+                        .get("/images/Dragonite.png")
+                        .accept(MediaType.IMAGE_PNG))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType(MediaType.IMAGE_PNG))
+                .andExpect(header().exists(HttpHeaders.ETAG))
+                .andReturn();
+
+        BufferedImage image = ImageIO.read(new ByteArrayInputStream(result.getResponse().getContentAsByteArray()));
+        assertNotNull(image);
+
+        /* The second request is served from the cache, and must be identical. */
+        MvcResult again = mvc.perform(MockMvcRequestBuilders
+                        .get("/images/Dragonite.png")
+                        .accept(MediaType.IMAGE_PNG))
+                .andExpect(status().isOk())
+                .andReturn();
+
+        assertEquals(result.getResponse().getHeader(HttpHeaders.ETAG), again.getResponse().getHeader(HttpHeaders.ETAG));
+        assertArrayEquals(result.getResponse().getContentAsByteArray(), again.getResponse().getContentAsByteArray());
+    }
+
+    @Test
+    public void testGetImageNotModified() throws Exception {
+        String eTag = mvc.perform(MockMvcRequestBuilders
+                        .get("/images/Dragonite-Shiny.png")
+                        .accept(MediaType.IMAGE_PNG))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+
+        mvc.perform(MockMvcRequestBuilders
+                        .get("/images/Dragonite-Shiny.png")
+                        .accept(MediaType.IMAGE_PNG)
+                        .header(HttpHeaders.IF_NONE_MATCH, eTag))
+                .andExpect(status().isNotModified())
+                .andExpect(header().string(HttpHeaders.ETAG, eTag))
+                .andExpect(content().bytes(new byte[0]));
+
+        /* A different image's ETag doesn't match. */
+        mvc.perform(MockMvcRequestBuilders
+                        .get("/images/Dragonite.png")
+                        .accept(MediaType.IMAGE_PNG)
+                        .header(HttpHeaders.IF_NONE_MATCH, eTag))
+                .andExpect(status().isOk());
+    }
+
+    @Test
+    public void testGetImageNotFound() throws Exception {
+        mvc.perform(MockMvcRequestBuilders
+                        .get("/images/Charizard.png")
+                        .accept(MediaType.IMAGE_PNG))
+                .andExpect(status().isNotFound());
+
+        /* Resources which aren't images aren't found either. */
+        mvc.perform(MockMvcRequestBuilders
+                        .get("/images/application.properties")
+                        .accept(MediaType.IMAGE_PNG))
+                .andExpect(status().isNotFound());
+    }
+
+    @Test
+    public void testGetPlaceholderImage() throws Exception {
+        MvcResult result = mvc.perform(MockMvcRequestBuilders
+                        .get("/images/placeholder?width=120&height=40&color=0,0,0&background-color=255,0,0&text=Hello")
+                        .accept(MediaType.IMAGE_PNG))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType(MediaType.IMAGE_PNG))
+                .andExpect(header().exists(HttpHeaders.ETAG))
+                .andReturn();
+
+        BufferedImage image = ImageIO.read(new ByteArrayInputStream(result.getResponse().getContentAsByteArray()));
+        assertEquals(120, image.getWidth());
+        assertEquals(40, image.getHeight());
+        assertEquals(0xFFFF0000, image.getRGB(0, 0));
+
+        /* The same placeholder again comes from the cache. */
+        mvc.perform(MockMvcRequestBuilders
+                        .get("/images/placeholder?width=120&height=40&color=0,0,0&background-color=255,0,0&text=Hello")
+                        .accept(MediaType.IMAGE_PNG)
+                        .header(HttpHeaders.IF_NONE_MATCH, result.getResponse().getHeader(HttpHeaders.ETAG)))
+                .andExpect(status().isNotModified());
+
+        /* A different one doesn't. */
+        mvc.perform(MockMvcRequestBuilders
+                        .get("/images/placeholder?width=120&height=40&color=0,0,0&background-color=255,0,0&text=Hello!")
+                        .accept(MediaType.IMAGE_PNG)
+                        .header(HttpHeaders.IF_NONE_MATCH, result.getResponse().getHeader(HttpHeaders.ETAG)))
+                .andExpect(status().isOk());
+    }
+
+    @Test
+    public void testGetPlaceholderImageWithInvalidParameters() throws Exception {
+        mvc.perform(MockMvcRequestBuilders
+                        .get("/images/placeholder?width=0")
+                        .accept(MediaType.IMAGE_PNG))
+                .andExpect(status().isBadRequest());
+
+        mvc.perform(MockMvcRequestBuilders
+                        .get("/images/placeholder?color=300,0,0")
+                        .accept(MediaType.IMAGE_PNG))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    public void testGetImageInAcceptedFormat() throws Exception {
+        MvcResult result = mvc.perform(MockMvcRequestBuilders
+                        .get("/images/Dragonite.png")
+                        .accept(MediaType.IMAGE_JPEG))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType(MediaType.IMAGE_JPEG))
+                .andExpect(header().string(HttpHeaders.VARY, HttpHeaders.ACCEPT))
+                .andReturn();
+
+        BufferedImage image = ImageIO.read(new ByteArrayInputStream(result.getResponse().getContentAsByteArray()));
+        assertEquals(512, image.getWidth());
+
+        /* The client's most preferred type wins, whatever order they're listed in. */
+        mvc.perform(MockMvcRequestBuilders
+                        .get("/images/Dragonite.png")
+                        .header(HttpHeaders.ACCEPT, "image/png;q=0.5, image/gif"))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType(MediaType.IMAGE_GIF));
+
+        /* Any image type gets a PNG. */
+        mvc.perform(MockMvcRequestBuilders
+                        .get("/images/placeholder")
+                        .header(HttpHeaders.ACCEPT, "image/*"))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType(MediaType.IMAGE_PNG));
+
+        mvc.perform(MockMvcRequestBuilders
+                        .get("/images/Dragonite.png")
+                        .accept(MediaType.TEXT_PLAIN))
+                .andExpect(status().isNotAcceptable());
+    }
+
+    @Test
+    public void testGetImageExcludingFormats() throws Exception {
+        /* q=0 rules a format out, even though a wildcard also includes it. */
+        mvc.perform(MockMvcRequestBuilders
+                        .get("/images/Dragonite.png")
+                        .header(HttpHeaders.ACCEPT, "image/*, image/png;q=0"))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType(MediaType.IMAGE_JPEG));
+
+        mvc.perform(MockMvcRequestBuilders
+                        .get("/images/placeholder")
+                        .header(HttpHeaders.ACCEPT, "image/*, image/png;q=0, image/jpeg;q=0"))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType(MediaType.IMAGE_GIF));
+
+        /* With equal qualities, the format named explicitly wins over those matched by a wildcard. */
+        mvc.perform(MockMvcRequestBuilders
+                        .get("/images/Dragonite.png")
+                        .header(HttpHeaders.ACCEPT, "image/*;q=0.5, image/gif;q=0.5"))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType(MediaType.IMAGE_GIF));
+
+        mvc.perform(MockMvcRequestBuilders
+                        .get("/images/Dragonite.png")
+                        .header(HttpHeaders.ACCEPT, "image/png;q=0, image/jpeg;q=0, image/gif;q=0"))
+                .andExpect(status().isNotAcceptable());
+    }
+}
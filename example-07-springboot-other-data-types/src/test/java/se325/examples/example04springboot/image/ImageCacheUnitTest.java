@@ -0,0 +1,80 @@
+package se325.examples.example04springboot.image;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+public class ImageCacheUnitTest {
+
+    @Test
+    public void testLoadsOnce() throws IOException {
+        ImageCache cache = new ImageCache(1000);
+        AtomicInteger loads = new AtomicInteger();
+        ImageCache.Loader loader = key -> {
+            loads.incrementAndGet();
+            return new byte[100];
+        };
+
+        ImageCache.CachedImage first = cache.get("a", loader);
+        ImageCache.CachedImage second = cache.get("a", loader);
+
+        assertSame(first, second);
+        assertEquals(1, loads.get());
+        assertEquals(100, cache.getTotalBytes());
+    }
+
+    @Test
+    public void testETags() throws IOException {
+        ImageCache cache = new ImageCache(1000);
+
+        String a = cache.get("a", key -> new byte[]{1, 2, 3}).eTag();
+        String b = cache.get("b", key -> new byte[]{1, 2, 3}).eTag();
+        String c = cache.get("c", key -> new byte[]{1, 2, 4}).eTag();
+
+        assertTrue(a.startsWith("\"") && a.endsWith("\""));
+        assertEquals(a, b);
+        assertNotEquals(a, c);
+    }
+
+    @Test
+    public void testEvictsLeastRecentlyUsed() throws IOException {
+        ImageCache cache = new ImageCache(300);
+        ImageCache.Loader loader = key -> new byte[100];
+
+        cache.get("a", loader);
+        cache.get("b", loader);
+        cache.get("c", loader);
+        cache.get("a", loader); // Now b is the least recently used
+        cache.get("d", loader);
+
+        assertTrue(cache.contains("a"));
+        assertFalse(cache.contains("b"));
+        assertTrue(cache.contains("c"));
+        assertTrue(cache.contains("d"));
+        assertEquals(300, cache.getTotalBytes());
+
+        /* Making room for a big image evicts several small ones. */
+        cache.get("e", key -> new byte[250]);
+        assertEquals(1, cache.size());
+        assertEquals(250, cache.getTotalBytes());
+    }
+
+    @Test
+    public void testDoesNotCacheMissingOrHugeImages() throws IOException {
+        ImageCache cache = new ImageCache(100);
+
+        assertNull(cache.get("missing", key -> null));
+        assertEquals(101, cache.get("huge", key -> new byte[101]).bytes().length);
+
+        assertEquals(0, cache.size());
+        assertEquals(0, cache.getTotalBytes());
+    }
+}
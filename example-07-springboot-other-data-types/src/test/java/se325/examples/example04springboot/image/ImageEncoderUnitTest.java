@@ -0,0 +1,88 @@
+package se325.examples.example04springboot.image;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import javax.imageio.ImageIO;
+import java.awt.*;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.util.Arrays;
+
+public class ImageEncoderUnitTest {
+
+    @Test
+    public void testEncodesEveryFormat() throws IOException {
+        ImageEncoder encoder = new ImageEncoder();
+        BufferedImage image = new PlaceholderRenderer().render(80, 40, Color.WHITE, new Color(20, 20, 20, 128), "Hi");
+
+        for (ImageFormat format : ImageFormat.values()) {
+            byte[] bytes = encoder.encode(image, format);
+
+            assertEquals(format.getFormatName(), ImageIO.getImageReaders(ImageIO.createImageInputStream(
+                    new ByteArrayInputStream(bytes))).next().getFormatName().toLowerCase());
+            BufferedImage decoded = ImageIO.read(new ByteArrayInputStream(bytes));
+            assertNotNull(decoded, format::toString);
+            assertEquals(80, decoded.getWidth());
+            assertEquals(40, decoded.getHeight());
+        }
+    }
+
+    @Test
+    public void testPngIsLossless() throws IOException {
+        BufferedImage image = new PlaceholderRenderer().render(50, 20, Color.YELLOW, Color.MAGENTA, "Hi");
+
+        BufferedImage decoded = ImageIO.read(new ByteArrayInputStream(new ImageEncoder().encode(image, ImageFormat.PNG)));
+        for (int y = 0; y < image.getHeight(); y++) {
+            for (int x = 0; x < image.getWidth(); x++) {
+                assertEquals(image.getRGB(x, y), decoded.getRGB(x, y));
+            }
+        }
+    }
+
+    @Test
+    public void testCompressionSettings() throws IOException {
+        BufferedImage image = new PlaceholderRenderer().render(300, 100, Color.WHITE, Color.BLACK, "Compress me");
+
+        int uncompressed = new ImageEncoder(0, 0.85f).encode(image, ImageFormat.PNG).length;
+        int compressed = new ImageEncoder(9, 0.85f).encode(image, ImageFormat.PNG).length;
+        assertTrue(compressed < uncompressed, compressed + " < " + uncompressed);
+
+        int lowQuality = new ImageEncoder(6, 0.1f).encode(image, ImageFormat.JPEG).length;
+        int highQuality = new ImageEncoder(6, 1f).encode(image, ImageFormat.JPEG).length;
+        assertTrue(lowQuality < highQuality, lowQuality + " < " + highQuality);
+
+        assertThrows(IllegalArgumentException.class, () -> new ImageEncoder(10, 0.85f));
+        assertThrows(IllegalArgumentException.class, () -> new ImageEncoder(6, 1.5f));
+    }
+
+    /**
+     * Writers and buffers are reused, so encoding the same image again must give exactly the same bytes - even after
+     * encoding a different (bigger) one in between.
+     */
+    @Test
+    public void testReuse() throws IOException {
+        ImageEncoder encoder = new ImageEncoder();
+        PlaceholderRenderer renderer = new PlaceholderRenderer();
+        BufferedImage small = renderer.render(20, 20, Color.WHITE, Color.RED, "1");
+        BufferedImage big = renderer.render(400, 300, Color.WHITE, Color.BLUE, "2");
+
+        byte[] first = encoder.encode(small, ImageFormat.PNG);
+        encoder.encode(big, ImageFormat.PNG);
+        byte[] second = encoder.encode(small, ImageFormat.PNG);
+
+        assertTrue(Arrays.equals(first, second));
+    }
+
+    @Test
+    public void testFromMediaType() {
+        assertEquals(ImageFormat.JPEG, ImageFormat.fromMediaType("image/jpeg").orElseThrow());
+        assertEquals(ImageFormat.PNG, ImageFormat.fromMediaType("IMAGE/PNG; q=0.5").orElseThrow());
+        assertTrue(ImageFormat.fromMediaType("image/webp").isEmpty());
+    }
+}
@@ -0,0 +1,50 @@
+package se325.examples.example04springboot.image;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.awt.*;
+import java.awt.image.BufferedImage;
+
+public class PlaceholderRendererUnitTest {
+
+    private final PlaceholderRenderer renderer = new PlaceholderRenderer();
+
+    /**
+     * The binary search must pick the same font size as trying every size from the biggest down, which is how
+     * placeholders used to be drawn.
+     */
+    @Test
+    public void testFitMatchesLinearSearch() {
+        Graphics2D g = new BufferedImage(1, 1, BufferedImage.TYPE_INT_ARGB).createGraphics();
+        try {
+            for (String text : new String[]{"Placeholder 100 x 50", "W", "A much longer piece of placeholder text"}) {
+                for (int width = 1; width <= 400; width += 7) {
+                    for (int height = 1; height <= 40; height += 3) {
+                        int expected = PlaceholderRenderer.MAX_FONT_SIZE;
+                        while (expected > 1 && !PlaceholderRenderer.fits(
+                                g.getFontMetrics(new Font("Arial", Font.BOLD, expected)), text, width, height)) {
+                            expected--;
+                        }
+
+                        int w = width, h = height;
+                        assertEquals(expected, renderer.fit(text, width, height).getFont().getSize(),
+                                () -> text + " in " + w + " x " + h);
+                    }
+                }
+            }
+        } finally {
+            g.dispose();
+        }
+    }
+
+    @Test
+    public void testRender() {
+        BufferedImage image = renderer.render(60, 30, Color.WHITE, Color.BLUE, "Hi");
+
+        assertEquals(60, image.getWidth());
+        assertEquals(30, image.getHeight());
+        assertEquals(Color.BLUE.getRGB(), image.getRGB(0, 0));
+    }
+}
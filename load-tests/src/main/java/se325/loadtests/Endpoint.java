@@ -0,0 +1,21 @@
+package se325.loadtests;
+
+import java.net.http.HttpRequest;
+import java.util.Random;
+import java.util.function.Function;
+
+/**
+ * Something to load test: a way of creating requests to one of a web service's operations, and the status code which
+ * a successful response has. Any other status code counts as an error.
+ *
+ * @param name           a short name for the endpoint, used in results and with {@code --endpoints=}.
+ * @param requests       creates each request. Requests may vary (e.g. to ask for a different id each time), using the
+ *                       given {@link Random}.
+ * @param expectedStatus the status code of a successful response.
+ */
+public record Endpoint(String name, Function<Random, HttpRequest> requests, int expectedStatus) {
+
+    public static Endpoint ok(String name, Function<Random, HttpRequest> requests) {
+        return new Endpoint(name, requests, 200);
+    }
+}
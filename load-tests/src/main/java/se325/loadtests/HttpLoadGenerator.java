@@ -0,0 +1,113 @@
+package se325.loadtests;
+
+import se325.util.LatencyHistogram;
+import se325.util.LoadTest;
+
+import java.io.IOException;
+import java.net.http.HttpClient;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import java.util.Random;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Load tests each endpoint of one of the web services (see {@link Target}), one endpoint at a time, and reports each
+ * one's throughput, latency percentiles and error rate. Unlike the {@code *IT} tests, which check that each endpoint
+ * gives the right answer, this measures how many answers it can give per second, and how quickly.
+ * <p>
+ * Start the service first (see the README), then run this with e.g. {@code --target=dad-jokes}. Other arguments:
+ * <ul>
+ *     <li>{@code --base=} the service's URL, if it's not at the usual one (see {@link Target#getDefaultBase()});</li>
+ *     <li>{@code --endpoints=} a comma-separated list of the endpoints to test (all of them by default);</li>
+ *     <li>{@code --connections=}, {@code --rate=}, {@code --warmup=}, {@code --duration=} and {@code --csv=}, as for
+ *     {@link LoadTest.Options}. Each result is labelled with the target and endpoint, e.g. {@code dad-jokes/search},
+ *     unless a {@code --label=} is given, in which case that is used as a prefix.</li>
+ * </ul>
+ * A request counts as an error if it fails, takes longer than 10 seconds, or gets the wrong status code.
+ */
+public class HttpLoadGenerator {
+
+    public static void main(String[] args) throws Exception {
+        String targetName = LoadTest.Options.option(args, "target", null);
+        if (targetName == null) {
+            System.err.println("Usage: HttpLoadGenerator --target=<" + targetNames() + "> [--base=url]"
+                    + " [--endpoints=a,b,...] [--connections=n] [--rate=requests/s] [--warmup=s] [--duration=s]"
+                    + " [--csv=file] [--label=prefix]");
+            System.exit(1);
+        }
+        Target target = Target.fromName(targetName);
+        String base = LoadTest.Options.option(args, "base", target.getDefaultBase());
+        String only = LoadTest.Options.option(args, "endpoints", null);
+        String labelPrefix = LoadTest.Options.option(args, "label", null);
+
+        /*
+         * A single client is shared by every connection. It keeps a pool of HTTP/1.1 connections, opening a new one
+         * whenever every existing one is busy, so it ends up with (at most) one connection per load test connection.
+         */
+        HttpClient client = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .connectTimeout(Duration.ofSeconds(5))
+                .build();
+
+        List<Endpoint> endpoints = new ArrayList<>(target.prepare(client, base));
+        if (only != null) {
+            List<String> names = Arrays.asList(only.split(","));
+            endpoints.removeIf(endpoint -> !names.contains(endpoint.name()));
+        }
+
+        List<String> rows = new ArrayList<>();
+        for (Endpoint endpoint : endpoints) {
+            LoadTest.Options options = LoadTest.Options.parse(args);
+            String label = target.getName() + "/" + endpoint.name();
+            options.label = labelPrefix == null ? label : labelPrefix + " " + label;
+
+            System.out.println("Testing " + options.label + "...");
+            LoadTest.Result result = new LoadTest(options, () -> () -> send(client, endpoint)).run();
+            System.out.println(result);
+            result.appendTo(options.csv);
+            rows.add(summarize(endpoint.name(), result));
+        }
+
+        System.out.println();
+        System.out.printf("%-22s %10s %8s %12s %10s %10s %10s %10s%n",
+                "Endpoint", "Requests", "Error %", "Requests/s", "p50 (ms)", "p99 (ms)", "p99.9 (ms)", "Max (ms)");
+        rows.forEach(System.out::println);
+        System.out.println("Results appended to " + LoadTest.Options.parse(args).csv);
+    }
+
+    /**
+     * Sends a single request to the given endpoint, and reads the whole response.
+     *
+     * @throws IOException if the request fails, or the response has the wrong status code
+     */
+    private static void send(HttpClient client, Endpoint endpoint) throws IOException, InterruptedException {
+        Random random = ThreadLocalRandom.current();
+        HttpResponse<Void> response = client.send(endpoint.requests().apply(random),
+                HttpResponse.BodyHandlers.discarding());
+        if (response.statusCode() != endpoint.expectedStatus()) {
+            throw new IOException("Expected status " + endpoint.expectedStatus() + " but got " + response.statusCode());
+        }
+    }
+
+    private static String summarize(String endpoint, LoadTest.Result result) {
+        LatencyHistogram latencies = result.getLatencies();
+        long attempted = latencies.getCount() + result.getErrors();
+        double errorRate = attempted == 0 ? 0 : 100.0 * result.getErrors() / attempted;
+        return String.format(Locale.ROOT, "%-22s %10d %7.2f%% %12.1f %10.2f %10.2f %10.2f %10.2f",
+                endpoint, latencies.getCount(), errorRate, result.getThroughput(),
+                latencies.getValueAtPercentile(50) / 1e6, latencies.getValueAtPercentile(99) / 1e6,
+                latencies.getValueAtPercentile(99.9) / 1e6, latencies.getMax() / 1e6);
+    }
+
+    private static String targetNames() {
+        List<String> names = new ArrayList<>();
+        for (Target target : Target.values()) {
+            names.add(target.getName());
+        }
+        return String.join("|", names);
+    }
+}
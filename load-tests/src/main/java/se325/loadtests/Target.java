@@ -0,0 +1,225 @@
+package se325.loadtests;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.URLEncoder;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Random;
+
+/**
+ * The web services which can be load tested, and the endpoints of each. Each of these must already be running - see
+ * the README for how to start them.
+ */
+public enum Target {
+
+    /**
+     * Example 03's servlets ({@code mvn jetty:run}), including the batch form of {@code MultiplyServlet}.
+     */
+    SERVLETS("http://localhost:8080/my-app") {
+        @Override
+        List<Endpoint> prepare(HttpClient client, String base) {
+            return List.of(
+                    Endpoint.ok("hello", random -> get(base + "/hello")),
+                    Endpoint.ok("async-hello", random -> get(base + "/asyncHello")),
+                    Endpoint.ok("multiply", random -> get(base + "/basicMultiply?num1=" + random.nextInt(10_000)
+                            + "&num2=" + random.nextInt(10_000))),
+                    Endpoint.ok("async-multiply", random -> get(base + "/asyncMultiply?num1=" + random.nextInt(10_000)
+                            + "&num2=" + random.nextInt(10_000))),
+                    Endpoint.ok("multiply-batch", random -> multiplyBatch(base + "/basicMultiply", random)),
+                    Endpoint.ok("async-multiply-batch", random -> multiplyBatch(base + "/asyncMultiply", random)));
+        }
+    },
+
+    /**
+     * Example 07's {@code GreetingController} ({@code mvn spring-boot:run}). Example 04's can be tested too, but it
+     * only produces JSON, so {@code hello-text} gets 406 Not Acceptable - use {@code --endpoints=hello-json}.
+     */
+    GREETINGS("http://localhost:8080") {
+        @Override
+        List<Endpoint> prepare(HttpClient client, String base) {
+            return List.of(
+                    Endpoint.ok("hello-json", random -> request(base + "/greetings/hello?name=" + randomName(random))
+                            .header("Accept", "application/json").GET().build()),
+                    Endpoint.ok("hello-text", random -> request(base + "/greetings/hello?name=" + randomName(random))
+                            .header("Accept", "text/plain").GET().build()));
+        }
+    },
+
+    /**
+     * Example 05's {@code DadJokesController} ({@code mvn spring-boot:run}). The {@code add} endpoint is last, since the
+     * jokes it adds make the other endpoints' jobs harder.
+     */
+    DAD_JOKES("http://localhost:8080") {
+        private static final String[] SEARCHES = {"what do you call", "skeletons", "cheese", "nothing matches this"};
+
+        @Override
+        List<Endpoint> prepare(HttpClient client, String base) {
+            return List.of(
+                    Endpoint.ok("list", random -> get(base + "/dad-jokes")),
+                    Endpoint.ok("page", random -> get(base + "/dad-jokes?limit=5&after=" + random.nextInt(6))),
+                    Endpoint.ok("stream", random -> request(base + "/dad-jokes")
+                            .header("Accept", "application/x-ndjson").GET().build()),
+                    Endpoint.ok("search", random -> get(base + "/dad-jokes?search="
+                            + URLEncoder.encode(SEARCHES[random.nextInt(SEARCHES.length)], StandardCharsets.UTF_8))),
+                    Endpoint.ok("random", random -> get(base + "/dad-jokes/random")),
+                    Endpoint.ok("by-id", random -> get(base + "/dad-jokes/" + (1 + random.nextInt(10)))),
+                    new Endpoint("add", random -> postJson(base + "/dad-jokes",
+                            "{\"text\": \"Load test joke " + random.nextInt() + "\"}"), 201));
+        }
+    },
+
+    /**
+     * Example 07's {@code ImageController} ({@code mvn spring-boot:run}).
+     */
+    IMAGES("http://localhost:8080") {
+        @Override
+        List<Endpoint> prepare(HttpClient client, String base) {
+            return List.of(
+                    Endpoint.ok("image", random -> get(base + "/images/Dragonite.png")),
+                    Endpoint.ok("placeholder", random -> get(base + "/images/placeholder?width=300&height=200")),
+                    Endpoint.ok("placeholder-text", random -> get(base + "/images/placeholder?width=300&height=200"
+                            + "&text=" + randomName(random))));
+        }
+    },
+
+    /**
+     * The {@code ParoleeController} from example 10 or 13 ({@code mvn spring-boot:run}). Their databases start out
+     * empty, so some parolees are created before the test starts.
+     */
+    PAROLEES("http://localhost:8080") {
+        private static final int PAROLEE_COUNT = 20;
+
+        @Override
+        List<Endpoint> prepare(HttpClient client, String base) throws IOException, InterruptedException {
+            List<Long> ids = new ArrayList<>();
+            Random random = new Random(325);
+            for (int i = 0; i < PAROLEE_COUNT; i++) {
+                HttpResponse<Void> response = client.send(postJson(base + "/parolees", paroleeJson(random)),
+                        HttpResponse.BodyHandlers.discarding());
+                if (response.statusCode() != 201) {
+                    throw new IOException("Couldn't create a parolee: status " + response.statusCode());
+                }
+                String location = response.headers().firstValue("Location")
+                        .orElseThrow(() -> new IOException("Created parolee has no Location"));
+                ids.add(Long.parseLong(location.substring(location.lastIndexOf('/') + 1)));
+            }
+
+            return List.of(
+                    Endpoint.ok("by-id", r -> get(base + "/parolees/" + ids.get(r.nextInt(ids.size())))),
+                    Endpoint.ok("list", r -> get(base + "/parolees")),
+                    Endpoint.ok("page", r -> get(base + "/parolees?page=" + r.nextInt(2) + "&size=10")),
+                    Endpoint.ok("movements", r -> get(base + "/parolees/" + ids.get(r.nextInt(ids.size()))
+                            + "/movements")),
+                    new Endpoint("add-movement", r -> postJson(base + "/parolees/" + ids.get(r.nextInt(ids.size()))
+                            + "/movements", movementJson(r)), 204),
+                    new Endpoint("create", r -> postJson(base + "/parolees", paroleeJson(r)), 201));
+        }
+    };
+
+    /** Requests which take longer than this count as errors. */
+    private static final Duration REQUEST_TIMEOUT = Duration.ofSeconds(10);
+
+    private static final String[] NAMES = {"Alice", "Bob", "Catherine", "Nasser", "Oliver", "Zoran"};
+
+    private final String defaultBase;
+
+    Target(String defaultBase) {
+        this.defaultBase = defaultBase;
+    }
+
+    /**
+     * The URL the service is at when started in the usual way.
+     */
+    public String getDefaultBase() {
+        return defaultBase;
+    }
+
+    /**
+     * Sets up the service at the given base URL (if it needs any data first), and returns its endpoints in the order
+     * they should be tested.
+     */
+    abstract List<Endpoint> prepare(HttpClient client, String base) throws IOException, InterruptedException;
+
+    /**
+     * Finds a target by its name on the command line, e.g. {@code dad-jokes}.
+     */
+    public static Target fromName(String name) {
+        return valueOf(name.toUpperCase(Locale.ROOT).replace('-', '_'));
+    }
+
+    public String getName() {
+        return name().toLowerCase(Locale.ROOT).replace('_', '-');
+    }
+
+    private static HttpRequest.Builder request(String uri) {
+        return HttpRequest.newBuilder(URI.create(uri)).timeout(REQUEST_TIMEOUT);
+    }
+
+    private static HttpRequest get(String uri) {
+        return request(uri).GET().build();
+    }
+
+    private static HttpRequest postJson(String uri, String json) {
+        return request(uri)
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString(json))
+                .build();
+    }
+
+    /**
+     * A request for {@code MultiplyServlet} to do 1000 multiplications at once.
+     */
+    private static HttpRequest multiplyBatch(String uri, Random random) {
+        ByteBuffer body = ByteBuffer.allocate(1000 * 8);
+        while (body.hasRemaining()) {
+            body.putInt(random.nextInt(10_000));
+        }
+        return request(uri)
+                .header("Content-Type", "application/octet-stream")
+                .POST(HttpRequest.BodyPublishers.ofByteArray(body.array()))
+                .build();
+    }
+
+    private static String randomName(Random random) {
+        return NAMES[random.nextInt(NAMES.length)];
+    }
+
+    private static String paroleeJson(Random random) {
+        return """
+                {
+                    "lastName": "%s",
+                    "firstName": "%s",
+                    "gender": "%s",
+                    "dateOfBirth": "19%02d-05-17",
+                    "homeAddress": {
+                        "streetNumber": "%d",
+                        "streetName": "Appleby Road",
+                        "suburb": "Remuera",
+                        "city": "Auckland",
+                        "zipCode": "1070"
+                    }
+                }
+                """.formatted(randomName(random), randomName(random), random.nextBoolean() ? "MALE" : "FEMALE",
+                50 + random.nextInt(50), 1 + random.nextInt(100));
+    }
+
+    private static String movementJson(Random random) {
+        return String.format(Locale.ROOT, """
+                {
+                    "timestamp": "2023-10-01T10:00:00",
+                    "geoPosition": {
+                        "latitude": %s,
+                        "longitude": %s
+                    }
+                }
+                """, -36.85 + random.nextDouble() / 100, 174.76 + random.nextDouble() / 100);
+    }
+}
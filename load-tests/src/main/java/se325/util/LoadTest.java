@@ -0,0 +1,268 @@
+package se325.util;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Drives a server with requests from a number of concurrent connections, and records how long each request takes in
+ * a {@link LatencyHistogram}. What a "connection" and a "request" are is up to the {@link SessionFactory} - see the
+ * {@code HttpLoadGenerator} class.
+ * <p>
+ * Each connection runs on its own thread, sending one request at a time. If a request rate is given, requests are
+ * sent on a fixed schedule (an "open-loop" test): each connection's requests are spaced evenly, and each latency is
+ * measured from when the request <em>should</em> have been sent, not when it actually was. Otherwise, a slow
+ * response would delay the requests queued up behind it, and those delays would never be recorded - the test would
+ * politely back off exactly when the server is struggling (this is known as "coordinated omission"). With a rate of
+ * zero, each connection sends its next request as soon as the previous one is answered (a "closed-loop" test), which
+ * measures the server's maximum throughput instead.
+ * <p>
+ * Requests made during the warmup period are not recorded, so that the server (and this client) have a chance to be
+ * JIT-compiled first.
+ */
+public class LoadTest {
+
+    /**
+     * One connection's worth of requests. If a request fails, the session is closed and a new one is opened for the
+     * next request.
+     */
+    public interface Session extends Closeable {
+
+        /**
+         * Sends a single request, and waits for its response.
+         */
+        void request() throws Exception;
+
+        @Override
+        default void close() throws IOException {
+        }
+    }
+
+    @FunctionalInterface
+    public interface SessionFactory {
+        Session open() throws Exception;
+    }
+
+    /**
+     * The settings for a load test, read from the program's arguments by {@link #parse(String[])}.
+     */
+    public static class Options {
+        public String label = "default";
+        public int connections = 10;
+        public double rate = 0;
+        public int warmupSeconds = 5;
+        public int durationSeconds = 30;
+        public Path csv = Path.of("load-test-results.csv");
+
+        /**
+         * Reads {@code --label=}, {@code --connections=}, {@code --rate=} (requests per second, across all
+         * connections), {@code --warmup=} and {@code --duration=} (in seconds) and {@code --csv=} (the file to append
+         * results to) from the given arguments. Anything else is ignored, so that callers can read their own options.
+         */
+        public static Options parse(String[] args) {
+            Options options = new Options();
+            options.label = option(args, "label", options.label);
+            options.connections = Integer.parseInt(option(args, "connections", String.valueOf(options.connections)));
+            options.rate = Double.parseDouble(option(args, "rate", String.valueOf(options.rate)));
+            options.warmupSeconds = Integer.parseInt(option(args, "warmup", String.valueOf(options.warmupSeconds)));
+            options.durationSeconds = Integer.parseInt(option(args, "duration", String.valueOf(options.durationSeconds)));
+            options.csv = Path.of(option(args, "csv", options.csv.toString()));
+
+            if (options.connections < 1) throw new IllegalArgumentException("Need at least one connection");
+            if (options.rate < 0) throw new IllegalArgumentException("Rate can't be negative");
+            if (options.durationSeconds < 1) throw new IllegalArgumentException("Duration must be at least 1 second");
+            return options;
+        }
+
+        /**
+         * Returns the value of the given {@code --name=value} argument, or the default value if there isn't one.
+         */
+        public static String option(String[] args, String name, String defaultValue) {
+            String prefix = "--" + name + "=";
+            for (String arg : args) {
+                if (arg.startsWith(prefix)) return arg.substring(prefix.length());
+            }
+            return defaultValue;
+        }
+    }
+
+    /**
+     * The outcome of a load test.
+     */
+    public static class Result {
+
+        public static final String CSV_HEADER =
+                "label,connections,target_rate,requests,errors,duration_s,throughput_rps,p50_us,p99_us,p999_us,max_us";
+
+        private final Options options;
+        private final LatencyHistogram latencies;
+        private final long errors;
+
+        Result(Options options, LatencyHistogram latencies, long errors) {
+            this.options = options;
+            this.latencies = latencies;
+            this.errors = errors;
+        }
+
+        public LatencyHistogram getLatencies() {
+            return latencies;
+        }
+
+        public long getErrors() {
+            return errors;
+        }
+
+        /** The number of successful requests per second, during the measured period. */
+        public double getThroughput() {
+            return latencies.getCount() / (double) options.durationSeconds;
+        }
+
+        public String toCsvRow() {
+            return String.format(Locale.ROOT, "%s,%d,%.0f,%d,%d,%d,%.1f,%.1f,%.1f,%.1f,%.1f",
+                    options.label.replace(',', ' '), options.connections, options.rate, latencies.getCount(), errors,
+                    options.durationSeconds, getThroughput(), micros(50), micros(99), micros(99.9),
+                    latencies.getMax() / 1000.0);
+        }
+
+        /**
+         * Appends this result to the given CSV file, first writing a header row if the file is new. Results from
+         * several runs (e.g. against different server implementations) can therefore be collected in one file.
+         */
+        public void appendTo(Path csv) throws IOException {
+            boolean isNew = !Files.exists(csv) || Files.size(csv) == 0;
+            try (PrintWriter out = new PrintWriter(Files.newBufferedWriter(csv,
+                    StandardOpenOption.CREATE, StandardOpenOption.APPEND))) {
+                if (isNew) out.println(CSV_HEADER);
+                out.println(toCsvRow());
+            }
+        }
+
+        @Override
+        public String toString() {
+            return String.format(Locale.ROOT,
+                    "%s: %d requests (%d errors) in %d s = %.1f requests/s; latency p50 %.1f us, p99 %.1f us, " +
+                            "p99.9 %.1f us, max %.1f us",
+                    options.label, latencies.getCount(), errors, options.durationSeconds, getThroughput(),
+                    micros(50), micros(99), micros(99.9), latencies.getMax() / 1000.0);
+        }
+
+        private double micros(double percentile) {
+            return latencies.getValueAtPercentile(percentile) / 1000.0;
+        }
+    }
+
+    private final Options options;
+    private final SessionFactory sessions;
+
+    public LoadTest(Options options, SessionFactory sessions) {
+        this.options = options;
+        this.sessions = sessions;
+    }
+
+    /**
+     * Runs the load test, returning once the warmup and measurement periods are over.
+     */
+    public Result run() throws InterruptedException {
+        long start = System.nanoTime();
+        long measureFrom = start + TimeUnit.SECONDS.toNanos(options.warmupSeconds);
+        long measureUntil = measureFrom + TimeUnit.SECONDS.toNanos(options.durationSeconds);
+
+        /* Each connection sends rate / connections requests per second. Stagger their start times evenly. */
+        long intervalNanos = options.rate > 0 ? (long) (1e9 * options.connections / options.rate) : 0;
+
+        List<Worker> workers = new ArrayList<>();
+        for (int i = 0; i < options.connections; i++) {
+            long firstRequest = start + (intervalNanos * i) / options.connections;
+            Worker worker = new Worker(firstRequest, intervalNanos, measureFrom, measureUntil);
+            worker.setName("load-test-" + i);
+            workers.add(worker);
+            worker.start();
+        }
+
+        LatencyHistogram latencies = new LatencyHistogram();
+        long errors = 0;
+        for (Worker worker : workers) {
+            worker.join();
+            latencies.add(worker.latencies);
+            errors += worker.errors;
+        }
+        return new Result(options, latencies, errors);
+    }
+
+    private class Worker extends Thread {
+
+        private final long firstRequest;
+        private final long intervalNanos;
+        private final long measureFrom;
+        private final long measureUntil;
+
+        private final LatencyHistogram latencies = new LatencyHistogram();
+        private long errors = 0;
+
+        Worker(long firstRequest, long intervalNanos, long measureFrom, long measureUntil) {
+            this.firstRequest = firstRequest;
+            this.intervalNanos = intervalNanos;
+            this.measureFrom = measureFrom;
+            this.measureUntil = measureUntil;
+        }
+
+        @Override
+        public void run() {
+            Session session = null;
+            long intended = firstRequest;
+
+            while (true) {
+                /* In open-loop mode, wait until this request is due. If we're running behind, send it straight away. */
+                long now = System.nanoTime();
+                if (intervalNanos > 0) {
+                    while (now < intended) {
+                        LockSupport.parkNanos(intended - now);
+                        now = System.nanoTime();
+                    }
+                } else {
+                    intended = now;
+                }
+                if (intended >= measureUntil) break;
+
+                boolean ok = false;
+                try {
+                    if (session == null) session = sessions.open();
+                    session.request();
+                    ok = true;
+                } catch (Exception e) {
+                    closeQuietly(session);
+                    session = null;
+                }
+                long latency = System.nanoTime() - intended;
+
+                if (intended >= measureFrom) {
+                    if (ok) {
+                        latencies.record(latency);
+                    } else {
+                        errors++;
+                    }
+                }
+                intended += intervalNanos;
+            }
+
+            closeQuietly(session);
+        }
+
+        private void closeQuietly(Session session) {
+            if (session == null) return;
+            try {
+                session.close();
+            } catch (IOException e) {
+                // We're discarding this session anyway.
+            }
+        }
+    }
+}